@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line and, unless
+ * {@code -rff} is given, writes JSON results to {@code jmh-results/<timestamp>.json} so that
+ * every run leaves a file {@link ResultComparator} can diff against a later one.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * mvn -pl benchmarks -am package
+ * java -jar benchmarks/target/benchmarks.jar TreeQuery -p entries=1000,100000
+ * java -cp benchmarks/target/benchmarks.jar benchmarks.ResultComparator old.json new.json
+ * }</pre>
+ * Fixtures go to {@code -Dbench.fixtures=<dir>} (see {@link Fixtures#home()}); point it at
+ * the file system you want to measure.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cli;
+        try {
+            cli = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldList()) {
+            new Runner(cli).list();
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        if (!cli.getResult().hasValue()) {
+            Path results = Files.createDirectories(Path.of("jmh-results"));
+            options.result(results.resolve(LocalDateTime.now().format(TIMESTAMP) + ".json").toString());
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        Options built = options.build();
+        new Runner(built).run();
+        System.out.println("Results written to " + built.getResult().get());
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import ops.LocalStorageOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocalStorageOps} copy, upload and download of a single file. Every call overwrites
+ * the previous call's target, so the measured cost includes truncation but not directory
+ * growth. Run with {@code -prof gc} to see per-byte allocation of the transfer paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FileTransferBenchmark {
+
+    @Param({"4096", "1048576", "67108864"})
+    public long fileSize;
+
+    private Path root;
+    private Path external;
+    private LocalStorageOps ops;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Fixtures.freshDirectory("transfer-" + fileSize);
+        external = Fixtures.freshDirectory("transfer-" + fileSize + "-external");
+        Files.createDirectories(root.resolve("src"));
+        Files.createDirectories(root.resolve("dst"));
+        Fixtures.file(root.resolve("src").resolve("payload.bin"), fileSize, Fixtures.SEED);
+        Fixtures.file(external.resolve("upload.bin"), fileSize, Fixtures.SEED + 1);
+        ops = new LocalStorageOps(Fixtures.context(root));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(root);
+        Fixtures.delete(external);
+    }
+
+    @Benchmark
+    public void copy() {
+        ops.copy("src/payload.bin", "dst");
+    }
+
+    @Benchmark
+    public void upload() {
+        ops.uploadFile("uploaded", external.resolve("upload.bin").toString(), "dst", "bin");
+    }
+
+    @Benchmark
+    public void download() {
+        ops.download("src/payload.bin", external.toString());
+    }
+}
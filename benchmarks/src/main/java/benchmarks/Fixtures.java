@@ -0,0 +1,266 @@
+package benchmarks;
+
+import ops.LocalStorageAdminOps;
+import ops.LocalStorageContext;
+import ops.LocalStorageOps;
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.StorageSession;
+import storageSpec.User;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.UserData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Reproducible fixtures for the benchmarks. Everything is derived from a seed, so two runs
+ * (or two machines) with the same parameters measure identical data.
+ * <p>
+ * Fixtures live under {@code ${bench.fixtures}}, defaulting to
+ * {@code ${java.io.tmpdir}/storage-sdk-bench}. Generated trees are expensive at 10^6 entries,
+ * so they are kept between runs and only regenerated when their completion marker is missing.
+ * The marker sits next to the tree rather than inside it, so it is never part of the storage
+ * the benchmarks list, search or copy.
+ */
+public final class Fixtures {
+
+    /**
+     * Seed every benchmark derives its fixtures from.
+     */
+    public static final long SEED = 0x5EED_2024L;
+
+    /**
+     * Regular files per generated leaf directory.
+     */
+    public static final int FILES_PER_DIR = 100;
+
+    /**
+     * Leaf directories per generated group directory.
+     */
+    public static final int DIRS_PER_GROUP = 100;
+
+    /**
+     * Words file names are built from; {@code searchByName*} benchmarks query these.
+     */
+    public static final String[] WORDS = {"report", "invoice", "photo", "notes", "backup", "draft", "summary", "archive"};
+
+    /**
+     * Extensions assigned to generated files.
+     */
+    public static final String[] EXTENSIONS = {"txt", "pdf", "jpg", "csv", "log"};
+
+    private static final String COMPLETE = ".complete";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Returns the directory fixtures are kept in.
+     *
+     * @return fixture root
+     */
+    public static Path home() {
+        String configured = System.getProperty("bench.fixtures");
+        return configured != null
+                ? Path.of(configured)
+                : Path.of(System.getProperty("java.io.tmpdir"), "storage-sdk-bench");
+    }
+
+    /**
+     * Returns an empty fixture directory, deleting whatever was there.
+     *
+     * @param name directory name below {@link #home()}
+     * @return the directory
+     */
+    public static Path freshDirectory(String name) {
+        Path dir = home().resolve(name);
+        delete(dir);
+        try {
+            return Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ── Generators ───────────────────────────────────────────────────────────
+
+    /**
+     * Returns a tree of {@code files} regular files, generating it on first use. Files are
+     * laid out as {@code g<group>/d<dir>/<word>-<n>.<ext>} with {@link #FILES_PER_DIR} files per
+     * leaf directory and {@link #DIRS_PER_GROUP} leaves per group; file contents are empty.
+     *
+     * @param files number of regular files
+     * @param seed  seed for names and extensions
+     * @return root of the tree
+     */
+    public static Path tree(int files, long seed) {
+        String name = "tree-" + files + "-" + Long.toHexString(seed);
+        Path root = home().resolve(name);
+        Path marker = home().resolve(name + COMPLETE);
+        if (Files.exists(marker) && Files.isDirectory(root)) {
+            return root;
+        }
+        delete(marker);
+        delete(root);
+        int dirs = (files + FILES_PER_DIR - 1) / FILES_PER_DIR;
+        IntStream.range(0, dirs).parallel().forEach(d -> {
+            SplittableRandom random = new SplittableRandom(seed ^ d * 0x9E3779B97F4A7C15L);
+            Path dir = root.resolve("g" + d / DIRS_PER_GROUP).resolve("d" + d % DIRS_PER_GROUP);
+            try {
+                Files.createDirectories(dir);
+                int count = Math.min(FILES_PER_DIR, files - d * FILES_PER_DIR);
+                for (int i = 0; i < count; i++) {
+                    Files.createFile(dir.resolve(fileName(random, d * FILES_PER_DIR + i)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            Files.createFile(marker);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return root;
+    }
+
+    /**
+     * Writes {@code size} pseudo-random bytes to {@code file}, unless it already holds exactly
+     * that many bytes.
+     *
+     * @param file target file; parent directories are created
+     * @param size number of bytes
+     * @param seed seed for the contents
+     * @return {@code file}
+     */
+    public static Path file(Path file, long size, long seed) {
+        try {
+            if (Files.isRegularFile(file) && Files.size(file) == size) {
+                return file;
+            }
+            Files.createDirectories(file.getParent());
+            SplittableRandom random = new SplittableRandom(seed);
+            byte[] chunk = new byte[1 << 16];
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (long written = 0; written < size; written += chunk.length) {
+                    for (int i = 0; i < chunk.length; i += 8) {
+                        long value = random.nextLong();
+                        for (int b = 0; b < 8; b++) {
+                            chunk[i + b] = (byte) (value >>> (b * 8));
+                        }
+                    }
+                    out.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates {@code count} users, each with a random privilege on up to {@code storages}
+     * storages named {@code storage-<n>}. Passwords are fixed-length hex strings shaped like
+     * stored hashes.
+     *
+     * @param count    number of users
+     * @param storages number of distinct storage IDs
+     * @param seed     seed for privileges and passwords
+     * @return the users, in name order
+     */
+    public static List<UserData> users(int count, int storages, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Privilege[] privileges = Privilege.values();
+        List<UserData> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserData user = new UserData();
+            user.setUserName("user-" + i);
+            user.setPassword(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+            Map<String, Privilege> grants = new HashMap<>();
+            int granted = 1 + random.nextInt(Math.min(3, storages));
+            for (int g = 0; g < granted; g++) {
+                grants.put("storage-" + random.nextInt(storages), privileges[random.nextInt(privileges.length)]);
+            }
+            user.setStoragesAndPrivileges(grants);
+            users.add(user);
+        }
+        return users;
+    }
+
+    // ── Storage wiring ───────────────────────────────────────────────────────
+
+    /**
+     * Creates a context for a storage rooted at {@code root}, without metadata persistence,
+     * whose only user is the {@link #session} user with {@link Privilege#ADMIN}.
+     *
+     * @param root existing storage root
+     * @return fresh context; indexes are built on first use
+     */
+    public static LocalStorageContext context(Path root) {
+        Storage storage = new Storage(root.getFileName().toString(), root.toString(), "bench-" + root.getFileName());
+        User admin = new User("bench", "unused");
+        admin.addStorage(storage.getStorageId(), Privilege.ADMIN);
+        storage.addUser(admin);
+        return new LocalStorageContext(storage);
+    }
+
+    /**
+     * Opens a session over {@code context} as its admin user, exactly as the auth provider
+     * would after a successful log-in.
+     *
+     * @param context storage context from {@link #context}
+     * @return session with privilege enforcement
+     */
+    public static StorageSession session(LocalStorageContext context) {
+        Storage storage = context.getStorage();
+        return new StorageSession(storage.findUser("bench"), storage,
+                new LocalStorageOps(context), new LocalStorageAdminOps(context));
+    }
+
+    /**
+     * Recursively deletes {@code path} if it exists.
+     *
+     * @param path file or directory
+     */
+    public static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to delete fixture '" + path + "'", e);
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private static String fileName(SplittableRandom random, int n) {
+        return WORDS[random.nextInt(WORDS.length)] + "-" + n + "." + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+    }
+}
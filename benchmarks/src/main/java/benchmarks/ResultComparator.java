@@ -0,0 +1,112 @@
+package benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark.
+ * <p>
+ * A result counts as changed only when the scores differ by more than the threshold
+ * <em>and</em> their error intervals do not overlap; lower is better for time modes and
+ * higher for throughput. The exit status is 1 if anything regressed, so the tool can gate a
+ * build.
+ * <p>
+ * Usage: {@code ResultComparator <baseline.json> <current.json> [thresholdPercent]}
+ */
+public final class ResultComparator {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 5;
+
+    private ResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: ResultComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %18s %18s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Verdict");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %18s %18s %9s  %s%n", entry.getKey(), "-", now.format(), "-", "new");
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100;
+            boolean overlap = Math.abs(now.score - before.score) <= now.error + before.error;
+            String verdict;
+            if (Math.abs(change) < threshold || overlap) {
+                verdict = "~";
+            } else if (now.lowerIsBetter() == change < 0) {
+                verdict = "improved";
+            } else {
+                verdict = "REGRESSED";
+                regressions++;
+            }
+            System.out.printf("%-90s %18s %18s %+8.1f%%  %s%n", entry.getKey(), before.format(), now.format(), change, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-90s %18s %18s %9s  %s%n", missing, baseline.get(missing).format(), "-", "-", "removed");
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) beyond " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a JMH JSON result file, keyed by benchmark name plus sorted parameters.
+     */
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    Map<String, String> params = new TreeMap<>();
+                    run.getAsJsonObject("params").entrySet()
+                            .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+                    key.append(params);
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").isJsonPrimitive()
+                        && metric.get("scoreError").getAsJsonPrimitive().isNumber()
+                        ? metric.get("scoreError").getAsDouble() : 0;
+                scores.put(key.toString(), new Score(run.get("mode").getAsString(),
+                        metric.get("score").getAsDouble(), error, metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return scores;
+    }
+
+    private record Score(String mode, double score, double error, String unit) {
+
+        boolean lowerIsBetter() {
+            return !mode.equals("thrpt");
+        }
+
+        String format() {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import serialization.BinarySerialization;
+import serialization.JournaledSerialization;
+import serialization.UserSerialization;
+import storageSpec.Privilege;
+import storageSpec.serialization.ISerialization;
+import storageSpec.serialization.UserData;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link ISerialization} read and write of large user sets in each format. Users come from
+ * {@link Fixtures#users} spread over eight storages, so {@link #streamSavedUsers} keeps
+ * roughly a quarter of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    private static final int STORAGES = 8;
+
+    @Param({"json", "binary", "journaled"})
+    public String format;
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    private Path dir;
+    private String file;
+    private ISerialization serialization;
+    private List<UserData> data;
+    private UserData changed;
+    private int updates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = Fixtures.freshDirectory("serialization-" + format + "-" + users);
+        file = dir.resolve("users.data").toString();
+        serialization = switch (format) {
+            case "json" -> new UserSerialization();
+            case "binary" -> new BinarySerialization();
+            case "journaled" -> new JournaledSerialization();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        data = Fixtures.users(users, STORAGES, Fixtures.SEED);
+        changed = data.get(users / 2);
+        serialization.saveUsers(file, data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (serialization instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // fixture is deleted next
+            }
+        }
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public void saveUsers() {
+        serialization.saveUsers(file, data);
+    }
+
+    @Benchmark
+    public List<UserData> readSavedUsers() {
+        return serialization.readSavedUsers(file);
+    }
+
+    @Benchmark
+    public long streamSavedUsers() {
+        try (Stream<UserData> stream = serialization.streamSavedUsers(file, "storage-0")) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public void updateOneUser() {
+        Privilege privilege = Privilege.values()[updates++ % Privilege.values().length];
+        changed.setStoragesAndPrivileges(Map.of("storage-0", privilege));
+        serialization.updateUsers(file, List.of(changed), List.of());
+    }
+}
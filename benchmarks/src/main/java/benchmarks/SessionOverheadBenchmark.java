@@ -0,0 +1,88 @@
+package benchmarks;
+
+import ops.LocalStorageContext;
+import ops.LocalStorageOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import storageSpec.StorageSession;
+import storageSpec.metrics.MetricsRegistry;
+import storageSpec.ops.IStorageOps;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of going through {@link StorageSession} (privilege check and delegation) and of the
+ * metrics decorator on top of it, versus calling {@link LocalStorageOps} directly. The local
+ * back-end answers {@code fileExists} with a single {@code stat} of a cached file, so that trio
+ * is dominated by one system call and the wrapper cost shows as the difference to
+ * {@code directFileExists}; {@code searchByName} adds a warm index lookup. Compare each
+ * {@code session*} / {@code metered*} result with its {@code direct*} twin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SessionOverheadBenchmark {
+
+    private Path root;
+    private String file;
+    private String name;
+    private LocalStorageOps direct;
+    private StorageSession session;
+    private IStorageOps metered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        root = Fixtures.tree(1000, Fixtures.SEED);
+        LocalStorageContext context = Fixtures.context(root);
+        direct = new LocalStorageOps(context);
+        session = Fixtures.session(context);
+        metered = new MetricsRegistry(false).instrument(session);
+        file = direct.listFiles("g0/d0").get(0);
+        name = Path.of(file).getFileName().toString();
+        direct.searchByName(name);
+    }
+
+    @Benchmark
+    public boolean directFileExists() {
+        return direct.fileExists(file);
+    }
+
+    @Benchmark
+    public boolean sessionFileExists() {
+        return session.fileExists(file);
+    }
+
+    @Benchmark
+    public boolean meteredFileExists() {
+        return metered.fileExists(file);
+    }
+
+    @Benchmark
+    public List<String> directSearchByName() {
+        return direct.searchByName(name);
+    }
+
+    @Benchmark
+    public List<String> sessionSearchByName() {
+        return session.searchByName(name);
+    }
+
+    @Benchmark
+    public List<String> meteredSearchByName() {
+        return metered.searchByName(name);
+    }
+}
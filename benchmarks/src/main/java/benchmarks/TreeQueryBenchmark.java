@@ -0,0 +1,117 @@
+package benchmarks;
+
+import ops.LocalStorageContext;
+import ops.LocalStorageOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import storageSpec.ops.Page;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing and search on generated trees of 10^3 to 10^6 files (see {@link Fixtures#tree}).
+ * Search benchmarks run against warm indexes; {@link #coldSearchByName} measures the full
+ * index build a freshly opened storage pays on its first search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TreeQueryBenchmark {
+
+    private static final String LEAF = "g0/d0";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entries;
+
+    private Path root;
+    private LocalStorageOps ops;
+    private String existingName;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        root = Fixtures.tree(entries, Fixtures.SEED);
+        ops = new LocalStorageOps(Fixtures.context(root));
+        existingName = Path.of(ops.listFiles(LEAF).get(0)).getFileName().toString();
+        ops.searchByName(existingName);
+        windowEnd = LocalDateTime.now().plusDays(1);
+        windowStart = windowEnd.minusYears(10);
+        ops.searchByCreationDateRange(windowStart, windowEnd, 1);
+    }
+
+    @Benchmark
+    public List<String> listFiles() {
+        return ops.listFiles(LEAF);
+    }
+
+    @Benchmark
+    public Page listFilesPage() {
+        return ops.listFiles(LEAF, 20, null);
+    }
+
+    @Benchmark
+    public List<String> listDirs() {
+        return ops.listDirs("g0");
+    }
+
+    @Benchmark
+    public List<String> searchByName() {
+        return ops.searchByName(existingName);
+    }
+
+    @Benchmark
+    public List<String> searchByNamePrefix() {
+        return ops.searchByNamePrefix("report-1");
+    }
+
+    @Benchmark
+    public List<String> searchByExtension() {
+        return ops.searchByExtension("pdf", LEAF);
+    }
+
+    @Benchmark
+    public Page searchByExtensionPage() {
+        return ops.searchByExtension("pdf", LEAF, 10, null);
+    }
+
+    @Benchmark
+    public List<String> searchByCreationDateRange() {
+        return ops.searchByCreationDateRange(windowStart, windowEnd, 100);
+    }
+
+    @Benchmark
+    public List<String> listNewestFiles() {
+        return ops.listNewestFiles(LEAF, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public List<String> coldSearchByName() {
+        LocalStorageContext context = Fixtures.context(root);
+        try {
+            return new LocalStorageOps(context).searchByName(existingName);
+        } finally {
+            context.close();
+        }
+    }
+}
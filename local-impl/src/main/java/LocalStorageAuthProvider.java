@@ -1,4 +1,305 @@
-import storageSpec.StorageManager;
+import auth.CredentialVerifier;
+import auth.PasswordHasher;
+import ops.FlushPolicy;
+import ops.LocalStorageAdminOps;
+import ops.LocalStorageContext;
+import ops.LocalStorageOps;
+import ops.MetadataFlusher;
+import storageSpec.IStorageAuthProvider;
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.StorageSession;
+import storageSpec.User;
+import storageSpec.exception.StorageException;
+import storageSpec.exception.StoragePermissionException;
+import storageSpec.serialization.ISerialization;
+import storageSpec.serialization.StorageData;
+import storageSpec.serialization.UserData;
 
-public class LocalStorageAuthProvider {
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link IStorageAuthProvider} for storages on the local file system.
+ * <p>
+ * Storage and user metadata live in the {@value #METADATA_DIR} directory under the storage
+ * root and are read and written through the given {@link ISerialization}. Each storage is
+ * loaded once; every session on it shares one {@link LocalStorageContext}.
+ * <p>
+ * Users are looked up by name through {@link Storage#findUser(String)}. Passwords are stored
+ * as salted {@link PasswordHasher} hashes; legacy plain-text passwords are accepted once and
+ * replaced by a hash on that login. Successful verifications are remembered briefly by a
+ * {@link CredentialVerifier}, so bursts of reconnects do not each pay the KDF cost.
+ * <p>
+ * Metadata changes made through a session are written behind by a {@link MetadataFlusher}
+ * per storage, according to the provider's {@link FlushPolicy}; {@link #logOut} waits for
+ * everything pending to be written and then snapshots the search indexes, so the next open
+ * of a large storage can skip the tree walk. Every open storage keeps background threads
+ * until the provider is {@linkplain #close() closed}.
+ * <p>
+ * The provider remembers the user records it last read or wrote for each storage and
+ * persists only the difference through {@link ISerialization#updateUsers}, so a journaling
+ * serializer writes O(changed users) instead of the whole user list.
+ */
+public class LocalStorageAuthProvider implements IStorageAuthProvider, AutoCloseable {
+
+    /**
+     * Directory under the storage root that holds the metadata files. Sessions cannot reach
+     * it; see {@link LocalStorageContext#METADATA_DIR}.
+     */
+    public static final String METADATA_DIR = LocalStorageContext.METADATA_DIR;
+
+    /**
+     * Flush policy used unless another is given: write pending changes every second.
+     */
+    public static final FlushPolicy DEFAULT_FLUSH_POLICY = FlushPolicy.interval(Duration.ofSeconds(1));
+
+    private static final String STORAGE_FILE = "storage.meta";
+    private static final String USERS_FILE = "users.meta";
+    private static final String INDEX_FILE = "index.snapshot";
+
+    private final ISerialization serialization;
+    private final PasswordHasher hasher;
+    private final CredentialVerifier verifier;
+    /**
+     * Hash of a random password, verified against when the user name is unknown so that a
+     * failed log-in costs the same whether or not the user exists.
+     */
+    private final String dummyHash;
+    private final FlushPolicy flushPolicy;
+    private final ConcurrentHashMap<Path, LocalStorageContext> contexts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Map<String, UserData>> persistedUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a provider with the default hash cost, a one-minute cache of up to
+     * 10&nbsp;000 verifications and {@link #DEFAULT_FLUSH_POLICY}.
+     *
+     * @param serialization format used for the metadata files
+     */
+    public LocalStorageAuthProvider(ISerialization serialization) {
+        this(serialization, new PasswordHasher(), Duration.ofMinutes(1), 10_000, DEFAULT_FLUSH_POLICY);
+    }
+
+    /**
+     * Creates a provider.
+     *
+     * @param serialization format used for the metadata files
+     * @param hasher        hasher for new and verified passwords
+     * @param cacheTtl      how long a successful verification is remembered
+     * @param cacheSize     maximum number of remembered verifications
+     * @param flushPolicy   when metadata changes are written
+     */
+    public LocalStorageAuthProvider(ISerialization serialization, PasswordHasher hasher,
+                                    Duration cacheTtl, int cacheSize, FlushPolicy flushPolicy) {
+        this.serialization = serialization;
+        this.hasher = hasher;
+        this.verifier = new CredentialVerifier(hasher, cacheTtl, cacheSize);
+        this.dummyHash = hasher.hash(UUID.randomUUID().toString());
+        this.flushPolicy = flushPolicy;
+    }
+
+    @Override
+    public boolean storageExists(String storageNameAndPath) {
+        return Files.isRegularFile(metadataFile(rootOf(storageNameAndPath), STORAGE_FILE));
+    }
+
+    @Override
+    public void initStorage(String storageNameAndPath, String username, String password) {
+        Path root = rootOf(storageNameAndPath);
+        if (storageExists(storageNameAndPath)) {
+            throw new StorageException("Storage already exists: " + storageNameAndPath);
+        }
+        try {
+            Files.createDirectories(root.resolve(METADATA_DIR));
+        } catch (IOException e) {
+            throw new StorageException("Failed to create storage '" + storageNameAndPath + "'", e);
+        }
+        Storage storage = new Storage(root.getFileName().toString(), root.toString(), UUID.randomUUID().toString());
+        User admin = new User(username, hasher.hash(password));
+        admin.addStorage(storage.getStorageId(), Privilege.ADMIN);
+        storage.addUser(admin);
+        LocalStorageContext context = newContext(root, storage);
+        contexts.put(root, context);
+        context.persistMetadata();
+        context.flushMetadata();
+    }
+
+    @Override
+    public StorageSession logIn(String storageNameAndPath, String username, String password) {
+        Path root = rootOf(storageNameAndPath);
+        LocalStorageContext context = contexts.computeIfAbsent(root, this::load);
+        Storage storage = context.getStorage();
+        User user = storage.findUser(username);
+        if (user == null) {
+            hasher.verify(password, dummyHash);
+            throw new StoragePermissionException("Invalid user name or password");
+        }
+        if (!authenticate(context, user, password)) {
+            throw new StoragePermissionException("Invalid user name or password");
+        }
+        if (user.getPrivilegeFor(storage.getStorageId()) == null) {
+            throw new StoragePermissionException("User '" + username + "' has no access to this storage");
+        }
+        return new StorageSession(user, storage, new LocalStorageOps(context), new LocalStorageAdminOps(context));
+    }
+
+    @Override
+    public void logOut(StorageSession session) {
+        Path root = rootOf(session.getStorage().getRootLocation());
+        LocalStorageContext context = contexts.get(root);
+        if (context != null) {
+            context.flushMetadata();
+            context.saveIndexSnapshot();
+        } else {
+            persist(root, session.getStorage());
+        }
+    }
+
+    /**
+     * Closes every open storage: pending metadata is written, the index snapshot saved and
+     * the storage's background threads stopped. A later login opens the storage again.
+     *
+     * @throws StorageException if a storage's metadata cannot be written; the other
+     *                          storages are still closed
+     */
+    @Override
+    public void close() {
+        StorageException failure = null;
+        for (Path root : List.copyOf(contexts.keySet())) {
+            LocalStorageContext context = contexts.remove(root);
+            if (context == null) {
+                continue;
+            }
+            try {
+                try {
+                    context.close();
+                } finally {
+                    context.saveIndexSnapshot();
+                }
+            } catch (StorageException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ── Internal helpers ─────────────────────────────────────────────────────
+
+    private boolean authenticate(LocalStorageContext context, User user, String password) {
+        String stored = user.getPassword();
+        if (PasswordHasher.isHash(stored)) {
+            return verifier.verify(user.getUserName(), password, stored);
+        }
+        boolean matches = stored != null && MessageDigest.isEqual(
+                stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+        if (matches && user.compareAndSetPassword(stored, hasher.hash(password))) {
+            context.persistMetadata();
+        }
+        return matches;
+    }
+
+    private LocalStorageContext load(Path root) {
+        StorageData data = serialization.readStorageData(metadataFile(root, STORAGE_FILE).toString());
+        if (data == null) {
+            throw new StorageException("No storage at: " + root);
+        }
+        Storage storage = new Storage(data.getStorageName(), root.toString(), data.getStorageID());
+        storage.setStorageSize(data.getStorageSize());
+        storage.setUsedBytes(data.getUsedBytes());
+        if (data.getForbiddenExtensions() != null) {
+            storage.setForbiddenExtensions(data.getForbiddenExtensions());
+        }
+        if (data.getDirsMaxChildrenCount() != null) {
+            storage.setDirsMaxChildrenCount(data.getDirsMaxChildrenCount());
+        }
+        List<User> users = new ArrayList<>();
+        Map<String, UserData> loaded = new HashMap<>();
+        try (Stream<UserData> saved = serialization.streamSavedUsers(
+                metadataFile(root, USERS_FILE).toString(), storage.getStorageId())) {
+            saved.forEach(userData -> {
+                User user = new User(userData.getUserName(), userData.getPassword());
+                user.setStoragesAndPrivileges(userData.getStoragesAndPrivileges());
+                users.add(user);
+                loaded.put(userData.getUserName(), userData);
+            });
+        }
+        storage.setUsers(users);
+        persistedUsers.put(root, loaded);
+        return newContext(root, storage);
+    }
+
+    private LocalStorageContext newContext(Path root, Storage storage) {
+        LocalStorageContext context = new LocalStorageContext(storage, metadataFile(root, INDEX_FILE));
+        context.setPasswordHasher(hasher);
+        context.setMetadataFlusher(new MetadataFlusher("metadata-flusher-" + storage.getStorageId(),
+                () -> persist(root, storage), flushPolicy));
+        return context;
+    }
+
+    private void persist(Path root, Storage storage) {
+        serialization.saveStorageData(metadataFile(root, STORAGE_FILE).toString(), storage);
+        String usersFile = metadataFile(root, USERS_FILE).toString();
+        synchronized (storage) {
+            Map<String, UserData> current = new LinkedHashMap<>();
+            for (User user : storage.getUsers()) {
+                current.put(user.getUserName(), toData(user));
+            }
+            Map<String, UserData> previous = persistedUsers.get(root);
+            if (previous == null) {
+                serialization.saveUsers(usersFile, current.values());
+            } else {
+                List<UserData> changed = new ArrayList<>();
+                for (UserData user : current.values()) {
+                    if (!sameUser(previous.get(user.getUserName()), user)) {
+                        changed.add(user);
+                    }
+                }
+                List<String> removed = new ArrayList<>(previous.keySet());
+                removed.removeAll(current.keySet());
+                serialization.updateUsers(usersFile, changed, removed);
+            }
+            persistedUsers.put(root, current);
+        }
+    }
+
+    private static UserData toData(User user) {
+        UserData data = new UserData();
+        data.setUserName(user.getUserName());
+        data.setPassword(user.getPassword());
+        data.setStoragesAndPrivileges(user.getStoragesAndPrivileges());
+        return data;
+    }
+
+    private static boolean sameUser(UserData a, UserData b) {
+        return a != null
+                && Objects.equals(a.getPassword(), b.getPassword())
+                && Objects.equals(a.getStoragesAndPrivileges(), b.getStoragesAndPrivileges());
+    }
+
+    private static Path rootOf(String storageNameAndPath) {
+        return Path.of(storageNameAndPath).toAbsolutePath().normalize();
+    }
+
+    private static Path metadataFile(Path root, String name) {
+        return root.resolve(METADATA_DIR).resolve(name);
+    }
 }
@@ -0,0 +1,102 @@
+package auth;
+
+import storageSpec.exception.StorageException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Password verification with a short-lived, bounded cache of recent successes.
+ * <p>
+ * A full {@link PasswordHasher#verify KDF run} happens on the first login and whenever the
+ * cache has no fresh entry; a repeated login with the same credentials within the TTL is
+ * answered with one HMAC instead. The cache never holds passwords: an entry is keyed by
+ * user name and stored hash (so a password change invalidates it) and holds an HMAC of the
+ * password under a random per-process key. Failed attempts are never cached and always
+ * pay the full KDF cost.
+ */
+public final class CredentialVerifier {
+
+    private final PasswordHasher hasher;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final byte[] key = new byte[32];
+    private final LinkedHashMap<String, Entry> recent;
+
+    /**
+     * Creates a verifier.
+     *
+     * @param hasher     hasher used for full verification
+     * @param ttl        how long a successful verification is remembered
+     * @param maxEntries maximum number of remembered verifications
+     */
+    public CredentialVerifier(PasswordHasher hasher, Duration ttl, int maxEntries) {
+        this.hasher = hasher;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CredentialVerifier.this.maxEntries;
+            }
+        };
+        new SecureRandom().nextBytes(key);
+    }
+
+    /**
+     * Checks {@code password} against the stored hash of {@code userName}.
+     *
+     * @param userName   login name
+     * @param password   plain-text password
+     * @param storedHash the user's stored password hash
+     * @return {@code true} if the password matches
+     */
+    public boolean verify(String userName, String password, String storedHash) {
+        String cacheKey = userName + '\0' + storedHash;
+        byte[] tag = tag(password);
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (recent) {
+            entry = recent.get(cacheKey);
+        }
+        if (entry != null && now - entry.verifiedAt < ttlNanos && MessageDigest.isEqual(entry.tag, tag)) {
+            return true;
+        }
+        if (!hasher.verify(password, storedHash)) {
+            return false;
+        }
+        synchronized (recent) {
+            recent.put(cacheKey, new Entry(tag, now));
+        }
+        return true;
+    }
+
+    /**
+     * Forgets every remembered verification, e.g. after a security-relevant change.
+     */
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    private byte[] tag(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new StorageException("Credential cache failure", e);
+        }
+    }
+
+    private record Entry(byte[] tag, long verifiedAt) {
+    }
+}
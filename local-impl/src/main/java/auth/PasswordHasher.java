@@ -0,0 +1,111 @@
+package auth;
+
+import storageSpec.exception.StorageException;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes with a configurable iteration count.
+ * <p>
+ * Hashes are self-describing strings, {@code pbkdf2-sha256$<iterations>$<salt>$<hash>}
+ * with Base64 salt and hash, so the cost can be raised later without invalidating
+ * existing hashes — each one is verified with the iteration count it was created with.
+ */
+public final class PasswordHasher {
+
+    /**
+     * Iteration count used when none is given.
+     */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Creates a hasher with {@link #DEFAULT_ITERATIONS}.
+     */
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Creates a hasher with the given cost.
+     *
+     * @param iterations PBKDF2 iteration count for new hashes
+     * @throws StorageException if {@code iterations} is not positive
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations <= 0) {
+            throw new StorageException("Iteration count must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hashes {@code password} with a fresh random salt.
+     *
+     * @param password plain-text password
+     * @return encoded hash
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + '$' + iterations + '$' + base64.encodeToString(salt)
+                + '$' + base64.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks {@code password} against an encoded hash in constant time.
+     *
+     * @param password plain-text password
+     * @param encoded  hash produced by {@link #hash(String)}
+     * @return {@code true} if the password matches
+     */
+    public boolean verify(String password, String encoded) {
+        if (!isHash(encoded)) {
+            return false;
+        }
+        String[] parts = encoded.split("\\$");
+        try {
+            int cost = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, salt, cost));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether {@code value} looks like a hash produced by this class, as opposed
+     * to a legacy plain-text password.
+     *
+     * @param value stored password value
+     * @return {@code true} if it is an encoded hash
+     */
+    public static boolean isHash(String value) {
+        return value != null && value.startsWith(PREFIX + '$') && value.split("\\$").length == 4;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new StorageException("Password hashing failed", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package index;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Time-ordered index of regular files, keyed by creation instant.
+ * <p>
+ * Holds a storage-wide skip list (built by one tree walk on the first storage-wide query)
+ * and per-directory skip lists (each built by listing its directory on first use).
+ * Range queries and date-sorted listings walk only the matching part of a skip list,
+ * i.e. O(log n + k), and never read attributes of files outside the range. Files created at
+ * the same instant are kept in path order, so a range query can also be resumed after a
+ * given file, a page at a time.
+ * <p>
+ * The storage-wide list can be seeded from a {@linkplain #setLoader snapshot} instead of
+ * walking the tree; without one, the walk runs in parallel.
+ * <p>
+ * The instant recorded for each file is remembered so that removal does not depend on
+ * re-reading attributes — some platforms report the last-modified time as creation time.
+ */
+public final class CreationTimeIndex {
+
+    private final Path root;
+    private final Path excluded;
+    private final ConcurrentSkipListMap<Instant, NavigableSet<Path>> global = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Path, ConcurrentSkipListMap<Instant, NavigableSet<Path>>> byDir = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Instant> recorded = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean globalBuilt;
+    private volatile Supplier<Map<Path, Instant>> loader;
+
+    /**
+     * Creates an empty index for the tree under {@code root}.
+     *
+     * @param root     storage root
+     * @param excluded subtree of the root left out of the index, or {@code null}
+     */
+    public CreationTimeIndex(Path root, Path excluded) {
+        this.root = root;
+        this.excluded = excluded;
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * Returns files anywhere in the storage created within {@code [start, end]}, oldest first.
+     *
+     * @param start inclusive lower bound
+     * @param end   inclusive upper bound
+     * @param limit maximum number of results; {@code <= 0} means unlimited
+     * @return matching files — never null
+     */
+    public List<Path> range(Instant start, Instant end, int limit) {
+        ensureGlobalBuilt();
+        return collect(global.subMap(start, true, end, true), limit);
+    }
+
+    /**
+     * Returns files directly inside {@code dir} created within {@code [start, end]}, oldest first.
+     *
+     * @param dir   directory to search
+     * @param start inclusive lower bound
+     * @param end   inclusive upper bound
+     * @param limit maximum number of results; {@code <= 0} means unlimited
+     * @return matching files — never null
+     */
+    public List<Path> range(Path dir, Instant start, Instant end, int limit) {
+        return collect(dirIndex(dir).subMap(start, true, end, true), limit);
+    }
+
+    /**
+     * Returns up to {@code limit} files anywhere in the storage created within
+     * {@code [start, end]}, ordered by creation instant and then by path, starting after
+     * {@code after}.
+     *
+     * @param start inclusive lower bound
+     * @param end   inclusive upper bound
+     * @param after creation instant and path to resume after, or {@code null} to start with
+     *              the first
+     * @param limit maximum number of results
+     * @return matching files with their creation instants — never null
+     */
+    public List<Map.Entry<Instant, Path>> range(Instant start, Instant end, Map.Entry<Instant, Path> after, int limit) {
+        ensureGlobalBuilt();
+        return collect(global.subMap(start, true, end, true), after, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} files directly inside {@code dir} created within
+     * {@code [start, end]}, ordered by creation instant and then by path, starting after
+     * {@code after}.
+     *
+     * @param dir   directory to search
+     * @param start inclusive lower bound
+     * @param end   inclusive upper bound
+     * @param after creation instant and path to resume after, or {@code null} to start with
+     *              the first
+     * @param limit maximum number of results
+     * @return matching files with their creation instants — never null
+     */
+    public List<Map.Entry<Instant, Path>> range(Path dir, Instant start, Instant end, Map.Entry<Instant, Path> after, int limit) {
+        return collect(dirIndex(dir).subMap(start, true, end, true), after, limit);
+    }
+
+    /**
+     * Returns files directly inside {@code dir}, oldest first.
+     *
+     * @param dir   directory to list
+     * @param limit maximum number of results; {@code <= 0} means unlimited
+     * @return files sorted by creation instant — never null
+     */
+    public List<Path> oldestFirst(Path dir, int limit) {
+        return collect(dirIndex(dir), limit);
+    }
+
+    /**
+     * Returns files directly inside {@code dir}, newest first.
+     *
+     * @param dir   directory to list
+     * @param limit maximum number of results; {@code <= 0} means unlimited
+     * @return files sorted by creation instant, descending — never null
+     */
+    public List<Path> newestFirst(Path dir, int limit) {
+        return collect(dirIndex(dir).descendingMap(), limit);
+    }
+
+    // ── Incremental maintenance ──────────────────────────────────────────────
+
+    /**
+     * Records {@code path} and, if it is a directory, every file below it.
+     *
+     * @param path the new entry
+     */
+    public void addedTree(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            walk(path, (file, attrs) -> {
+                boolean tracked = globalBuilt || byDir.containsKey(file.getParent());
+                if (tracked) {
+                    put(file, attrs.creationTime().toInstant());
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets {@code path} and every file below it. Must be called while the entries are
+     * still on disk, i.e. before a delete or move.
+     *
+     * @param path the entry being deleted or moved away
+     */
+    public void removedTree(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (Files.isDirectory(path)) {
+                walk(path, (file, attrs) -> drop(file));
+                forgetTree(path);
+            } else {
+                drop(path);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a single file.
+     *
+     * @param file the file being deleted
+     */
+    public void removed(Path file) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            drop(file);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the per-directory lists of {@code path} and every directory below it,
+     * once they are gone.
+     *
+     * @param path deleted directory
+     */
+    public void forgetTree(Path path) {
+        byDir.keySet().removeIf(dir -> dir.startsWith(path));
+    }
+
+    // ── Snapshots ────────────────────────────────────────────────────────────
+
+    /**
+     * Supplies the creation instants to build the storage-wide list from instead of walking
+     * the tree. The supplier is called at most once, on the first storage-wide query or
+     * update; if it returns {@code null} or throws a {@link StorageException} the tree is
+     * walked after all. Ignored if the list is already built.
+     *
+     * @param loader creation instant of every regular file, or {@code null} to clear
+     */
+    public void setLoader(Supplier<Map<Path, Instant>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns a consistent copy of the storage-wide list, or {@code null} if it has not been
+     * built.
+     *
+     * @return creation instant of every regular file
+     */
+    public Map<Path, Instant> snapshot() {
+        lock.writeLock().lock();
+        try {
+            if (!globalBuilt) {
+                return null;
+            }
+            Map<Path, Instant> files = new HashMap<>();
+            for (Map.Entry<Instant, NavigableSet<Path>> entry : global.entrySet()) {
+                for (Path file : entry.getValue()) {
+                    files.put(file, entry.getKey());
+                }
+            }
+            return files;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards all contents; everything is rebuilt on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            globalBuilt = false;
+            loader = null;
+            global.clear();
+            byDir.clear();
+            recorded.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private ConcurrentSkipListMap<Instant, NavigableSet<Path>> dirIndex(Path dir) {
+        ConcurrentSkipListMap<Instant, NavigableSet<Path>> index = byDir.get(dir);
+        if (index != null) {
+            return index;
+        }
+        lock.readLock().lock();
+        try {
+            return byDir.computeIfAbsent(dir, this::scan);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ConcurrentSkipListMap<Instant, NavigableSet<Path>> scan(Path dir) {
+        ConcurrentSkipListMap<Instant, NavigableSet<Path>> index = new ConcurrentSkipListMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    Instant created = recorded.computeIfAbsent(file, f -> attrs.creationTime().toInstant());
+                    add(index, created, file);
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to index directory '" + dir + "'", e);
+        }
+        return index;
+    }
+
+    private void ensureGlobalBuilt() {
+        if (globalBuilt) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!globalBuilt) {
+                Supplier<Map<Path, Instant>> pending = loader;
+                loader = null;
+                Map<Path, Instant> loaded = load(pending);
+                if (loaded != null) {
+                    loaded.forEach((file, instant) -> {
+                        if (excluded == null || !file.startsWith(excluded)) {
+                            add(global, recorded.computeIfAbsent(file, f -> instant), file);
+                        }
+                    });
+                } else {
+                    ParallelWalk.walk(root, excluded, (file, attrs) -> {
+                        if (attrs.isRegularFile()) {
+                            Instant created = recorded.computeIfAbsent(file, f -> attrs.creationTime().toInstant());
+                            add(global, created, file);
+                        }
+                    });
+                }
+                globalBuilt = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <T> T load(Supplier<T> pending) {
+        try {
+            return pending == null ? null : pending.get();
+        } catch (StorageException e) {
+            return null; // unreadable snapshot — walk instead
+        }
+    }
+
+    private void loadPending() {
+        if (loader != null) {
+            ensureGlobalBuilt();
+        }
+    }
+
+    private void put(Path file, Instant created) {
+        Instant previous = recorded.put(file, created);
+        if (previous != null) {
+            remove(global, previous, file);
+            ConcurrentSkipListMap<Instant, NavigableSet<Path>> dirIndex = byDir.get(file.getParent());
+            if (dirIndex != null) {
+                remove(dirIndex, previous, file);
+            }
+        }
+        if (globalBuilt) {
+            add(global, created, file);
+        }
+        byDir.computeIfPresent(file.getParent(), (dir, index) -> {
+            add(index, created, file);
+            return index;
+        });
+    }
+
+    private void drop(Path file) {
+        Instant created = recorded.remove(file);
+        if (created == null) {
+            return;
+        }
+        remove(global, created, file);
+        byDir.computeIfPresent(file.getParent(), (dir, index) -> {
+            remove(index, created, file);
+            return index;
+        });
+    }
+
+    private static void add(ConcurrentSkipListMap<Instant, NavigableSet<Path>> index, Instant created, Path file) {
+        index.compute(created, (k, files) -> {
+            NavigableSet<Path> set = files == null ? new ConcurrentSkipListSet<>() : files;
+            set.add(file);
+            return set;
+        });
+    }
+
+    private static void remove(ConcurrentSkipListMap<Instant, NavigableSet<Path>> index, Instant created, Path file) {
+        index.computeIfPresent(created, (k, files) -> {
+            files.remove(file);
+            return files.isEmpty() ? null : files;
+        });
+    }
+
+    private static List<Path> collect(NavigableMap<Instant, NavigableSet<Path>> slice, int limit) {
+        List<Path> result = new ArrayList<>();
+        for (Map.Entry<Instant, NavigableSet<Path>> entry : slice.entrySet()) {
+            for (Path file : entry.getValue()) {
+                if (limit > 0 && result.size() >= limit) {
+                    return result;
+                }
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private static List<Map.Entry<Instant, Path>> collect(NavigableMap<Instant, NavigableSet<Path>> slice,
+                                                          Map.Entry<Instant, Path> after, int limit) {
+        List<Map.Entry<Instant, Path>> result = new ArrayList<>();
+        NavigableMap<Instant, NavigableSet<Path>> rest = after == null ? slice : slice.tailMap(after.getKey(), true);
+        for (Map.Entry<Instant, NavigableSet<Path>> entry : rest.entrySet()) {
+            NavigableSet<Path> files = entry.getValue();
+            if (after != null && entry.getKey().equals(after.getKey())) {
+                files = files.tailSet(after.getValue(), false);
+            }
+            for (Path file : files) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(Map.entry(entry.getKey(), file));
+            }
+        }
+        return result;
+    }
+
+    private interface FileVisitor {
+        void visit(Path file, BasicFileAttributes attrs);
+    }
+
+    private static void walk(Path start, FileVisitor visitor) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        visitor.visit(file, attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to index '" + start + "'", e);
+        }
+    }
+}
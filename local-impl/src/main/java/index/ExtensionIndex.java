@@ -0,0 +1,167 @@
+package index;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Per-directory secondary index of the files directly inside a directory, keyed by
+ * extension (lower case, without the leading dot).
+ * <p>
+ * A directory is indexed the first time it is queried, by listing it once; from then on
+ * the mutating operations keep its entry current, so a lookup is a map access rather
+ * than a directory scan. Files are kept in path order, so a lookup can also be resumed
+ * after a given file, a page at a time. Directories that have never been queried cost
+ * nothing.
+ */
+public final class ExtensionIndex {
+
+    private final ConcurrentHashMap<Path, Map<String, NavigableSet<Path>>> byDir = new ConcurrentHashMap<>();
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * Returns the files directly inside {@code dir} that have the given extension.
+     *
+     * @param dir       directory to search
+     * @param extension extension with or without the leading dot
+     * @return matching files — never null
+     */
+    public List<Path> find(Path dir, String extension) {
+        NavigableSet<Path> files = byDir.computeIfAbsent(dir, ExtensionIndex::scan).get(normalize(extension));
+        return files == null ? List.of() : List.copyOf(files);
+    }
+
+    /**
+     * Returns up to {@code limit} files directly inside {@code dir} that have the given
+     * extension, in path order, starting after {@code after}.
+     *
+     * @param dir       directory to search
+     * @param extension extension with or without the leading dot
+     * @param after     file to resume after, or {@code null} to start with the first
+     * @param limit     maximum number of files
+     * @return matching files — never null
+     */
+    public List<Path> find(Path dir, String extension, Path after, int limit) {
+        NavigableSet<Path> files = byDir.computeIfAbsent(dir, ExtensionIndex::scan).get(normalize(extension));
+        List<Path> result = new ArrayList<>();
+        if (files != null) {
+            for (Path file : after == null ? files : files.tailSet(after, false)) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    // ── Incremental maintenance ──────────────────────────────────────────────
+
+    /**
+     * Records a newly created entry. Only regular files inside already-indexed directories
+     * are tracked; anything else is ignored.
+     *
+     * @param path the new entry
+     */
+    public void added(Path path) {
+        byDir.computeIfPresent(path.getParent(), (dir, entry) -> {
+            if (Files.isRegularFile(path)) {
+                entry.computeIfAbsent(extensionOf(path), k -> new ConcurrentSkipListSet<>()).add(path);
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Forgets {@code path} in its parent's entry and drops the entries of {@code path}
+     * and of every directory below it.
+     *
+     * @param path the entry being deleted or moved away
+     */
+    public void removedTree(Path path) {
+        removed(path);
+        forgetTree(path);
+    }
+
+    /**
+     * Forgets a single file in its parent's entry.
+     *
+     * @param file the file being deleted
+     */
+    public void removed(Path file) {
+        byDir.computeIfPresent(file.getParent(), (dir, entry) -> {
+            NavigableSet<Path> files = entry.get(extensionOf(file));
+            if (files != null) {
+                files.remove(file);
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Drops the entries of {@code path} and of every directory below it, once they are gone.
+     *
+     * @param path deleted directory
+     */
+    public void forgetTree(Path path) {
+        byDir.keySet().removeIf(dir -> dir.startsWith(path));
+    }
+
+    /**
+     * Discards all entries; directories are re-indexed on next query.
+     */
+    public void invalidate() {
+        byDir.clear();
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private static Map<String, NavigableSet<Path>> scan(Path dir) {
+        Map<String, NavigableSet<Path>> entry = new ConcurrentHashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : stream) {
+                entry.computeIfAbsent(extensionOf(file), k -> new ConcurrentSkipListSet<>()).add(file);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to index directory '" + dir + "'", e);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the normalised extension of {@code file}'s name, or {@code ""} if it has none.
+     *
+     * @param file file path
+     * @return lower-case extension without the leading dot
+     */
+    public static String extensionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot <= 0 ? "" : normalize(name.substring(dot + 1));
+    }
+
+    /**
+     * Normalises an extension to lower case without the leading dot.
+     *
+     * @param extension extension with or without the leading dot; may be null
+     * @return normalised extension, {@code ""} for null
+     */
+    public static String normalize(String extension) {
+        if (extension == null) {
+            return "";
+        }
+        String ext = extension.startsWith(".") ? extension.substring(1) : extension;
+        return ext.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,336 @@
+package index;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-disk snapshot of a storage's {@link NameIndex} and {@link CreationTimeIndex}, and of
+ * its used bytes and tracked child counts, so that reopening a large storage does not have
+ * to walk the whole tree.
+ * <p>
+ * The file starts with a fixed header — magic, version, the sections present, the mutation
+ * generation the snapshot was taken at, the used bytes and the section sizes — followed by
+ * the directory section (relative path, modification time and tracked child count of the
+ * root and of every indexed directory), the name section (relative paths) and the
+ * creation-time section (relative path, seconds, nanos). {@link #open} reads the file onto
+ * the heap and checks the directory section; the other sections are decoded when the
+ * indexes first ask for them.
+ * No mapping or file handle is kept, so the owner may delete the file at any time.
+ * <p>
+ * A snapshot is only as good as its validation: the owner must delete it before the first
+ * mutation that follows the write, and {@link #open} rejects it if any recorded directory
+ * is gone or has a different modification time. That catches entries added, removed or
+ * renamed anywhere in the tree behind the back-end's back, at the cost of one stat per
+ * directory instead of a walk that lists every directory and stats every entry — except,
+ * on file systems with coarse timestamps, a change within the same tick as the write. The
+ * child counts are exact under that check; the used bytes are not, since a file rewritten
+ * in place leaves its directory alone, which the periodic quota reconciliation corrects.
+ */
+public final class IndexSnapshot {
+
+    private static final int MAGIC = 0x53534958;
+    private static final short VERSION = 3;
+    private static final int HEADER_SIZE = 40;
+    private static final byte TIMES = 2;
+
+    private final Path root;
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final byte sections;
+    private final long generation;
+    private final long usedBytes;
+    private final int dirCount;
+    private final int nameCount;
+    private final int timeCount;
+
+    private IndexSnapshot(Path root, Path file, ByteBuffer buffer) {
+        this.root = root;
+        this.file = file;
+        this.buffer = buffer;
+        buffer.getInt();
+        buffer.getShort();
+        this.sections = buffer.get();
+        buffer.get();
+        this.generation = buffer.getLong();
+        this.usedBytes = buffer.getLong();
+        this.dirCount = buffer.getInt();
+        this.nameCount = buffer.getInt();
+        this.timeCount = buffer.getInt();
+    }
+
+    /**
+     * Opens a snapshot if it exists and is still valid for {@code root}: every directory it
+     * recorded must still exist with the same modification time.
+     *
+     * @param file snapshot file
+     * @param root storage root the snapshot was taken of
+     * @return the snapshot, or {@code null} if it is missing, unreadable or stale
+     */
+    public static IndexSnapshot open(Path file, Path root) {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (IOException e) {
+            return null;
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            return null;
+        }
+        IndexSnapshot snapshot = new IndexSnapshot(root, file, buffer);
+        try {
+            return snapshot.directoriesUnchanged() ? snapshot : null;
+        } catch (RuntimeException e) {
+            return null; // corrupt directory section
+        }
+    }
+
+    /**
+     * Writes a snapshot, replacing any previous one atomically. The name section is
+     * required, since it is where the directories to validate come from; the creation-time
+     * section is left out when {@code times} is {@code null}, i.e. was never built. Child
+     * counts of directories that are not indexed are dropped.
+     *
+     * @param file        snapshot file
+     * @param root        storage root
+     * @param generation  mutation generation the indexes were captured at
+     * @param names       contents of the name index
+     * @param times       contents of the creation-time index, or {@code null}
+     * @param usedBytes   used bytes of the storage, or {@code -1} if not known
+     * @param childCounts tracked child counts by directory
+     * @return {@code false} if an indexed entry vanished while the snapshot was taken, in
+     *         which case nothing was written
+     * @throws StorageException if the write fails
+     */
+    public static boolean write(Path file, Path root, long generation, Collection<Path> names,
+                                Map<Path, Instant> times, long usedBytes, Map<Path, Integer> childCounts) {
+        try {
+            Map<Path, Long> dirs = new LinkedHashMap<>();
+            dirs.put(root, modified(root));
+            for (Path path : names) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    return false;
+                }
+                if (attrs.isDirectory()) {
+                    dirs.put(path, attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+                }
+            }
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer out = ByteBuffer.allocate(1 << 16);
+                    out.putInt(MAGIC).putShort(VERSION).put((byte) (times != null ? TIMES : 0)).put((byte) 0)
+                            .putLong(generation).putLong(usedBytes).putInt(dirs.size()).putInt(names.size())
+                            .putInt(times != null ? times.size() : 0).putInt(0);
+                    for (Map.Entry<Path, Long> dir : dirs.entrySet()) {
+                        out = putPath(channel, out, dir.getKey(), root, 12);
+                        out.putLong(dir.getValue()).putInt(childCounts.getOrDefault(dir.getKey(), -1));
+                    }
+                    for (Path path : names) {
+                        out = putPath(channel, out, path, root, 0);
+                    }
+                    if (times != null) {
+                        for (Map.Entry<Path, Instant> entry : times.entrySet()) {
+                            out = putPath(channel, out, entry.getKey(), root, 12);
+                            out.putLong(entry.getValue().getEpochSecond()).putInt(entry.getValue().getNano());
+                        }
+                    }
+                    drain(channel, out);
+                    channel.force(true);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new StorageException("Failed to write index snapshot '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Returns the mutation generation the snapshot was taken at.
+     *
+     * @return generation
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Returns the used bytes of the storage when the snapshot was taken.
+     *
+     * @return used bytes, or {@code -1} if they were not known
+     */
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Decodes the child counts from the directory section.
+     *
+     * @return child count of every directory whose children were tracked
+     * @throws StorageException if the section is corrupt
+     */
+    public Map<Path, Integer> childCounts() {
+        try {
+            ByteBuffer in = buffer.duplicate().position(HEADER_SIZE);
+            Map<Path, Integer> counts = new HashMap<>();
+            for (int i = 0; i < dirCount; i++) {
+                Path dir = getPath(in);
+                in.getLong();
+                int count = in.getInt();
+                if (count >= 0) {
+                    counts.put(dir, count);
+                }
+            }
+            return counts;
+        } catch (RuntimeException e) {
+            throw new StorageException("Corrupt index snapshot '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Decodes the name section.
+     *
+     * @return every entry below the root
+     * @throws StorageException if the section is corrupt
+     */
+    public Collection<Path> names() {
+        try {
+            ByteBuffer in = afterDirectories();
+            List<Path> paths = new ArrayList<>(nameCount);
+            for (int i = 0; i < nameCount; i++) {
+                paths.add(getPath(in));
+            }
+            return paths;
+        } catch (RuntimeException e) {
+            throw new StorageException("Corrupt index snapshot '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Decodes the creation-time section.
+     *
+     * @return creation instant of every regular file, or {@code null} if the section is absent
+     * @throws StorageException if the section is corrupt
+     */
+    public Map<Path, Instant> times() {
+        if ((sections & TIMES) == 0) {
+            return null;
+        }
+        try {
+            ByteBuffer in = afterDirectories();
+            for (int i = 0; i < nameCount; i++) {
+                skipPath(in);
+            }
+            Map<Path, Instant> files = new HashMap<>(timeCount * 4 / 3 + 1);
+            for (int i = 0; i < timeCount; i++) {
+                Path path = getPath(in);
+                files.put(path, Instant.ofEpochSecond(in.getLong(), in.getInt()));
+            }
+            return files;
+        } catch (RuntimeException e) {
+            throw new StorageException("Corrupt index snapshot '" + file + "'", e);
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private static long modified(Path dir) throws IOException {
+        return Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks every recorded directory against the file system.
+     */
+    private boolean directoriesUnchanged() {
+        ByteBuffer in = buffer.duplicate().position(HEADER_SIZE);
+        for (int i = 0; i < dirCount; i++) {
+            Path dir = getPath(in);
+            long recorded = in.getLong();
+            in.getInt();
+            try {
+                if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS) || modified(dir) != recorded) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer afterDirectories() {
+        ByteBuffer in = buffer.duplicate().position(HEADER_SIZE);
+        for (int i = 0; i < dirCount; i++) {
+            skipPath(in);
+            in.getLong();
+            in.getInt();
+        }
+        return in;
+    }
+
+    /**
+     * Appends a root-relative path, draining the buffer first if it cannot hold the path plus
+     * {@code extra} bytes.
+     */
+    private static ByteBuffer putPath(FileChannel channel, ByteBuffer out, Path path, Path root, int extra)
+            throws IOException {
+        byte[] bytes = root.relativize(path).toString().getBytes(StandardCharsets.UTF_8);
+        int needed = 4 + bytes.length + extra;
+        if (out.remaining() < needed) {
+            drain(channel, out);
+            if (out.capacity() < needed) {
+                out = ByteBuffer.allocate(needed);
+            }
+        }
+        return out.putInt(bytes.length).put(bytes);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private Path getPath(ByteBuffer in) {
+        int length = in.getInt();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return root.resolve(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static void skipPath(ByteBuffer in) {
+        int length = in.getInt();
+        in.position(in.position() + length);
+    }
+}
@@ -0,0 +1,356 @@
+package index;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of every file and directory under a storage root, keyed by name.
+ * <p>
+ * Built on first use — from a {@linkplain #setLoader snapshot} if one was supplied, otherwise
+ * by a parallel tree walk — and kept current afterwards by the mutating operations, so exact
+ * and prefix lookups cost O(matches) instead of O(tree). Paths with the same name are kept
+ * in path order, so a lookup can also be resumed after a given path, a page at a time.
+ * The initial build holds the write lock; incremental updates only take the read lock and
+ * may run concurrently with each other. Updates made before the index is first built are
+ * ignored — the build walk picks them up from disk — except when a snapshot is pending,
+ * which is loaded first.
+ */
+public final class NameIndex {
+
+    private final Path root;
+    private final Path excluded;
+    private final ConcurrentSkipListMap<String, NavigableSet<Path>> byName = new ConcurrentSkipListMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built;
+    private volatile Supplier<Collection<Path>> loader;
+
+    /**
+     * Creates an empty index for the tree under {@code root}.
+     *
+     * @param root     storage root
+     * @param excluded subtree of the root left out of the index, or {@code null}
+     */
+    public NameIndex(Path root, Path excluded) {
+        this.root = root;
+        this.excluded = excluded;
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * Returns all paths whose last element equals {@code name}.
+     *
+     * @param name file or directory name
+     * @return matching paths — never null
+     */
+    public List<Path> find(String name) {
+        ensureBuilt();
+        Set<Path> paths = byName.get(name);
+        return paths == null ? List.of() : List.copyOf(paths);
+    }
+
+    /**
+     * Returns up to {@code limit} paths whose last element equals {@code name}, in path
+     * order, starting after {@code after}.
+     *
+     * @param name  file or directory name
+     * @param after path to resume after, or {@code null} to start with the first
+     * @param limit maximum number of paths
+     * @return matching paths — never null
+     */
+    public List<Path> find(String name, Path after, int limit) {
+        ensureBuilt();
+        NavigableSet<Path> paths = byName.get(name);
+        List<Path> result = new ArrayList<>();
+        if (paths != null) {
+            collect(after == null ? paths : paths.tailSet(after, false), limit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all paths whose last element starts with {@code prefix}.
+     *
+     * @param prefix name prefix
+     * @return matching paths — never null
+     */
+    public List<Path> findByPrefix(String prefix) {
+        ensureBuilt();
+        List<Path> result = new ArrayList<>();
+        for (Map.Entry<String, NavigableSet<Path>> entry : byName.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result.addAll(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} paths whose last element starts with {@code prefix},
+     * ordered by name and then by path, starting after {@code after}.
+     *
+     * @param prefix name prefix
+     * @param after  path to resume after, or {@code null} to start with the first
+     * @param limit  maximum number of paths
+     * @return matching paths — never null
+     */
+    public List<Path> findByPrefix(String prefix, Path after, int limit) {
+        ensureBuilt();
+        String afterName = after == null ? null : after.getFileName().toString();
+        String from = afterName != null && afterName.compareTo(prefix) > 0 ? afterName : prefix;
+        List<Path> result = new ArrayList<>();
+        for (Map.Entry<String, NavigableSet<Path>> entry : byName.tailMap(from, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || result.size() >= limit) {
+                break;
+            }
+            NavigableSet<Path> paths = entry.getValue();
+            collect(entry.getKey().equals(afterName) ? paths.tailSet(after, false) : paths, limit, result);
+        }
+        return result;
+    }
+
+    // ── Incremental maintenance ──────────────────────────────────────────────
+
+    /**
+     * Records a newly created file or directory.
+     *
+     * @param path the new entry
+     */
+    public void add(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (built) {
+                put(path);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records {@code path} and, if it is a directory, everything below it.
+     *
+     * @param path the new entry
+     */
+    public void addTree(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (built) {
+                walk(path, this::put);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records many new entries under a single lock acquisition.
+     *
+     * @param paths the new entries
+     */
+    public void addAll(Collection<Path> paths) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (built) {
+                paths.forEach(this::put);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets {@code path} and every indexed entry below it. Must be called while the
+     * entries are still on disk, i.e. before a delete or move.
+     *
+     * @param path the entry to remove
+     */
+    public void removeTree(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (built) {
+                walk(path, this::drop);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a single entry, without looking at anything below it.
+     *
+     * @param path the entry to remove
+     */
+    public void remove(Path path) {
+        loadPending();
+        lock.readLock().lock();
+        try {
+            if (built) {
+                drop(path);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Snapshots ────────────────────────────────────────────────────────────
+
+    /**
+     * Supplies the contents to build the index from instead of walking the tree. The
+     * supplier is called at most once, on first use; if it returns {@code null} or throws a
+     * {@link StorageException} the tree is walked after all. Ignored if the index is already
+     * built.
+     *
+     * @param loader all entries below the root, or {@code null} to clear a pending loader
+     */
+    public void setLoader(Supplier<Collection<Path>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns a consistent copy of every indexed entry, or {@code null} if the index has not
+     * been built.
+     *
+     * @return indexed paths
+     */
+    public List<Path> snapshot() {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return null;
+            }
+            List<Path> paths = new ArrayList<>();
+            for (Set<Path> set : byName.values()) {
+                paths.addAll(set);
+            }
+            return paths;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the index contents; the next query rebuilds it from disk.
+     * Used when an operation fails halfway and the index may no longer match the tree.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            loader = null;
+            byName.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                byName.clear();
+                Supplier<Collection<Path>> pending = loader;
+                loader = null;
+                Collection<Path> loaded = load(pending);
+                if (loaded != null) {
+                    for (Path path : loaded) {
+                        if (excluded == null || !path.startsWith(excluded)) {
+                            put(path);
+                        }
+                    }
+                } else {
+                    ParallelWalk.walk(root, excluded, (path, attrs) -> put(path));
+                }
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <T> T load(Supplier<T> pending) {
+        try {
+            return pending == null ? null : pending.get();
+        } catch (StorageException e) {
+            return null; // unreadable snapshot — walk instead
+        }
+    }
+
+    private void loadPending() {
+        if (loader != null) {
+            ensureBuilt();
+        }
+    }
+
+    private void put(Path path) {
+        byName.compute(path.getFileName().toString(), (k, paths) -> {
+            NavigableSet<Path> set = paths == null ? new ConcurrentSkipListSet<>() : paths;
+            set.add(path);
+            return set;
+        });
+    }
+
+    private void drop(Path path) {
+        byName.computeIfPresent(path.getFileName().toString(), (k, paths) -> {
+            paths.remove(path);
+            return paths.isEmpty() ? null : paths;
+        });
+    }
+
+    private static void collect(Set<Path> paths, int limit, List<Path> result) {
+        for (Path path : paths) {
+            if (result.size() >= limit) {
+                return;
+            }
+            result.add(path);
+        }
+    }
+
+    private static void walk(Path start, Consumer<Path> visitor) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    visitor.accept(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    visitor.accept(file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to index '" + start + "'", e);
+        }
+    }
+}
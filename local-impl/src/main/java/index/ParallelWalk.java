@@ -0,0 +1,72 @@
+package index;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+/**
+ * Walks a tree on the common {@link ForkJoinPool}, one task per directory, for full index
+ * builds. Links are not followed. Entries are visited concurrently and in no particular
+ * order, so the visitor must be thread-safe.
+ */
+final class ParallelWalk {
+
+    private ParallelWalk() {
+    }
+
+    /**
+     * Visits every entry below {@code root}; {@code root} itself is not visited.
+     *
+     * @param root     directory to walk
+     * @param excluded entry that is neither visited nor descended into, or {@code null}
+     * @param visitor  receives each entry with its attributes
+     * @throws StorageException if a directory cannot be read
+     */
+    static void walk(Path root, Path excluded, BiConsumer<Path, BasicFileAttributes> visitor) {
+        ForkJoinPool.commonPool().invoke(new Dir(root, excluded, visitor));
+    }
+
+    private static final class Dir extends RecursiveAction {
+
+        private final Path dir;
+        private final Path excluded;
+        private final BiConsumer<Path, BasicFileAttributes> visitor;
+
+        Dir(Path dir, Path excluded, BiConsumer<Path, BasicFileAttributes> visitor) {
+            this.dir = dir;
+            this.excluded = excluded;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected void compute() {
+            List<Dir> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    if (entry.equals(excluded)) {
+                        continue;
+                    }
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    visitor.accept(entry, attrs);
+                    if (attrs.isDirectory()) {
+                        subdirs.add(new Dir(entry, excluded, visitor));
+                    }
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to index '" + dir + "'", e);
+            }
+            invokeAll(subdirs);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package ops;
+
+import storageSpec.exception.StorageException;
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes a batch of operations for {@link LocalStorageOps#executeBatch} in three passes:
+ * <ol>
+ *   <li>plan — resolve every path, validate every new name and check forbidden extensions,
+ *       without touching disk;</li>
+ *   <li>account — acquire child slots once per parent directory and one quota reservation
+ *       for the combined size of all uploads;</li>
+ *   <li>execute — create entries in order while uploads stream in the background, up to
+ *       {@value #MAX_PARALLEL_UPLOADS} at a time; a rename waits for pending uploads.</li>
+ * </ol>
+ * Slots and quota are then committed for the operations that succeeded, and the batch is
+ * reported to the metadata flusher as a single change. Admission is per group: if a
+ * directory cannot take all its new entries, all of them fail; if the uploads do not fit
+ * in the quota together, all uploads fail.
+ * <p>
+ * Each entry may be created, uploaded to or renamed by at most one operation of a batch;
+ * later operations on the same entry fail. Their accounting is planned up front from the
+ * state on disk, which the earlier operation would make stale.
+ */
+final class BatchExecutor {
+
+    private static final int MAX_PARALLEL_UPLOADS = 16;
+
+    private final LocalStorageOps ops;
+    private final LocalStorageContext context;
+
+    BatchExecutor(LocalStorageOps ops) {
+        this.ops = ops;
+        this.context = ops.getContext();
+    }
+
+    BulkOperationResult execute(List<BatchOperation> operations) {
+        List<Step> steps = plan(operations);
+        Map<Path, ChildCountTracker.Slots> slots = new LinkedHashMap<>();
+        QuotaTracker.Reservation reservation = null;
+        try {
+            reservation = account(steps, slots);
+            run(steps);
+        } finally {
+            settle(steps, slots, reservation);
+        }
+        context.persistMetadata();
+
+        List<String> succeeded = new ArrayList<>();
+        Map<String, StorageException> failed = new LinkedHashMap<>();
+        for (Step step : steps) {
+            if (step.error == null) {
+                succeeded.add(step.key);
+            } else {
+                failed.put(step.key, step.error);
+            }
+        }
+        return new BulkOperationResult(succeeded, failed);
+    }
+
+    // ── Passes ───────────────────────────────────────────────────────────────
+
+    private List<Step> plan(List<BatchOperation> operations) {
+        List<Step> steps = new ArrayList<>(operations.size());
+        Set<Path> plannedDirs = new HashSet<>();
+        Set<Path> touched = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            Step step = new Step(operation, "[" + i + "] " + operation);
+            steps.add(step);
+            try {
+                switch (operation.getType()) {
+                    case CREATE_DIR -> {
+                        step.parent = requireDir(operation.getPath(), plannedDirs);
+                        step.target = claim(context.child(step.parent, operation.getName()), touched);
+                        plannedDirs.add(step.target);
+                    }
+                    case CREATE_FILE -> {
+                        ops.checkExtension(operation.getFileType());
+                        step.parent = requireDir(operation.getPath(), plannedDirs);
+                        step.target = claim(context.child(step.parent, LocalStorageOps.withType(operation.getName(), operation.getFileType())), touched);
+                    }
+                    case UPLOAD_FILE -> {
+                        ops.checkExtension(operation.getFileType());
+                        step.source = Path.of(operation.getSourcePath());
+                        if (!Files.isRegularFile(step.source)) {
+                            throw new StorageException("Upload source is not a file: " + operation.getSourcePath());
+                        }
+                        context.checkHostPath(step.source);
+                        step.parent = requireDir(operation.getPath(), plannedDirs);
+                        step.target = claim(context.child(step.parent, LocalStorageOps.withType(operation.getName(), operation.getFileType())), touched);
+                        step.existed = Files.exists(step.target);
+                        step.previousSize = step.existed ? QuotaTracker.sizeOf(step.target) : 0;
+                        step.growth = Math.max(0, QuotaTracker.sizeOf(step.source) - step.previousSize);
+                    }
+                    case RENAME -> {
+                        Path source = context.resolve(operation.getPath());
+                        if (source.equals(context.getRoot())) {
+                            throw new StorageException("Cannot rename the storage root");
+                        }
+                        Path target = claim(context.child(source.getParent(), operation.getName()), touched);
+                        touched.add(source);
+                        if (plannedDirs.contains(source)) {
+                            plannedDirs.add(target);
+                        }
+                    }
+                }
+            } catch (StorageException e) {
+                step.error = e;
+            }
+        }
+        return steps;
+    }
+
+    private QuotaTracker.Reservation account(List<Step> steps, Map<Path, ChildCountTracker.Slots> slots) {
+        Map<Path, List<Step>> byParent = new LinkedHashMap<>();
+        long growth = 0;
+        for (Step step : steps) {
+            if (step.error != null || step.operation.getType() == BatchOperation.Type.RENAME) {
+                continue;
+            }
+            if (!step.existed) {
+                byParent.computeIfAbsent(step.parent, p -> new ArrayList<>()).add(step);
+            }
+            growth += step.growth;
+        }
+        for (Map.Entry<Path, List<Step>> entry : byParent.entrySet()) {
+            try {
+                slots.put(entry.getKey(), context.getChildCounts().acquire(entry.getKey(), entry.getValue().size()));
+            } catch (StorageException e) {
+                for (Step step : entry.getValue()) {
+                    step.error = e;
+                }
+            }
+        }
+        try {
+            return context.getQuota().reserve(growth);
+        } catch (StorageException e) {
+            for (Step step : steps) {
+                if (step.error == null && step.operation.getType() == BatchOperation.Type.UPLOAD_FILE) {
+                    step.error = e;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void run(List<Step> steps) {
+        Semaphore uploadSlots = new Semaphore(MAX_PARALLEL_UPLOADS);
+        List<Future<?>> pending = new ArrayList<>();
+        try (ExecutorService uploads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Step step : steps) {
+                if (step.error != null) {
+                    continue;
+                }
+                try {
+                    switch (step.operation.getType()) {
+                        case CREATE_DIR -> {
+                            try (PathLockManager.Locks ignored = context.getLocks().exclusive(step.target)) {
+                                Files.createDirectory(step.target);
+                            }
+                            context.created(step.target);
+                        }
+                        case CREATE_FILE -> {
+                            try (PathLockManager.Locks ignored = context.getLocks().exclusive(step.target)) {
+                                Files.createFile(step.target);
+                            }
+                            context.created(step.target);
+                        }
+                        case UPLOAD_FILE -> {
+                            uploadSlots.acquireUninterruptibly();
+                            pending.add(uploads.submit(() -> {
+                                try {
+                                    upload(step);
+                                } finally {
+                                    uploadSlots.release();
+                                }
+                            }));
+                        }
+                        case RENAME -> {
+                            await(pending);
+                            ops.rename(step.operation.getPath(), step.operation.getName());
+                        }
+                    }
+                } catch (FileAlreadyExistsException e) {
+                    step.error = new StorageException("Already exists: " + step.target, e);
+                } catch (IOException e) {
+                    step.error = new StorageException("Failed to create '" + step.target + "'", e);
+                } catch (StorageException e) {
+                    step.error = e;
+                }
+            }
+            await(pending);
+        }
+    }
+
+    private void upload(Step step) {
+        try (PathLockManager.Locks ignored = context.getLocks().exclusive(step.target)) {
+            context.mappedFiles.invalidate(step.target);
+            step.written = FileTransfer.copy(step.source, step.target, ops.getTransferMode());
+            if (!step.existed) {
+                context.created(step.target);
+            }
+        } catch (StorageException e) {
+            step.error = e;
+        }
+    }
+
+    private void settle(List<Step> steps, Map<Path, ChildCountTracker.Slots> slots,
+                        QuotaTracker.Reservation reservation) {
+        Map<Path, Integer> created = new LinkedHashMap<>();
+        long written = 0;
+        long overwritten = 0;
+        for (Step step : steps) {
+            if (step.error != null || step.operation.getType() == BatchOperation.Type.RENAME) {
+                continue;
+            }
+            if (!step.existed) {
+                created.merge(step.parent, 1, Integer::sum);
+            }
+            written += step.written;
+            overwritten += step.previousSize;
+        }
+        for (Map.Entry<Path, ChildCountTracker.Slots> entry : slots.entrySet()) {
+            entry.getValue().commit(created.getOrDefault(entry.getKey(), 0));
+            entry.getValue().close();
+        }
+        if (reservation != null) {
+            reservation.commit(written);
+        }
+        context.getQuota().release(overwritten);
+        if (reservation != null) {
+            reservation.close();
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    /**
+     * Records {@code target} as touched by the batch, unless an earlier operation did.
+     *
+     * @throws StorageException if an earlier operation of the batch already touches it
+     */
+    private static Path claim(Path target, Set<Path> touched) {
+        if (!touched.add(target)) {
+            throw new StorageException("Target used by an earlier operation of the batch: " + target);
+        }
+        return target;
+    }
+
+    private Path requireDir(String path, Set<Path> plannedDirs) {
+        Path dir = context.resolve(path);
+        if (!Files.isDirectory(dir) && !plannedDirs.contains(dir)) {
+            throw new StorageException("Not a directory: " + path);
+        }
+        return dir;
+    }
+
+    private static void await(List<Future<?>> pending) {
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorageException("Interrupted while waiting for uploads", e);
+            } catch (ExecutionException e) {
+                throw new StorageException("Upload failed", e.getCause());
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Planned and actual state of one operation. Uploads update {@link #written} and
+     * {@link #error} from a background thread; they are read after the upload is awaited.
+     */
+    private static final class Step {
+
+        final BatchOperation operation;
+        final String key;
+        Path parent;
+        Path target;
+        Path source;
+        boolean existed;
+        long previousSize;
+        long growth;
+        volatile long written;
+        volatile StorageException error;
+
+        Step(BatchOperation operation, String key) {
+            this.operation = operation;
+            this.key = key;
+        }
+    }
+}
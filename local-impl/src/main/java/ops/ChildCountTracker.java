@@ -0,0 +1,278 @@
+package ops;
+
+import storageSpec.Storage;
+import storageSpec.exception.DirectoryLimitException;
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent per-directory child counters used to enforce
+ * {@link Storage#getDirsMaxChildrenCount()}.
+ * <p>
+ * A directory's counter is created by listing it once, the first time a limited directory
+ * receives a new child; afterwards every mutating operation adjusts it, so the limit check
+ * is a single CAS instead of an O(children) listing. Directories without a limit are not
+ * counted at all.
+ * <p>
+ * Limits are keyed by the directory's path relative to the root, with {@code /} as the
+ * separator, so they survive moving the storage. They follow their directory when it is
+ * moved or renamed and are dropped when it is deleted.
+ * <p>
+ * The counters can be {@linkplain #seed seeded} from an index snapshot. Since slots that are
+ * given back without a matching index change would leave such a snapshot counting them,
+ * every release is reported to a listener.
+ */
+public final class ChildCountTracker {
+
+    private final Storage storage;
+    private final Path root;
+    private final Path excluded;
+    private final Runnable listener;
+    private final ConcurrentHashMap<Path, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a tracker and re-keys limits still stored under absolute paths inside
+     * {@code root}, as older versions stored them.
+     */
+    ChildCountTracker(Storage storage, Path root, Path excluded, Runnable listener) {
+        this.storage = storage;
+        this.root = root;
+        this.excluded = excluded;
+        this.listener = listener;
+        updateLimits(this::migrate);
+    }
+
+    /**
+     * Returns the key under which a directory's limit is stored in
+     * {@link Storage#getDirsMaxChildrenCount()}: its path relative to the root, with
+     * {@code /} as the separator. The root itself is {@code ""}.
+     *
+     * @param dir absolute directory path inside the root
+     * @return limit map key
+     */
+    public String key(Path dir) {
+        StringBuilder key = new StringBuilder();
+        for (Path name : root.relativize(dir)) {
+            if (!key.isEmpty()) {
+                key.append('/');
+            }
+            key.append(name);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Atomically checks that {@code dir} can take {@code n} more children and reserves them.
+     *
+     * @param dir parent directory
+     * @param n   number of new children
+     * @return the reserved slots; commit them once the entries exist, close them in any case
+     * @throws DirectoryLimitException if the directory's limit would be exceeded
+     */
+    public Slots acquire(Path dir, int n) {
+        if (n == 0) {
+            return new Slots(dir, 0);
+        }
+        Integer limit = storage.getDirsMaxChildrenCount().get(key(dir));
+        AtomicInteger count = limit == null ? counts.get(dir) : counts.computeIfAbsent(dir, this::scan);
+        if (count == null) {
+            return new Slots(dir, n);
+        }
+        if (limit == null) {
+            count.addAndGet(n);
+            return new Slots(dir, n);
+        }
+        while (true) {
+            int current = count.get();
+            if (current + n > limit) {
+                throw new DirectoryLimitException(key(dir), limit);
+            }
+            if (count.compareAndSet(current, current + n)) {
+                return new Slots(dir, n);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code n} children of {@code dir}, after a delete or a move away.
+     *
+     * @param dir parent directory
+     * @param n   number of children removed
+     */
+    public void release(Path dir, int n) {
+        AtomicInteger count = counts.get(dir);
+        if (count != null) {
+            count.addAndGet(-n);
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns the tracked child count of {@code dir}, or {@code -1} if it is not tracked.
+     *
+     * @param dir directory
+     * @return child count or -1
+     */
+    public int count(Path dir) {
+        AtomicInteger count = counts.get(dir);
+        return count == null ? -1 : count.get();
+    }
+
+    /**
+     * Drops the counters of {@code path} and every directory below it, once they are gone.
+     *
+     * @param path deleted or moved-away entry
+     */
+    public void forgetTree(Path path) {
+        counts.keySet().removeIf(dir -> dir.startsWith(path));
+    }
+
+    /**
+     * Moves the limits of {@code source} and every directory below it to the matching
+     * paths under {@code target}, after the tree was moved or renamed.
+     *
+     * @param source old location
+     * @param target new location
+     * @return {@code true} if any limit moved
+     */
+    public boolean moveLimits(Path source, Path target) {
+        String from = key(source);
+        String to = key(target);
+        return updateLimits(key -> under(key, from) ? to + key.substring(from.length()) : key);
+    }
+
+    /**
+     * Drops the limits of {@code path} and every directory below it, after it was deleted.
+     *
+     * @param path deleted entry
+     * @return {@code true} if any limit was dropped
+     */
+    public boolean dropLimits(Path path) {
+        String prefix = key(path);
+        return updateLimits(key -> under(key, prefix) ? null : key);
+    }
+
+    /**
+     * Returns the current counters, e.g. to snapshot them.
+     *
+     * @return child count by directory
+     */
+    public Map<Path, Integer> counts() {
+        Map<Path, Integer> current = new HashMap<>();
+        counts.forEach((dir, count) -> current.put(dir, count.get()));
+        return current;
+    }
+
+    /**
+     * Adds counters known to be current, such as ones from a valid index snapshot, so their
+     * directories are not listed on first use. Existing counters are kept.
+     *
+     * @param known child count by directory
+     */
+    void seed(Map<Path, Integer> known) {
+        known.forEach((dir, n) -> counts.putIfAbsent(dir, new AtomicInteger(n)));
+    }
+
+    /**
+     * Drops every counter; they are recreated from disk on next use.
+     */
+    public void invalidate() {
+        counts.clear();
+    }
+
+    /**
+     * Rewrites every limit key through {@code rewrite}; a {@code null} result drops the limit.
+     */
+    private boolean updateLimits(UnaryOperator<String> rewrite) {
+        boolean[] changed = new boolean[1];
+        storage.updateDirsMaxChildrenCount(current -> {
+            Map<String, Integer> next = new HashMap<>();
+            changed[0] = false;
+            for (Map.Entry<String, Integer> limit : current.entrySet()) {
+                String key = rewrite.apply(limit.getKey());
+                changed[0] |= !limit.getKey().equals(key);
+                if (key != null) {
+                    next.put(key, limit.getValue());
+                }
+            }
+            return changed[0] ? next : current;
+        });
+        return changed[0];
+    }
+
+    private static boolean under(String key, String prefix) {
+        return prefix.isEmpty() || key.equals(prefix) || key.startsWith(prefix + "/");
+    }
+
+    private String migrate(String key) {
+        Path path;
+        try {
+            path = Path.of(key);
+        } catch (InvalidPathException e) {
+            return key;
+        }
+        return path.isAbsolute() && path.normalize().startsWith(root) ? key(path.normalize()) : key;
+    }
+
+    private AtomicInteger scan(Path dir) {
+        int n = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                if (!entry.equals(excluded)) {
+                    n++;
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to count children of '" + dir + "'", e);
+        }
+        return new AtomicInteger(n);
+    }
+
+    /**
+     * Child slots reserved in one directory. Closing uncommitted slots releases them.
+     */
+    public final class Slots implements AutoCloseable {
+
+        private final Path dir;
+        private int n;
+
+        private Slots(Path dir, int n) {
+            this.dir = dir;
+            this.n = n;
+        }
+
+        /**
+         * Keeps {@code used} of the reserved slots and releases the rest on close.
+         *
+         * @param used number of entries actually created
+         */
+        public void commit(int used) {
+            n -= Math.min(used, n);
+        }
+
+        /**
+         * Keeps all reserved slots.
+         */
+        public void commit() {
+            n = 0;
+        }
+
+        @Override
+        public void close() {
+            if (n > 0) {
+                release(dir, n);
+                n = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package ops;
+
+import storageSpec.exception.StorageException;
+import storageSpec.ops.Page;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Paged and streamed directory listings on top of {@link DirectoryStream}.
+ * <p>
+ * Pages are returned in name order, and the page token is the Base64-encoded last name of
+ * the previous page, so entries created or deleted between pages never cause duplicates
+ * or skips. A page is produced by one pass over the directory that keeps the smallest names
+ * after the cursor in a bounded heap, so memory stays O(pageSize) whatever the size of the
+ * directory. Only names that could still enter the heap are stat-ed to tell files from
+ * directories.
+ * <p>
+ * One pass collects up to {@code pagesPerScan} pages at once. The names beyond the
+ * requested page are kept as a window, so the following pages of a traversal are served
+ * without touching the directory, and a full traversal costs one pass per
+ * {@code pagesPerScan} pages. At most {@code maxWindows} windows are kept, least recently
+ * used out first. The back-end drops a directory's windows whenever it changes the
+ * directory (see {@link #invalidate}), and every page re-validates its window against the
+ * directory's modification time, which catches changes made behind the back-end's back —
+ * except, on file systems with coarse timestamps, a change within the same tick as the pass.
+ * <p>
+ * Page sizes above {@link #MAX_PAGE_SIZE} are capped. The metadata directory never appears
+ * in a listing.
+ */
+final class DirectoryPager {
+
+    /**
+     * Largest number of items on one page; larger requests are capped to this.
+     */
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    /**
+     * Which entries of a directory a listing returns.
+     */
+    enum Kind {
+        FILES, DIRS
+    }
+
+    private final Path excluded;
+    private final int pagesPerScan;
+    private final LinkedHashMap<Key, Window> windows;
+
+    /**
+     * Creates a pager with an empty cache.
+     *
+     * @param excluded     entry left out of every listing, or {@code null}
+     * @param maxWindows   maximum number of cached windows
+     * @param pagesPerScan number of pages collected by one pass over a directory
+     */
+    DirectoryPager(Path excluded, int maxWindows, int pagesPerScan) {
+        this.excluded = excluded;
+        this.pagesPerScan = pagesPerScan;
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Window> eldest) {
+                return size() > maxWindows;
+            }
+        };
+    }
+
+    // ── Listings ─────────────────────────────────────────────────────────────
+
+    /**
+     * Returns the page of files or subdirectories of {@code dir} that follows
+     * {@code pageToken} in name order.
+     *
+     * @throws StorageException if the directory cannot be listed, the page size is not
+     *                          positive or the token is malformed
+     */
+    Page page(Path dir, Kind kind, int pageSize, String pageToken) {
+        int size = checkPageSize(pageSize);
+        String after = decode(pageToken);
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(dir);
+        } catch (IOException e) {
+            throw new StorageException("Failed to list '" + dir + "'", e);
+        }
+        Key key = new Key(dir, kind);
+        Window window;
+        synchronized (this) {
+            window = windows.get(key);
+        }
+        if (window == null || !window.modified().equals(modified) || !window.covers(after, size)) {
+            window = scan(dir, kind, after, size * pagesPerScan, modified);
+            synchronized (this) {
+                windows.put(key, window);
+            }
+        }
+        return window.page(dir, after, size);
+    }
+
+    /**
+     * Returns a lazily populated stream over the files or subdirectories of {@code dir}, in
+     * directory order. The stream holds an open directory handle and must be closed.
+     *
+     * @throws StorageException if the directory cannot be opened, or closed again
+     */
+    Stream<String> stream(Path dir, Kind kind) {
+        DirectoryStream<Path> directory;
+        try {
+            directory = Files.newDirectoryStream(dir, entry -> accepts(entry, kind));
+        } catch (IOException e) {
+            throw new StorageException("Failed to list '" + dir + "'", e);
+        }
+        return StreamSupport.stream(directory.spliterator(), false)
+                .map(Path::toString)
+                .onClose(() -> {
+                    try {
+                        directory.close();
+                    } catch (IOException e) {
+                        throw new StorageException("Failed to close listing of '" + dir + "'", e);
+                    }
+                });
+    }
+
+    // ── Invalidation ─────────────────────────────────────────────────────────
+
+    /**
+     * Drops the cached windows of {@code dir}, after an entry was added to or removed from it.
+     *
+     * @param dir changed directory
+     */
+    synchronized void invalidate(Path dir) {
+        windows.keySet().removeIf(key -> key.dir().equals(dir));
+    }
+
+    /**
+     * Drops the cached windows of {@code path}, of its parent and of every directory below
+     * it, after {@code path} was created, moved or deleted.
+     *
+     * @param path changed entry
+     */
+    synchronized void invalidateTree(Path path) {
+        Path parent = path.getParent();
+        windows.keySet().removeIf(key -> key.dir().startsWith(path) || key.dir().equals(parent));
+    }
+
+    /**
+     * Drops every cached window.
+     */
+    synchronized void invalidateAll() {
+        windows.clear();
+    }
+
+    // ── Page tokens ──────────────────────────────────────────────────────────
+
+    /**
+     * Builds a page from up to {@code pageSize + 1} results of an index lookup: the first
+     * {@code pageSize} become the items, and if there was one more, the last item's cursor
+     * becomes the next-page token.
+     *
+     * @param found  results in page order, at most {@code pageSize + 1}
+     * @param cursor turns an item into the position to resume after
+     */
+    static Page page(List<Path> found, int pageSize, Function<Path, String> cursor) {
+        List<Path> items = found.size() > pageSize ? found.subList(0, pageSize) : found;
+        List<String> paths = new ArrayList<>(items.size());
+        for (Path item : items) {
+            paths.add(item.toString());
+        }
+        String next = found.size() > pageSize ? encode(cursor.apply(items.get(pageSize - 1))) : null;
+        return new Page(paths, next);
+    }
+
+    /**
+     * Rejects a page size that is not positive and caps it at {@link #MAX_PAGE_SIZE}, so
+     * that {@code pageSize + 1} lookups cannot overflow.
+     *
+     * @return the page size to use
+     * @throws StorageException if {@code pageSize} is not positive
+     */
+    static int checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new StorageException("Page size must be positive: " + pageSize);
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the cursor in {@code token}, or {@code null} for the first page.
+     *
+     * @throws StorageException if the token is malformed
+     */
+    static String decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new StorageException("Invalid page token: " + token, e);
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private record Key(Path dir, Kind kind) {
+    }
+
+    /**
+     * The smallest names of one kind after {@code after} in a directory as of its
+     * modification time {@code modified}, sorted. {@code complete} if no further names follow.
+     */
+    private record Window(FileTime modified, String after, String[] names, boolean complete) {
+
+        /**
+         * Whether the page of {@code pageSize} names after {@code cursor} lies in this window.
+         */
+        boolean covers(String cursor, int pageSize) {
+            if (after != null && (cursor == null || cursor.compareTo(after) < 0)) {
+                return false;
+            }
+            return complete || names.length - from(cursor) >= pageSize;
+        }
+
+        Page page(Path dir, String cursor, int pageSize) {
+            int from = from(cursor);
+            int to = (int) Math.min(names.length, (long) from + pageSize);
+            List<String> items = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                items.add(dir.resolve(names[i]).toString());
+            }
+            boolean more = to < names.length || !complete;
+            return new Page(items, more && to > from ? encode(names[to - 1]) : null);
+        }
+
+        private int from(String cursor) {
+            if (cursor == null) {
+                return 0;
+            }
+            int found = Arrays.binarySearch(names, cursor);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+    }
+
+    /**
+     * One pass over {@code dir} that keeps the {@code limit} smallest names of the given kind
+     * after {@code after} in a bounded heap.
+     */
+    private Window scan(Path dir, Kind kind, String after, int limit, FileTime modified) {
+        PriorityQueue<String> smallest = new PriorityQueue<>(Math.min(limit, 1024), Comparator.reverseOrder());
+        boolean truncated = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                if (after != null && name.compareTo(after) <= 0) {
+                    continue;
+                }
+                if (smallest.size() < limit) {
+                    if (accepts(entry, kind)) {
+                        smallest.add(name);
+                    }
+                } else if (name.compareTo(smallest.peek()) < 0) {
+                    if (accepts(entry, kind)) {
+                        smallest.poll();
+                        smallest.add(name);
+                        truncated = true;
+                    }
+                } else if (!truncated && accepts(entry, kind)) {
+                    truncated = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to list '" + dir + "'", e);
+        }
+        String[] names = smallest.toArray(String[]::new);
+        Arrays.sort(names);
+        return new Window(modified, after, names, !truncated);
+    }
+
+    private boolean accepts(Path entry, Kind kind) {
+        if (entry.equals(excluded)) {
+            return false;
+        }
+        return kind == Kind.FILES ? Files.isRegularFile(entry) : Files.isDirectory(entry);
+    }
+}
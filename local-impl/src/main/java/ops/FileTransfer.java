@@ -0,0 +1,111 @@
+package ops;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Moves file contents channel-to-channel with {@link FileChannel#transferTo}, so the
+ * kernel copies the bytes directly and nothing passes through Java heap buffers.
+ * <p>
+ * {@link Files#copy(Path, Path, java.nio.file.CopyOption...)} is used only when the two
+ * paths live on different {@link java.nio.file.FileSystem}s or the provider cannot open
+ * a {@link FileChannel}.
+ */
+final class FileTransfer {
+
+    static final long DEFAULT_CHUNK = 8L << 20;   // 8 MiB
+    static final long MIN_CHUNK = 1L << 20;       // 1 MiB
+    static final long MAX_CHUNK = 256L << 20;     // 256 MiB
+
+    private FileTransfer() {
+    }
+
+    /**
+     * Copies the regular file {@code source} to {@code target}, replacing it if it exists.
+     *
+     * @param source existing regular file
+     * @param target destination file (parent directory must exist)
+     * @param mode   chunking strategy
+     * @return number of bytes copied
+     * @throws StorageException if the copy fails
+     */
+    static long copy(Path source, Path target, TransferMode mode) {
+        try {
+            if (source.getFileSystem() != target.getFileSystem()) {
+                return fallbackCopy(source, target);
+            }
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                return transfer(in, out, in.size(), mode);
+            } catch (UnsupportedOperationException e) {
+                return fallbackCopy(source, target);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to copy '" + source + "' to '" + target + "'", e);
+        }
+    }
+
+    /**
+     * Copies the symbolic link {@code source} to {@code target} as a link with the same
+     * target, replacing {@code target} if it exists. What the link points to is not read.
+     *
+     * @return {@code 0}, as no file contents are copied
+     * @throws StorageException if the copy fails
+     */
+    static long copyLink(Path source, Path target) {
+        try {
+            Files.copy(source, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+            return 0;
+        } catch (IOException e) {
+            throw new StorageException("Failed to copy link '" + source + "' to '" + target + "'", e);
+        }
+    }
+
+    /**
+     * Transfers {@code size} bytes from the current position of {@code in} into {@code out}.
+     *
+     * @return number of bytes transferred
+     */
+    static long transfer(FileChannel in, FileChannel out, long size, TransferMode mode) throws IOException {
+        long start = in.position();
+        long position = start;
+        long end = start + size;
+        long chunk = mode == TransferMode.THROUGHPUT ? MIN_CHUNK : DEFAULT_CHUNK;
+        double lastRate = 0;
+
+        while (position < end) {
+            long requested = Math.min(chunk, end - position);
+            long started = System.nanoTime();
+            long moved = in.transferTo(position, requested, out);
+            if (moved <= 0) {
+                // Source shrank underneath us — stop at what is actually there.
+                break;
+            }
+            position += moved;
+
+            if (mode == TransferMode.THROUGHPUT) {
+                double rate = (double) moved / Math.max(1, System.nanoTime() - started);
+                if (rate >= lastRate) {
+                    chunk = Math.min(chunk << 1, MAX_CHUNK);
+                } else {
+                    chunk = Math.max(chunk >> 1, MIN_CHUNK);
+                }
+                lastRate = rate;
+            }
+        }
+        return position - start;
+    }
+
+    private static long fallbackCopy(Path source, Path target) throws IOException {
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+}
@@ -0,0 +1,93 @@
+package ops;
+
+import lombok.Getter;
+import storageSpec.exception.StorageException;
+
+import java.time.Duration;
+
+/**
+ * When a {@link MetadataFlusher} writes pending metadata changes.
+ */
+@Getter
+public final class FlushPolicy {
+
+    /**
+     * Flush strategies.
+     */
+    public enum Mode {
+        /**
+         * Flush on a background thread at a fixed interval, if anything changed.
+         */
+        INTERVAL,
+        /**
+         * Flush on a background thread once a number of changes has accumulated, and at the
+         * latest after the interval.
+         */
+        CHANGE_COUNT,
+        /**
+         * Flush synchronously on every change, before the change returns.
+         */
+        SYNC
+    }
+
+    private final Mode mode;
+
+    /**
+     * Flush period for {@link Mode#INTERVAL}, maximum delay for {@link Mode#CHANGE_COUNT};
+     * unused for {@link Mode#SYNC}.
+     */
+    private final Duration interval;
+
+    /**
+     * Number of changes that triggers a flush in {@link Mode#CHANGE_COUNT}.
+     */
+    private final int changeCount;
+
+    private FlushPolicy(Mode mode, Duration interval, int changeCount) {
+        this.mode = mode;
+        this.interval = interval;
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * Flushes every {@code interval}. A crash loses at most the changes of one interval.
+     *
+     * @param interval time between flushes, at least 1 ms
+     * @return the policy
+     */
+    public static FlushPolicy interval(Duration interval) {
+        requireMillis(interval);
+        return new FlushPolicy(Mode.INTERVAL, interval, 0);
+    }
+
+    /**
+     * Flushes once {@code changes} changes are pending, and at the latest {@code maxDelay}
+     * after the previous flush.
+     *
+     * @param changes  pending changes that trigger a flush
+     * @param maxDelay upper bound on how long a change stays unflushed, at least 1 ms
+     * @return the policy
+     */
+    public static FlushPolicy changeCount(int changes, Duration maxDelay) {
+        if (changes < 1) {
+            throw new StorageException("Change count must be positive: " + changes);
+        }
+        requireMillis(maxDelay);
+        return new FlushPolicy(Mode.CHANGE_COUNT, maxDelay, changes);
+    }
+
+    /**
+     * Flushes synchronously on every change; the change returns once it is on disk.
+     *
+     * @return the policy
+     */
+    public static FlushPolicy sync() {
+        return new FlushPolicy(Mode.SYNC, null, 0);
+    }
+
+    private static void requireMillis(Duration interval) {
+        if (interval.toMillis() < 1) {
+            throw new StorageException("Flush interval must be at least 1 ms: " + interval);
+        }
+    }
+}
@@ -1,6 +1,97 @@
 package ops;
 
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.User;
+import storageSpec.exception.StorageException;
 import storageSpec.ops.IStorageAdminOps;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * {@link IStorageAdminOps} implementation for the local back-end. Updates the shared
+ * {@link Storage} model and reports every change to the context's
+ * {@linkplain LocalStorageContext#getMetadataFlusher() metadata flusher}, which persists it
+ * according to its policy. Passwords of new users are stored as hashes from the context's
+ * {@link LocalStorageContext#getPasswordHasher() hasher}.
+ */
 public class LocalStorageAdminOps implements IStorageAdminOps {
+
+    private final LocalStorageContext context;
+    private final Storage storage;
+
+    /**
+     * Creates the admin operations on top of state shared with other sessions of the same storage.
+     *
+     * @param context shared back-end state of the storage
+     */
+    public LocalStorageAdminOps(LocalStorageContext context) {
+        this.context = context;
+        this.storage = context.getStorage();
+    }
+
+    @Override
+    public void setStorageSize(long bytes) {
+        if (bytes < 0) {
+            throw new StorageException("Storage size cannot be negative: " + bytes);
+        }
+        storage.setStorageSize(bytes);
+        context.persistMetadata();
+    }
+
+    @Override
+    public void setForbiddenExtensions(Collection<String> extensions) {
+        storage.setForbiddenExtensions(extensions);
+        context.persistMetadata();
+    }
+
+    @Override
+    public void setMaxFileNumberInDir(int number, String dirPath) {
+        if (number < 0) {
+            throw new StorageException("Child limit cannot be negative: " + number);
+        }
+        Path dir = context.resolve(dirPath);
+        if (!Files.isDirectory(dir)) {
+            throw new StorageException("Not a directory: " + dirPath);
+        }
+        storage.setDirMaxChildrenCount(context.getChildCounts().key(dir), number);
+        context.persistMetadata();
+    }
+
+    @Override
+    public void addUser(String userName, String password, Privilege privilege) {
+        if (storage.findUser(userName) != null) {
+            throw new StorageException("User already exists: " + userName);
+        }
+        User user = new User(userName, context.getPasswordHasher().hash(password));
+        user.addStorage(storage.getStorageId(), privilege);
+        if (!storage.addUserIfAbsent(user)) {
+            throw new StorageException("User already exists: " + userName);
+        }
+        context.persistMetadata();
+    }
+
+    @Override
+    public void removeUser(String userName) {
+        storage.removeUser(requireUser(userName));
+        context.persistMetadata();
+    }
+
+    @Override
+    public void updateUserPrivilege(String userName, Privilege newPrivilege) {
+        requireUser(userName).addStorage(storage.getStorageId(), newPrivilege);
+        context.persistMetadata();
+    }
+
+    // ── Internal helpers ─────────────────────────────────────────────────────
+
+    private User requireUser(String userName) {
+        User user = storage.findUser(userName);
+        if (user == null) {
+            throw new StorageException("No such user: " + userName);
+        }
+        return user;
+    }
 }
@@ -0,0 +1,449 @@
+package ops;
+
+import auth.PasswordHasher;
+import index.CreationTimeIndex;
+import index.ExtensionIndex;
+import index.IndexSnapshot;
+import index.NameIndex;
+import lombok.Getter;
+import lombok.Setter;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.ISerialization;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Back-end state shared by every session open on the same local storage:
+ * the resolved root, the mapping cache, the search indexes, the directory listing cache,
+ * the quota and child counters and the path lock manager.
+ * <p>
+ * Create one per storage and pass it to each {@link LocalStorageOps} so that all
+ * sessions see the same indexes. {@linkplain #close() Close} it when the storage is no
+ * longer used, to stop its background work.
+ */
+public class LocalStorageContext implements AutoCloseable {
+
+    /**
+     * Directory under the storage root that holds the storage's own metadata. It is not part
+     * of the storage: paths inside it cannot be resolved, and no listing, search, index or
+     * size walk includes it.
+     */
+    public static final String METADATA_DIR = ".storage";
+
+    /**
+     * Interval of the periodic quota {@linkplain QuotaTracker#reconcile() reconciliation}
+     * started for every context.
+     */
+    public static final Duration QUOTA_RECONCILE_INTERVAL = Duration.ofMinutes(5);
+
+    @Getter
+    private final Storage storage;
+    @Getter
+    private final Path root;
+    /**
+     * Absolute path of {@value #METADATA_DIR} under the root.
+     */
+    @Getter
+    private final Path metadataDir;
+    @Getter
+    private final NameIndex nameIndex;
+    @Getter
+    private final ExtensionIndex extensionIndex = new ExtensionIndex();
+    @Getter
+    private final CreationTimeIndex creationTimeIndex;
+    @Getter
+    private final QuotaTracker quota;
+    @Getter
+    private final ChildCountTracker childCounts;
+    @Getter
+    private final PathLockManager locks;
+    /**
+     * Hasher applied to passwords of users added through {@link LocalStorageAdminOps}.
+     */
+    @Getter
+    @Setter
+    private volatile PasswordHasher passwordHasher = new PasswordHasher();
+    final MappedFileCache mappedFiles = new MappedFileCache(256, 4L << 30);
+    final DirectoryPager pager;
+    /**
+     * Write-behind for the storage metadata, or {@code null} if changes are not persisted.
+     */
+    @Getter
+    private volatile MetadataFlusher metadataFlusher;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean snapshotOnDisk = new AtomicBoolean();
+    private volatile Path indexSnapshotFile;
+
+    /**
+     * Creates the shared state for the given storage, without index snapshots.
+     *
+     * @param storage storage whose root location all paths are resolved against
+     */
+    public LocalStorageContext(Storage storage) {
+        this(storage, null);
+    }
+
+    /**
+     * Creates the shared state for the given storage, seeded from the index snapshot in
+     * {@code indexSnapshotFile} if it is valid (see {@link #saveIndexSnapshot()}).
+     *
+     * @param storage           storage whose root location all paths are resolved against
+     * @param indexSnapshotFile file the search indexes are snapshotted to, typically next to
+     *                          the storage metadata, or {@code null} for none
+     */
+    public LocalStorageContext(Storage storage, Path indexSnapshotFile) {
+        this.storage = storage;
+        this.root = Path.of(storage.getRootLocation()).toAbsolutePath().normalize();
+        this.metadataDir = root.resolve(METADATA_DIR);
+        this.nameIndex = new NameIndex(root, metadataDir);
+        this.creationTimeIndex = new CreationTimeIndex(root, metadataDir);
+        this.quota = new QuotaTracker(storage, root, metadataDir, this::indexChanging);
+        this.childCounts = new ChildCountTracker(storage, root, metadataDir, this::indexChanging);
+        this.locks = new PathLockManager(root);
+        this.pager = new DirectoryPager(metadataDir, 64, 4);
+        if (indexSnapshotFile != null) {
+            loadIndexSnapshot(indexSnapshotFile);
+        }
+        quota.startReconciliation(QUOTA_RECONCILE_INTERVAL);
+    }
+
+    /**
+     * Stops the periodic quota reconciliation and closes the metadata flusher, if any, after
+     * flushing what it has pending. The context must not be used afterwards.
+     *
+     * @throws StorageException if the final flush fails
+     */
+    @Override
+    public void close() {
+        quota.stopReconciliation();
+        setMetadataFlusher(null);
+    }
+
+    /**
+     * Resolves a storage path against the root. Absolute paths are accepted as long as
+     * they point inside the storage.
+     *
+     * @param path storage path; {@code null} or blank means the root
+     * @return normalised absolute path
+     * @throws StorageException if the path escapes the root or points into the metadata directory
+     */
+    public Path resolve(String path) {
+        if (path == null || path.isBlank()) {
+            return root;
+        }
+        Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new StorageException("Path is outside the storage: " + path);
+        }
+        if (resolved.startsWith(metadataDir)) {
+            throw new StorageException("Path is reserved for storage metadata: " + path);
+        }
+        return resolved;
+    }
+
+    /**
+     * Resolves a storage path like {@link #resolve}, but returns {@code null} instead of
+     * throwing if the path is malformed, escapes the root or points into the metadata
+     * directory.
+     *
+     * @param path storage path; {@code null} or blank means the root
+     * @return normalised absolute path, or {@code null} if it names no addressable entry
+     */
+    Path tryResolve(String path) {
+        if (path == null || path.isBlank()) {
+            return root;
+        }
+        Path resolved;
+        try {
+            resolved = root.resolve(path).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        return resolved.startsWith(root) && !isMetadata(resolved) ? resolved : null;
+    }
+
+    /**
+     * Resolves the name of an entry to be created directly inside {@code parent}. The name
+     * must be a single path element: not empty, no separators, not {@code .} or {@code ..}.
+     *
+     * @param parent resolved parent directory
+     * @param name   entry name
+     * @return absolute path of the entry
+     * @throws StorageException if the name is not a single element or names the metadata directory
+     */
+    public Path child(Path parent, String name) {
+        if (name == null || name.isEmpty() || name.equals(".") || name.equals("..")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            throw new StorageException("Invalid name: " + name);
+        }
+        Path child;
+        try {
+            child = parent.resolve(name);
+        } catch (InvalidPathException e) {
+            throw new StorageException("Invalid name: " + name, e);
+        }
+        if (child.getNameCount() != parent.getNameCount() + 1 || isMetadata(child)) {
+            throw new StorageException("Invalid name: " + name);
+        }
+        return child;
+    }
+
+    /**
+     * Returns whether {@code path} is the metadata directory or lies inside it.
+     */
+    boolean isMetadata(Path path) {
+        return path.startsWith(metadataDir);
+    }
+
+    /**
+     * Throws if a host path given to the back-end — an upload source or a download
+     * destination — lies inside the metadata directory, following links where the path
+     * already exists.
+     *
+     * @throws StorageException if the path points into the metadata directory
+     */
+    void checkHostPath(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        boolean inside = isMetadata(absolute);
+        if (!inside && Files.isDirectory(metadataDir)) {
+            Path existing = Files.exists(absolute) ? absolute : absolute.getParent();
+            try {
+                inside = existing != null && existing.toRealPath().startsWith(metadataDir.toRealPath());
+            } catch (IOException e) {
+                // parent missing too — the transfer itself will fail
+            }
+        }
+        if (inside) {
+            throw new StorageException("Path is reserved for storage metadata: " + path);
+        }
+    }
+
+    // ── Metadata persistence ─────────────────────────────────────────────────
+
+    /**
+     * Sets where {@link #persistMetadata()} writes the storage metadata, flushing
+     * synchronously on every change.
+     *
+     * @param serialization serializer to write with, or {@code null} to disable persistence
+     * @param location      resource identifier passed to {@link ISerialization#saveStorageData}
+     */
+    public void setMetadataStore(ISerialization serialization, String location) {
+        setMetadataFlusher(serialization == null ? null : new MetadataFlusher("metadata-flusher-" + storage.getStorageId(),
+                () -> serialization.saveStorageData(location, storage), FlushPolicy.sync()));
+    }
+
+    /**
+     * Replaces the metadata flusher. The previous one, if any, is closed after flushing
+     * what it has pending.
+     *
+     * @param flusher new flusher, or {@code null} to disable persistence
+     * @throws StorageException if the final flush of the previous flusher fails
+     */
+    public void setMetadataFlusher(MetadataFlusher flusher) {
+        MetadataFlusher previous = metadataFlusher;
+        metadataFlusher = flusher;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Reports a change to the storage metadata to the flusher, which writes it now or later
+     * depending on its {@link FlushPolicy}; does nothing if no flusher is set.
+     *
+     * @throws StorageException if a synchronous flush fails
+     */
+    public void persistMetadata() {
+        MetadataFlusher flusher = metadataFlusher;
+        if (flusher != null) {
+            flusher.changed();
+        }
+    }
+
+    /**
+     * Waits until every metadata change reported so far is written; does nothing if no
+     * flusher is set.
+     *
+     * @throws StorageException if the flush fails
+     */
+    public void flushMetadata() {
+        MetadataFlusher flusher = metadataFlusher;
+        if (flusher != null) {
+            flusher.flush();
+        }
+    }
+
+    // ── Index snapshots ──────────────────────────────────────────────────────
+
+    /**
+     * Sets the file the search indexes are snapshotted to and, if it holds a valid snapshot,
+     * seeds the name and creation-time indexes, the used bytes and the child counters from
+     * it. The snapshot is read onto the heap and validated now, and the indexes are decoded
+     * lazily, on the first query or update of each; a restored quota counter skips the
+     * initial reconciliation walk. A stale or unreadable snapshot is deleted and everything
+     * falls back to walking the tree.
+     * <p>
+     * Every index mutation and every change to the quota or child counters bumps a
+     * generation counter; the first one after a snapshot was written deletes it, so a
+     * snapshot on disk always matches the tree as the back-end last changed it.
+     */
+    private void loadIndexSnapshot(Path file) {
+        indexSnapshotFile = file;
+        IndexSnapshot snapshot = IndexSnapshot.open(file, root);
+        if (snapshot == null) {
+            deleteSnapshot(file);
+            return;
+        }
+        generation.set(snapshot.generation());
+        snapshotOnDisk.set(true);
+        nameIndex.setLoader(snapshot::names);
+        creationTimeIndex.setLoader(snapshot::times);
+        if (snapshot.usedBytes() >= 0) {
+            quota.restore(snapshot.usedBytes());
+        }
+        childCounts.seed(snapshot.childCounts());
+    }
+
+    /**
+     * Writes the built indexes, the used bytes and the child counters to the snapshot file,
+     * unless no file is set, the snapshot on disk is still current, or the name index has not
+     * been built — its directories are what a snapshot is validated against. Used bytes that
+     * were never reconciled are left out. A snapshot whose capture raced with a mutation is
+     * discarded.
+     *
+     * @throws StorageException if the write fails
+     */
+    public void saveIndexSnapshot() {
+        Path file = indexSnapshotFile;
+        if (file == null || snapshotOnDisk.get()) {
+            return;
+        }
+        long captured = generation.get();
+        Collection<Path> names = nameIndex.snapshot();
+        Map<Path, Instant> times = creationTimeIndex.snapshot();
+        long usedBytes = quota.isReconciled() ? quota.usedBytes() : -1;
+        Map<Path, Integer> counts = childCounts.counts();
+        if (names == null || generation.get() != captured
+                || !IndexSnapshot.write(file, root, captured, names, times, usedBytes, counts)) {
+            return;
+        }
+        snapshotOnDisk.set(true);
+        if (generation.get() != captured && snapshotOnDisk.compareAndSet(true, false)) {
+            deleteSnapshot(file);
+        }
+    }
+
+    private void indexChanging() {
+        generation.incrementAndGet();
+        if (snapshotOnDisk.compareAndSet(true, false)) {
+            deleteSnapshot(indexSnapshotFile);
+        }
+    }
+
+    private static void deleteSnapshot(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new StorageException("Failed to invalidate index snapshot '" + file + "'", e);
+        }
+    }
+
+    // ── Index maintenance ────────────────────────────────────────────────────
+
+    /**
+     * Registers a single newly created file or directory with every index.
+     */
+    void created(Path path) {
+        indexChanging();
+        pager.invalidate(path.getParent());
+        nameIndex.add(path);
+        extensionIndex.added(path);
+        creationTimeIndex.addedTree(path);
+    }
+
+    /**
+     * Registers many newly created, empty directories in one step. Only the name index
+     * tracks directories, so the others are left alone.
+     */
+    void createdDirs(Collection<Path> dirs) {
+        indexChanging();
+        for (Path dir : dirs) {
+            pager.invalidate(dir.getParent());
+        }
+        nameIndex.addAll(dirs);
+    }
+
+    /**
+     * Registers {@code path} and its whole subtree with every index.
+     */
+    void createdTree(Path path) {
+        indexChanging();
+        pager.invalidateTree(path);
+        nameIndex.addTree(path);
+        if (!Files.isDirectory(path)) {
+            extensionIndex.added(path);
+        }
+        creationTimeIndex.addedTree(path);
+    }
+
+    /**
+     * Unregisters {@code path} and its subtree from every index and cache.
+     * Must be called while the entries are still on disk.
+     */
+    void removingTree(Path path) {
+        indexChanging();
+        pager.invalidateTree(path);
+        nameIndex.removeTree(path);
+        extensionIndex.removedTree(path);
+        creationTimeIndex.removedTree(path);
+        childCounts.forgetTree(path);
+        mappedFiles.invalidateTree(path);
+    }
+
+    /**
+     * Unregisters a single entry from every index and cache, without looking below it.
+     * Used by traversals that delete entry by entry; finish with {@link #removedTree}.
+     */
+    void removing(Path path) {
+        indexChanging();
+        pager.invalidate(path.getParent());
+        pager.invalidate(path);
+        nameIndex.remove(path);
+        extensionIndex.removed(path);
+        creationTimeIndex.removed(path);
+        mappedFiles.invalidate(path);
+    }
+
+    /**
+     * Drops the per-directory state of a subtree whose entries were removed one by one.
+     */
+    void removedTree(Path path) {
+        pager.invalidateTree(path);
+        extensionIndex.forgetTree(path);
+        creationTimeIndex.forgetTree(path);
+        childCounts.forgetTree(path);
+        mappedFiles.invalidateTree(path);
+    }
+
+    /**
+     * Drops all index contents after a partially failed mutation; they are rebuilt on next use.
+     */
+    void invalidateIndexes() {
+        indexChanging();
+        nameIndex.invalidate();
+        extensionIndex.invalidate();
+        creationTimeIndex.invalidate();
+        childCounts.invalidate();
+        pager.invalidateAll();
+    }
+}
@@ -1,119 +1,960 @@
 package ops;
 
+import index.ExtensionIndex;
+import lombok.Getter;
+import lombok.Setter;
+import storageSpec.Storage;
+import storageSpec.exception.ForbiddenExtensionException;
+import storageSpec.exception.StorageException;
+import storageSpec.metrics.TransferMeter;
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+import storageSpec.ops.ByteRange;
 import storageSpec.ops.IStorageOps;
-
+import storageSpec.ops.Page;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * {@link IStorageOps} implementation backed by the local file system.
+ * <p>
+ * All storage paths are resolved against {@link Storage#getRootLocation()} and may not
+ * escape it. File contents are moved with {@link java.nio.channels.FileChannel#transferTo}
+ * so large files never pass through the Java heap.
+ */
 public class LocalStorageOps implements IStorageOps {
+
+    private static final int DIR_CHUNK = 256;
+    private static final int MAX_SUPPRESSED = 16;
+
+    @Getter
+    private final LocalStorageContext context;
+    private final Storage storage;
+    private final Path root;
+    private final MappedFileCache mappedFiles;
+    private final QuotaTracker quota;
+    private final ChildCountTracker children;
+    private final PathLockManager locks;
+
+    /**
+     * Chunking strategy used for copy, upload and download.
+     */
+    @Getter
+    @Setter
+    private TransferMode transferMode = TransferMode.DEFAULT;
+
+    /**
+     * Creates the operations on top of state shared with other sessions of the same storage.
+     *
+     * @param context shared back-end state of the storage
+     */
+    public LocalStorageOps(LocalStorageContext context) {
+        this.context = context;
+        this.storage = context.getStorage();
+        this.root = context.getRoot();
+        this.mappedFiles = context.mappedFiles;
+        this.quota = context.getQuota();
+        this.children = context.getChildCounts();
+        this.locks = context.getLocks();
+    }
+
     @Override
     public void createDir(String dirName, String path) {
-
+        Path dir = context.child(resolve(path), dirName);
+        try (PathLockManager.Locks ignored = locks.exclusive(dir)) {
+            Path parent = requireDir(path);
+            try (ChildCountTracker.Slots slot = children.acquire(parent, 1)) {
+                Files.createDirectory(dir);
+                slot.commit();
+            } catch (IOException e) {
+                throw new StorageException("Failed to create directory '" + dir + "'", e);
+            }
+            context.created(dir);
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Child limits of both {@code path} and the new directory are checked once, up front.
+     * Subdirectories are created in parallel and registered with the indexes in one step.
+     * If any creation fails, every directory made by this call — including {@code dirName} —
+     * is removed again and the failure is rethrown; nothing is left behind or counted.
+     */
     @Override
     public void createDir(String dirName, String path, String namePrefix, int numberOfDirs) {
-
+        if (numberOfDirs < 0) {
+            throw new StorageException("Number of directories cannot be negative: " + numberOfDirs);
+        }
+        Path base = context.child(resolve(path), dirName);
+        List<Path> dirs = new ArrayList<>(numberOfDirs);
+        for (int i = 1; i <= numberOfDirs; i++) {
+            dirs.add(context.child(base, namePrefix + i));
+        }
+        try (PathLockManager.Locks ignored = locks.exclusive(base)) {
+            Path parent = requireDir(path);
+            try (ChildCountTracker.Slots slot = children.acquire(parent, 1);
+                 ChildCountTracker.Slots slots = children.acquire(base, numberOfDirs)) {
+                try {
+                    Files.createDirectory(base);
+                } catch (IOException e) {
+                    throw new StorageException("Failed to create directory '" + base + "'", e);
+                }
+                StorageException failure = createDirs(dirs);
+                if (failure != null) {
+                    rollbackDirs(base, dirs, failure);
+                    throw failure;
+                }
+                slots.commit();
+                slot.commit();
+            }
+            List<Path> created = new ArrayList<>(numberOfDirs + 1);
+            created.add(base);
+            created.addAll(dirs);
+            context.createdDirs(created);
+        }
     }
 
     @Override
     public void createFile(String fileName, String path, String fileType) {
-
+        checkExtension(fileType);
+        Path file = context.child(resolve(path), withType(fileName, fileType));
+        try (PathLockManager.Locks ignored = locks.exclusive(file)) {
+            Path parent = requireDir(path);
+            try (ChildCountTracker.Slots slot = children.acquire(parent, 1);
+                 QuotaTracker.Reservation reservation = quota.reserve(0)) {
+                Files.createFile(file);
+                reservation.commit(0);
+                slot.commit();
+            } catch (IOException e) {
+                throw new StorageException("Failed to create file '" + file + "'", e);
+            }
+            context.created(file);
+        }
     }
 
     @Override
     public void uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
-
+        checkExtension(fileType);
+        Path source = Path.of(sourcePath);
+        if (!Files.isRegularFile(source)) {
+            throw new StorageException("Upload source is not a file: " + sourcePath);
+        }
+        context.checkHostPath(source);
+        Path target = context.child(resolve(destinationPath), withType(fileName, fileType));
+        try (PathLockManager.Locks ignored = locks.exclusive(target)) {
+            Path parent = requireDir(destinationPath);
+            mappedFiles.invalidate(target);
+            boolean existed = Files.exists(target);
+            long previousSize = existed ? QuotaTracker.sizeOf(target) : 0;
+            try (ChildCountTracker.Slots slot = children.acquire(parent, existed ? 0 : 1);
+                 QuotaTracker.Reservation reservation = quota.reserve(Math.max(0, QuotaTracker.sizeOf(source) - previousSize))) {
+                long written = FileTransfer.copy(source, target, transferMode);
+                reservation.commit(written);
+                TransferMeter.record(written);
+                quota.release(previousSize);
+                slot.commit();
+            }
+            if (!existed) {
+                context.created(target);
+            }
+        }
     }
 
     @Override
-    public void move(Collection<String> filePaths, String destinationPath) {
-
+    public BulkOperationResult move(Collection<String> filePaths, String destinationPath) {
+        Path destination = requireDir(destinationPath);
+        Map<String, StorageException> failed = new ConcurrentHashMap<>();
+        Map<String, Path> sources = new LinkedHashMap<>();
+        int incoming = 0;
+        for (String filePath : filePaths) {
+            try {
+                Path source = requireExisting(filePath);
+                sources.put(filePath, source);
+                if (!destination.equals(source.getParent())) {
+                    incoming++;
+                }
+            } catch (StorageException e) {
+                failed.put(filePath, e);
+            }
+        }
+
+        Set<String> succeeded = ConcurrentHashMap.newKeySet();
+        AtomicInteger arrived = new AtomicInteger();
+        try (ChildCountTracker.Slots slots = children.acquire(destination, incoming)) {
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                sources.forEach((filePath, source) -> workers.execute(() -> {
+                    Path target = destination.resolve(source.getFileName().toString());
+                    try (PathLockManager.Locks ignored = locks.lock(List.of(), List.of(source, target))) {
+                        moveEntry(source, target);
+                        children.release(source.getParent(), 1);
+                        arrived.incrementAndGet();
+                        succeeded.add(filePath);
+                    } catch (StorageException e) {
+                        failed.put(filePath, e);
+                    } catch (RuntimeException e) {
+                        failed.put(filePath, new StorageException("Failed to move '" + source + "'", e));
+                    }
+                }));
+            }
+            slots.commit(arrived.get());
+        }
+
+        List<String> inOrder = new ArrayList<>(succeeded.size());
+        for (String filePath : sources.keySet()) {
+            if (succeeded.contains(filePath)) {
+                inOrder.add(filePath);
+            }
+        }
+        return new BulkOperationResult(inOrder, failed);
     }
 
     @Override
     public void move(String filePath, String destinationPath) {
-
+        Path source = requireExisting(filePath);
+        Path target = requireDir(destinationPath).resolve(source.getFileName().toString());
+        relocate(source, target);
     }
 
     @Override
     public void delete(String path) {
+        delete(path, new TreeOptions());
+    }
 
+    /**
+     * Deletes a file, or a directory recursively using a parallel traversal.
+     *
+     * @param path    path of the entry to delete
+     * @param options parallelism, progress callback and cancellation
+     * @throws StorageException if the entry does not exist, on the first failure, or if cancelled;
+     *                          entries deleted up to that point stay deleted
+     */
+    public void delete(String path, TreeOptions options) {
+        Path target = requireExisting(path);
+        if (target.equals(root)) {
+            throw new StorageException("Cannot delete the storage root");
+        }
+        try (PathLockManager.Locks ignored = locks.exclusive(target)) {
+            if (!Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                deleteFile(target);
+                return;
+            }
+            try {
+                ParallelTree.delete(this, target, options);
+            } catch (StorageException e) {
+                context.invalidateIndexes();
+                throw e;
+            } finally {
+                context.removedTree(target);
+                if (Files.notExists(target)) {
+                    children.release(target.getParent(), 1);
+                    if (children.dropLimits(target)) {
+                        context.persistMetadata();
+                    }
+                }
+            }
+        }
     }
 
     @Override
     public void download(String path, String destinationPath) {
-
+        Path source = requireExisting(path);
+        Path destination = Path.of(destinationPath).toAbsolutePath();
+        if (Files.isDirectory(destination)) {
+            destination = destination.resolve(source.getFileName().toString());
+        }
+        context.checkHostPath(destination);
+        try (PathLockManager.Locks ignored = locks.shared(source)) {
+            TransferMeter.record(copyTree(source, destination, false));
+        }
     }
 
     @Override
     public void rename(String path, String newName) {
-
+        Path source = requireExisting(path);
+        if (source.equals(root)) {
+            throw new StorageException("Cannot rename the storage root");
+        }
+        Path target = context.child(source.getParent(), newName);
+        relocate(source, target);
     }
 
     @Override
     public void copy(String sourcePath, String destinationPath) {
+        copy(sourcePath, destinationPath, new TreeOptions());
+    }
+
+    /**
+     * Copies a file, or a directory recursively using a parallel traversal. A directory is
+     * merged into an existing one of the same name; existing files are overwritten.
+     *
+     * @param sourcePath      path of the entry to copy
+     * @param destinationPath directory to copy into
+     * @param options         parallelism, progress callback and cancellation
+     * @throws StorageException on the first failure or if cancelled; entries copied up to that
+     *                          point stay in place and are accounted for
+     */
+    public void copy(String sourcePath, String destinationPath, TreeOptions options) {
+        Path source = requireExisting(sourcePath);
+        Path parent = requireDir(destinationPath);
+        Path target = parent.resolve(source.getFileName().toString());
+        if (target.startsWith(source)) {
+            throw new StorageException("Cannot copy '" + sourcePath + "' into itself");
+        }
+        try (PathLockManager.Locks ignored = locks.lock(List.of(source), List.of(target))) {
+            if (!Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                copyFile(source, parent, target);
+                return;
+            }
+            boolean existed = Files.exists(target);
+            try (ChildCountTracker.Slots slot = children.acquire(parent, existed ? 0 : 1)) {
+                try {
+                    TransferMeter.record(ParallelTree.copy(this, source, target, options));
+                } finally {
+                    if (Files.exists(target)) {
+                        slot.commit();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Child slots are acquired once per parent directory and quota once for all uploads;
+     * uploads run concurrently. The whole batch is reported to the context's
+     * {@linkplain LocalStorageContext#getMetadataFlusher() metadata flusher} as one change.
+     */
+    @Override
+    public BulkOperationResult executeBatch(List<BatchOperation> operations) {
+        return new BatchExecutor(this).execute(operations);
+    }
+
+    @Override
+    public ReadableByteChannel openRead(String path) {
+        Path file = resolve(path);
+        try (PathLockManager.Locks ignored = locks.shared(file)) {
+            if (!Files.isRegularFile(file)) {
+                throw new StorageException("Not a file: " + path);
+            }
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new StorageException("Failed to open '" + path + "' for reading", e);
+        }
+    }
+
+    @Override
+    public WritableByteChannel openWrite(String fileName, String destinationPath, String fileType) {
+        checkExtension(fileType);
+        Path target = context.child(resolve(destinationPath), withType(fileName, fileType));
+        try (PathLockManager.Locks ignored = locks.exclusive(target)) {
+            Path parent = requireDir(destinationPath);
+            mappedFiles.invalidate(target);
+            boolean existed = Files.exists(target);
+            long previousSize = existed ? QuotaTracker.sizeOf(target) : 0;
+            QuotaTracker.Reservation reservation = quota.reserve(0);
+            FileChannel channel;
+            try (ChildCountTracker.Slots slot = children.acquire(parent, existed ? 0 : 1)) {
+                channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                slot.commit();
+            } catch (IOException | RuntimeException e) {
+                reservation.close();
+                if (e instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new StorageException("Failed to open '" + target + "' for writing", e);
+            }
+            quota.release(previousSize);
+            if (!existed) {
+                context.created(target);
+            }
+            return new QuotaWritableChannel(channel, reservation);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The bytes are copied out of a cached memory mapping while the file is locked, so the
+     * buffer stays valid whatever happens to the file afterwards.
+     */
+    @Override
+    public ByteBuffer readRange(String path, long offset, int length) {
+        MappedFileCache.checkRange(offset, length);
+        Path file = resolve(path);
+        try (PathLockManager.Locks ignored = locks.shared(file)) {
+            return mappedFiles.read(file, offset, length);
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The bytes are copied out of a cached memory mapping; see {@link #readRange}.
+     */
+    @Override
+    public List<ByteBuffer> readRanges(String path, List<ByteRange> ranges) {
+        for (ByteRange range : ranges) {
+            MappedFileCache.checkRange(range.getOffset(), range.getLength());
+        }
+        Path file = resolve(path);
+        List<ByteBuffer> buffers = new ArrayList<>(ranges.size());
+        try (PathLockManager.Locks ignored = locks.shared(file)) {
+            for (ByteRange range : ranges) {
+                buffers.add(mappedFiles.read(file, range.getOffset(), range.getLength()));
+            }
+        }
+        return buffers;
     }
 
     @Override
     public List<String> listFiles(String dirPath) {
-        return List.of();
+        try (Stream<String> files = streamFiles(dirPath)) {
+            return files.toList();
+        }
+    }
+
+    @Override
+    public Page listFiles(String dirPath, int pageSize, String pageToken) {
+        try (PathLockManager.Locks ignored = locks.shared(resolve(dirPath))) {
+            return context.pager.page(requireDir(dirPath), DirectoryPager.Kind.FILES, pageSize, pageToken);
+        }
+    }
+
+    @Override
+    public Stream<String> streamFiles(String dirPath) {
+        return context.pager.stream(requireDir(dirPath), DirectoryPager.Kind.FILES);
     }
 
     @Override
     public List<String> listDirs(String dirPath) {
-        return List.of();
+        try (Stream<String> dirs = streamDirs(dirPath)) {
+            return dirs.toList();
+        }
+    }
+
+    @Override
+    public Page listDirs(String dirPath, int pageSize, String pageToken) {
+        try (PathLockManager.Locks ignored = locks.shared(resolve(dirPath))) {
+            return context.pager.page(requireDir(dirPath), DirectoryPager.Kind.DIRS, pageSize, pageToken);
+        }
+    }
+
+    @Override
+    public Stream<String> streamDirs(String dirPath) {
+        return context.pager.stream(requireDir(dirPath), DirectoryPager.Kind.DIRS);
     }
 
     @Override
     public List<String> searchByName(String name) {
-        return List.of();
+        return toStrings(context.getNameIndex().find(name));
+    }
+
+    @Override
+    public Page searchByName(String name, int pageSize, String pageToken) {
+        int size = DirectoryPager.checkPageSize(pageSize);
+        Path after = fromCursor(DirectoryPager.decode(pageToken));
+        return DirectoryPager.page(context.getNameIndex().find(name, after, size + 1), size, this::cursor);
+    }
+
+    @Override
+    public List<String> searchByNamePrefix(String prefix) {
+        return toStrings(context.getNameIndex().findByPrefix(prefix));
+    }
+
+    @Override
+    public Page searchByNamePrefix(String prefix, int pageSize, String pageToken) {
+        int size = DirectoryPager.checkPageSize(pageSize);
+        Path after = fromCursor(DirectoryPager.decode(pageToken));
+        return DirectoryPager.page(context.getNameIndex().findByPrefix(prefix, after, size + 1), size,
+                this::cursor);
     }
 
     @Override
     public List<String> searchByExtension(String extension, String dirPath) {
-        return List.of();
+        return toStrings(context.getExtensionIndex().find(requireDir(dirPath), extension));
+    }
+
+    @Override
+    public Page searchByExtension(String extension, String dirPath, int pageSize, String pageToken) {
+        int size = DirectoryPager.checkPageSize(pageSize);
+        try (PathLockManager.Locks ignored = locks.shared(resolve(dirPath))) {
+            Path dir = requireDir(dirPath);
+            String name = DirectoryPager.decode(pageToken);
+            Path after = name == null ? null : context.child(dir, name);
+            return DirectoryPager.page(context.getExtensionIndex().find(dir, extension, after, size + 1),
+                    size, file -> file.getFileName().toString());
+        }
     }
 
     @Override
     public List<String> listFilesSortedByName(String dirPath) {
-        return List.of();
+        List<String> files = new ArrayList<>(listFiles(dirPath));
+        files.sort(null);
+        return files;
     }
 
     @Override
     public List<String> listFilesSortedByDate(String dirPath) {
-        return List.of();
+        return toStrings(context.getCreationTimeIndex().oldestFirst(requireDir(dirPath), 0));
+    }
+
+    @Override
+    public List<String> listNewestFiles(String dirPath, int count) {
+        return toStrings(context.getCreationTimeIndex().newestFirst(requireDir(dirPath), count));
     }
 
     @Override
     public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end) {
-        return List.of();
+        return searchByCreationDateRange(start, end, 0);
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit) {
+        return toStrings(context.getCreationTimeIndex().range(toInstant(start), toInstant(end), limit));
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken) {
+        int size = DirectoryPager.checkPageSize(pageSize);
+        Map.Entry<Instant, Path> after = fromDateCursor(pageToken);
+        return datePage(context.getCreationTimeIndex()
+                .range(toInstant(start), toInstant(end), after, size + 1), size);
     }
 
     @Override
     public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath) {
-        return List.of();
+        return searchByCreationDateRange(start, end, dirPath, 0);
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit) {
+        return toStrings(context.getCreationTimeIndex()
+                .range(requireDir(dirPath), toInstant(start), toInstant(end), limit));
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath,
+                                          int pageSize, String pageToken) {
+        int size = DirectoryPager.checkPageSize(pageSize);
+        Map.Entry<Instant, Path> after = fromDateCursor(pageToken);
+        return datePage(context.getCreationTimeIndex()
+                .range(requireDir(dirPath), toInstant(start), toInstant(end), after, size + 1), size);
     }
 
     @Override
     public String getModificationDate(String path) {
-        return "";
+        BasicFileAttributes attrs = attributesOf(path);
+        return attrs == null ? null : toDateString(attrs.lastModifiedTime().toInstant());
     }
 
     @Override
     public String getCreationDate(String path) {
-        return "";
+        BasicFileAttributes attrs = attributesOf(path);
+        return attrs == null ? null : toDateString(attrs.creationTime().toInstant());
     }
 
     @Override
     public boolean fileExists(String path) {
-        return false;
+        Path target = context.tryResolve(path);
+        return target != null && Files.exists(target);
     }
 
     @Override
     public long getFileSize(String path) {
-        return 0;
+        Path file = requireExisting(path);
+        try (PathLockManager.Locks ignored = locks.shared(file)) {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                throw new StorageException("Not a file: " + path);
+            }
+            return attrs.size();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the size of '" + path + "'", e);
+        }
+    }
+
+    // ── Internal helpers ─────────────────────────────────────────────────────
+
+    Path resolve(String path) {
+        return context.resolve(path);
+    }
+
+    /**
+     * Page cursor of an index search result: its path relative to the root.
+     */
+    private String cursor(Path path) {
+        return context.getRoot().relativize(path).toString();
+    }
+
+    /**
+     * Turns a decoded {@link #cursor} back into the path to resume after.
+     *
+     * @throws StorageException if the cursor is not a path below the root
+     */
+    private Path fromCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return context.getRoot().resolve(cursor).normalize();
+        } catch (InvalidPathException e) {
+            throw new StorageException("Invalid page token", e);
+        }
+    }
+
+    /**
+     * Decodes a creation date page token, {@code epochSecond:nano:cursor}.
+     *
+     * @throws StorageException if the token is malformed
+     */
+    private Map.Entry<Instant, Path> fromDateCursor(String pageToken) {
+        String cursor = DirectoryPager.decode(pageToken);
+        if (cursor == null) {
+            return null;
+        }
+        String[] parts = cursor.split(":", 3);
+        if (parts.length != 3) {
+            throw new StorageException("Invalid page token: " + pageToken);
+        }
+        try {
+            Instant created = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return Map.entry(created, fromCursor(parts[2]));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new StorageException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    /**
+     * Builds a creation date page from up to {@code pageSize + 1} index entries.
+     */
+    private Page datePage(List<Map.Entry<Instant, Path>> found, int pageSize) {
+        List<Map.Entry<Instant, Path>> items = found.size() > pageSize ? found.subList(0, pageSize) : found;
+        List<String> paths = new ArrayList<>(items.size());
+        for (Map.Entry<Instant, Path> item : items) {
+            paths.add(item.getValue().toString());
+        }
+        String next = null;
+        if (found.size() > pageSize) {
+            Map.Entry<Instant, Path> last = items.get(pageSize - 1);
+            next = DirectoryPager.encode(last.getKey().getEpochSecond() + ":" + last.getKey().getNano()
+                    + ":" + cursor(last.getValue()));
+        }
+        return new Page(paths, next);
+    }
+
+    /**
+     * Reads the attributes of the entry at {@code path}, or returns {@code null} if there is
+     * none or they cannot be read.
+     */
+    private BasicFileAttributes attributesOf(String path) {
+        Path target = resolve(path);
+        try (PathLockManager.Locks ignored = locks.shared(target)) {
+            return Files.readAttributes(target, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String toDateString(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).toString();
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static List<String> toStrings(Collection<Path> paths) {
+        List<String> result = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            result.add(path.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Moves or renames {@code source} to {@code target}, keeping child counts in step.
+     */
+    private void relocate(Path source, Path target) {
+        boolean sameDir = source.getParent().equals(target.getParent());
+        try (PathLockManager.Locks ignored = locks.lock(List.of(), List.of(source, target))) {
+            try (ChildCountTracker.Slots slot = children.acquire(target.getParent(), sameDir ? 0 : 1)) {
+                moveEntry(source, target);
+                slot.commit();
+            }
+            if (!sameDir) {
+                children.release(source.getParent(), 1);
+            }
+        }
+    }
+
+    /**
+     * Moves {@code source} to {@code target} and updates the indexes. Uses an atomic rename
+     * when both are on the same file system; otherwise streams a copy and deletes the source.
+     * Child counts are the caller's responsibility.
+     */
+    private void moveEntry(Path source, Path target) {
+        if (Files.exists(target)) {
+            throw new StorageException("Target already exists: " + target);
+        }
+        if (target.startsWith(source)) {
+            throw new StorageException("Cannot move '" + source + "' into itself");
+        }
+        context.removingTree(source);
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                copyTree(source, target, false);
+                deleteTree(source, new long[1]);
+            }
+        } catch (IOException | StorageException e) {
+            context.invalidateIndexes();
+            throw new StorageException("Failed to move '" + source + "' to '" + target + "'", e);
+        }
+        context.createdTree(target);
+        if (children.moveLimits(source, target)) {
+            context.persistMetadata();
+        }
+    }
+
+    /**
+     * Deletes {@code target} recursively, adding the size of every deleted regular file to
+     * {@code freed[0]} as it goes so that partial failures are still accounted for.
+     */
+    private static void deleteTree(Path target, long[] freed) throws IOException {
+        Files.walkFileTree(target, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                freed[0] += attrs.isRegularFile() ? attrs.size() : 0;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void deleteFile(Path target) {
+        context.removingTree(target);
+        long[] freed = {0};
+        try (QuotaTracker.Reservation ignored = quota.reserve(0)) {
+            try {
+                deleteTree(target, freed);
+            } catch (IOException e) {
+                context.invalidateIndexes();
+                throw new StorageException("Failed to delete '" + target + "'", e);
+            } finally {
+                quota.release(freed[0]);
+            }
+        } finally {
+            if (Files.notExists(target)) {
+                children.release(target.getParent(), 1);
+            }
+        }
+    }
+
+    private void copyFile(Path source, Path parent, Path target) {
+        mappedFiles.invalidate(target);
+        boolean existed = Files.exists(target, LinkOption.NOFOLLOW_LINKS);
+        long previousSize = existed ? QuotaTracker.sizeOf(target) : 0;
+        try (ChildCountTracker.Slots slot = children.acquire(parent, existed ? 0 : 1);
+             QuotaTracker.Reservation reservation = quota.reserve(Math.max(0, QuotaTracker.sizeOf(source) - previousSize))) {
+            long copied = copyTree(source, target, true);
+            reservation.commit(copied);
+            quota.release(previousSize);
+            TransferMeter.record(copied);
+            slot.commit();
+        }
+        if (!existed) {
+            context.created(target);
+        }
+    }
+
+    /**
+     * Creates {@code dirs} in parallel, {@value #DIR_CHUNK} per virtual thread.
+     *
+     * @return the first failure, with up to {@value #MAX_SUPPRESSED} later ones suppressed,
+     *         or {@code null} on success
+     */
+    private static StorageException createDirs(List<Path> dirs) {
+        Map<Path, IOException> errors = new ConcurrentHashMap<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < dirs.size(); from += DIR_CHUNK) {
+                List<Path> chunk = dirs.subList(from, Math.min(from + DIR_CHUNK, dirs.size()));
+                workers.execute(() -> {
+                    for (Path dir : chunk) {
+                        try {
+                            Files.createDirectory(dir);
+                        } catch (IOException e) {
+                            errors.put(dir, e);
+                        }
+                    }
+                });
+            }
+        }
+        StorageException failure = null;
+        int suppressed = 0;
+        for (Map.Entry<Path, IOException> error : errors.entrySet()) {
+            if (failure == null) {
+                failure = new StorageException("Failed to create directory '" + error.getKey() + "'", error.getValue());
+            } else if (suppressed++ < MAX_SUPPRESSED) {
+                failure.addSuppressed(error.getValue());
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Undoes a failed fan-out: removes the created subdirectories and then {@code base}.
+     * Anything that cannot be removed (e.g. a directory another session already wrote into)
+     * is reported as suppressed on {@code failure}, and the indexes are rebuilt lazily.
+     */
+    private void rollbackDirs(Path base, List<Path> dirs, StorageException failure) {
+        boolean clean = true;
+        for (Path dir : dirs) {
+            try {
+                Files.deleteIfExists(dir);
+            } catch (IOException e) {
+                clean = false;
+                failure.addSuppressed(e);
+            }
+        }
+        try {
+            Files.deleteIfExists(base);
+        } catch (IOException e) {
+            clean = false;
+            failure.addSuppressed(e);
+        }
+        if (!clean) {
+            context.invalidateIndexes();
+        }
+    }
+
+    private Path requireExisting(String path) {
+        Path resolved = resolve(path);
+        if (!Files.exists(resolved)) {
+            throw new StorageException("No such file or directory: " + path);
+        }
+        return resolved;
+    }
+
+    private Path requireDir(String path) {
+        Path resolved = resolve(path);
+        if (!Files.isDirectory(resolved)) {
+            throw new StorageException("Not a directory: " + path);
+        }
+        return resolved;
+    }
+
+    /**
+     * Throws if {@code extension} (with or without the leading dot) is forbidden in the storage.
+     */
+    void checkExtension(String extension) {
+        String ext = ExtensionIndex.normalize(extension);
+        if (ext.isEmpty()) {
+            return;
+        }
+        for (String forbidden : storage.getForbiddenExtensions()) {
+            if (ext.equals(ExtensionIndex.normalize(forbidden))) {
+                throw new ForbiddenExtensionException(ext);
+            }
+        }
+    }
+
+    static String withType(String fileName, String fileType) {
+        if (fileType == null || fileType.isEmpty()) {
+            return fileName;
+        }
+        String suffix = fileType.startsWith(".") ? fileType : "." + fileType;
+        return fileName.endsWith(suffix) ? fileName : fileName + suffix;
+    }
+
+    /**
+     * Copies a file or a whole directory tree, leaving out the metadata directory. Regular
+     * files go through {@link FileTransfer}; symbolic links are copied as links and never
+     * followed.
+     *
+     * @param checkExtensions whether to enforce forbidden extensions on every copied file
+     * @return number of bytes copied
+     */
+    private long copyTree(Path source, Path target, boolean checkExtensions) {
+        try {
+            if (!Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                if (checkExtensions) {
+                    checkExtension(ExtensionIndex.extensionOf(source));
+                }
+                return Files.isSymbolicLink(source)
+                        ? FileTransfer.copyLink(source, target)
+                        : FileTransfer.copy(source, target, transferMode);
+            }
+            long[] copied = {0};
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (context.isMetadata(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    Files.createDirectories(target.resolve(source.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (checkExtensions) {
+                        checkExtension(ExtensionIndex.extensionOf(file));
+                    }
+                    Path copy = target.resolve(source.relativize(file));
+                    copied[0] += attrs.isSymbolicLink()
+                            ? FileTransfer.copyLink(file, copy)
+                            : FileTransfer.copy(file, copy, transferMode);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return copied[0];
+        } catch (NoSuchFileException e) {
+            throw new StorageException("No such file or directory: " + e.getFile(), e);
+        } catch (IOException e) {
+            throw new StorageException("Failed to copy '" + source + "' to '" + target + "'", e);
+        }
     }
 }
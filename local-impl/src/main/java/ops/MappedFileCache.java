@@ -0,0 +1,154 @@
+package ops;
+
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of read-only memory mappings, used for ranged reads.
+ * <p>
+ * A cached mapping is reused as long as the file's size and modification time are
+ * unchanged, so hot files are served from the page cache without re-opening them.
+ * Files larger than {@link Integer#MAX_VALUE} bytes cannot be mapped in one piece;
+ * for those the requested region is read with a positional read and nothing is cached.
+ * <p>
+ * Mappings never leave this class: {@link #read} copies the requested bytes into a heap
+ * buffer. Touching a mapping after its file was truncated raises {@code SIGBUS}, so callers
+ * must hold at least a shared lock on the file while reading — every operation that can
+ * shrink a file takes the exclusive lock. Eviction and {@link #invalidate} only drop the
+ * cache's reference; the mapping itself goes away once it is garbage collected.
+ */
+final class MappedFileCache {
+
+    private final int maxEntries;
+    private final long maxMappedBytes;
+    private final LinkedHashMap<Path, Mapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes;
+
+    MappedFileCache(int maxEntries, long maxMappedBytes) {
+        this.maxEntries = maxEntries;
+        this.maxMappedBytes = maxMappedBytes;
+    }
+
+    /**
+     * Returns a read-only heap copy of {@code length} bytes at {@code offset} in
+     * {@code file}. The copy is shorter than {@code length} if the file ends earlier. The
+     * caller must hold a lock on {@code file}; see the class comment.
+     *
+     * @throws StorageException if the file cannot be read, the offset or length is negative,
+     *                          or the offset is past its end
+     */
+    ByteBuffer read(Path file, long offset, int length) {
+        checkRange(offset, length);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                throw new StorageException("Not a file: " + file);
+            }
+            long size = attrs.size();
+            if (offset > size) {
+                throw new StorageException("Offset " + offset + " is past the end of '" + file + "' (" + size + " bytes)");
+            }
+            int available = (int) Math.min(length, size - offset);
+            if (size > Integer.MAX_VALUE) {
+                return readRegion(file, offset, available);
+            }
+            ByteBuffer mapped = mapping(file, size, attrs.lastModifiedTime());
+            return ByteBuffer.allocate(available).put(mapped.slice((int) offset, available)).flip().asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Rejects a negative offset or length.
+     *
+     * @throws StorageException if {@code offset} or {@code length} is negative
+     */
+    static void checkRange(long offset, int length) {
+        if (offset < 0 || length < 0) {
+            throw new StorageException("Invalid byte range: offset=" + offset + ", length=" + length);
+        }
+    }
+
+    /**
+     * Drops the cached mapping of {@code file}, if any. Called whenever the file is
+     * rewritten, moved or deleted.
+     */
+    synchronized void invalidate(Path file) {
+        Mapping removed = mappings.remove(file);
+        if (removed != null) {
+            mappedBytes -= removed.buffer.capacity();
+        }
+    }
+
+    /**
+     * Drops every cached mapping of {@code dir} and anything below it.
+     */
+    synchronized void invalidateTree(Path dir) {
+        Iterator<Map.Entry<Path, Mapping>> it = mappings.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Mapping> entry = it.next();
+            if (entry.getKey().startsWith(dir)) {
+                mappedBytes -= entry.getValue().buffer.capacity();
+                it.remove();
+            }
+        }
+    }
+
+    private ByteBuffer mapping(Path file, long size, FileTime modified) throws IOException {
+        synchronized (this) {
+            Mapping cached = mappings.get(file);
+            if (cached != null && cached.size == size && cached.modified.equals(modified)) {
+                return cached.buffer.duplicate();
+            }
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        synchronized (this) {
+            Mapping previous = mappings.put(file, new Mapping(buffer, size, modified));
+            if (previous != null) {
+                mappedBytes -= previous.buffer.capacity();
+            }
+            mappedBytes += buffer.capacity();
+            evict();
+        }
+        return buffer.duplicate();
+    }
+
+    private void evict() {
+        Iterator<Mapping> it = mappings.values().iterator();
+        while (it.hasNext() && (mappings.size() > maxEntries || mappedBytes > maxMappedBytes)) {
+            mappedBytes -= it.next().buffer.capacity();
+            it.remove();
+        }
+    }
+
+    private static ByteBuffer readRegion(Path file, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // keep reading until the range is filled or the file ends
+            }
+        }
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    private record Mapping(MappedByteBuffer buffer, long size, FileTime modified) {
+    }
+}
@@ -0,0 +1,185 @@
+package ops;
+
+import storageSpec.exception.StorageException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for storage metadata. Callers report changes with {@link #changed()} after
+ * updating the in-memory model; the flusher coalesces them and runs the writer according to
+ * its {@link FlushPolicy}.
+ * <p>
+ * Changes are numbered. A flush records the latest number before it runs the writer, which
+ * then writes the current state, so any number of changes collapse into one write. A change
+ * made while a flush is running is written by the next flush.
+ * <p>
+ * {@link #flush()} is a barrier: it returns once every change reported before the call is
+ * written. Background flush failures are kept in {@link #getLastFailure()} and retried on
+ * the next tick; a barrier or a synchronous flush throws them.
+ * <p>
+ * Once {@linkplain #close() closed}, the flusher has no background thread left, so every
+ * later change is written synchronously, whatever the policy.
+ */
+public final class MetadataFlusher implements AutoCloseable {
+
+    private final Runnable writer;
+    private final FlushPolicy policy;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LongAdder flushes = new LongAdder();
+    private volatile long flushed;
+    private volatile boolean closed;
+    private volatile StorageException lastFailure;
+
+    /**
+     * Creates a flusher and, unless the policy is {@link FlushPolicy.Mode#SYNC}, starts its
+     * daemon thread.
+     *
+     * @param name   thread name
+     * @param writer writes the current metadata state; throws {@link StorageException} on failure
+     * @param policy when to flush
+     */
+    public MetadataFlusher(String name, Runnable writer, FlushPolicy policy) {
+        this.writer = writer;
+        this.policy = policy;
+        if (policy.getMode() == FlushPolicy.Mode.SYNC) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = policy.getInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushInBackground, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reports one change to the metadata. Under {@link FlushPolicy.Mode#SYNC}, or after
+     * {@link #close()}, the change is written before this returns.
+     *
+     * @throws StorageException if a synchronous flush fails
+     */
+    public void changed() {
+        long change = changes.incrementAndGet();
+        if (closed) {
+            flushUpTo(change);
+            return;
+        }
+        switch (policy.getMode()) {
+            case SYNC -> flushUpTo(change);
+            case CHANGE_COUNT -> {
+                if (change - flushed >= policy.getChangeCount() && flushQueued.compareAndSet(false, true)) {
+                    try {
+                        scheduler.execute(() -> {
+                            flushQueued.set(false);
+                            flushInBackground();
+                        });
+                    } catch (RejectedExecutionException e) {
+                        flushQueued.set(false);
+                        flushUpTo(change); // closed concurrently
+                    }
+                }
+            }
+            case INTERVAL -> {
+            }
+        }
+    }
+
+    /**
+     * Waits until every change reported before this call is written, flushing on the
+     * calling thread if needed.
+     *
+     * @throws StorageException if the flush fails
+     */
+    public void flush() {
+        flushUpTo(changes.get());
+    }
+
+    /**
+     * Returns the number of reported changes not yet written.
+     *
+     * @return pending changes
+     */
+    public long pendingChanges() {
+        return changes.get() - flushed;
+    }
+
+    /**
+     * Returns the number of flushes that ran the writer.
+     *
+     * @return flushes
+     */
+    public long flushes() {
+        return flushes.sum();
+    }
+
+    /**
+     * Returns the failure of the last background flush, or {@code null} if it succeeded.
+     *
+     * @return last background failure
+     */
+    public StorageException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops the background thread and flushes what is pending. Changes reported afterwards
+     * are written synchronously.
+     *
+     * @throws StorageException if the final flush fails
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private void flushUpTo(long change) {
+        if (flushed >= change) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (flushed >= change) {
+                return;
+            }
+            long covered = changes.get();
+            writer.run();
+            flushed = covered;
+            flushes.increment();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes on the scheduler thread. Every failure is kept in {@link #lastFailure} rather
+     * than thrown, since an exception escaping a periodic task cancels all its later runs.
+     */
+    private void flushInBackground() {
+        try {
+            flush();
+            lastFailure = null;
+        } catch (StorageException e) {
+            lastFailure = e;
+        } catch (RuntimeException e) {
+            lastFailure = new StorageException("Failed to write metadata", e);
+        }
+    }
+}
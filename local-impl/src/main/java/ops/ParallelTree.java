@@ -0,0 +1,330 @@
+package ops;
+
+import index.ExtensionIndex;
+import storageSpec.exception.StorageException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work-stealing recursive copy and delete on shared {@link ForkJoinPool}s.
+ * <p>
+ * Operations with the same {@linkplain TreeOptions#getParallelism() parallelism} share one
+ * pool, so concurrent copies and deletes compete for its workers instead of each starting
+ * their own; parallelism is capped at {@value #MAX_PARALLELISM_PER_CPU} workers per
+ * processor. Workers are daemon threads that retire after a minute without work.
+ * <p>
+ * Every directory is one task; its files are split into batches of {@value #FILE_BATCH}
+ * that idle workers can steal, so both deep and very wide trees spread across the pool.
+ * Bookkeeping is done per entry as it is processed — a quota reservation per copied file,
+ * a child slot per new entry, an index update per created or deleted entry — so the
+ * counters stay exact even when the traversal fails or is cancelled halfway.
+ * <p>
+ * Symbolic links are never followed: a link is copied as a link and deleted as one.
+ * <p>
+ * The first failure stops the remaining tasks and is rethrown to the caller as is.
+ */
+final class ParallelTree {
+
+    private static final int FILE_BATCH = 64;
+    private static final int MAX_PARALLELISM_PER_CPU = 4;
+    private static final int MAX_PARALLELISM = MAX_PARALLELISM_PER_CPU * Runtime.getRuntime().availableProcessors();
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final LocalStorageOps ops;
+    private final LocalStorageContext context;
+    private final TreeOptions options;
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile StorageException failure;
+
+    private ParallelTree(LocalStorageOps ops, TreeOptions options) {
+        if (options.getParallelism() < 1) {
+            throw new StorageException("Parallelism must be positive: " + options.getParallelism());
+        }
+        this.ops = ops;
+        this.context = ops.getContext();
+        this.options = options;
+    }
+
+    /**
+     * Copies the directory {@code source} to {@code target}, merging into {@code target} if it
+     * already exists. Existing files are overwritten. The child slot of {@code target} itself
+     * in its parent is the caller's responsibility.
+     *
+     * @return number of bytes copied
+     * @throws StorageException on the first failure or on cancellation
+     */
+    static long copy(LocalStorageOps ops, Path source, Path target, TreeOptions options) {
+        ParallelTree tree = new ParallelTree(ops, options);
+        tree.run(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                tree.checkContinue();
+                boolean existed = Files.exists(target);
+                tree.io(() -> Files.createDirectories(target), target);
+                if (!existed) {
+                    tree.context.created(target);
+                }
+                tree.new CopyDir(source, target).compute();
+            }
+        });
+        return tree.bytes.get();
+    }
+
+    /**
+     * Deletes the directory {@code target} and everything below it. Indexes are updated entry
+     * by entry; the caller finishes with {@link LocalStorageContext#removedTree} and releases
+     * the child slot of {@code target} in its parent.
+     *
+     * @return number of bytes freed
+     * @throws StorageException on the first failure or on cancellation
+     */
+    static long delete(LocalStorageOps ops, Path target, TreeOptions options) {
+        ParallelTree tree = new ParallelTree(ops, options);
+        tree.run(tree.new DeleteDir(target));
+        return tree.bytes.get();
+    }
+
+    // ── Tasks ────────────────────────────────────────────────────────────────
+
+    private final class CopyDir extends RecursiveAction {
+
+        private final Path source;
+        private final Path target;
+
+        CopyDir(Path source, Path target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+            for (Path entry : list(source)) {
+                checkContinue();
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    Path dir = target.resolve(entry.getFileName().toString());
+                    createDir(dir);
+                    tasks.add(new CopyDir(entry, dir));
+                } else {
+                    files.add(entry);
+                    if (files.size() == FILE_BATCH) {
+                        tasks.add(new CopyFiles(files, target));
+                        files = new ArrayList<>();
+                    }
+                }
+            }
+            if (!files.isEmpty()) {
+                tasks.add(new CopyFiles(files, target));
+            }
+            invokeAll(tasks);
+            report();
+        }
+
+        private void createDir(Path dir) {
+            boolean existed = Files.isDirectory(dir);
+            try (ChildCountTracker.Slots slot = context.getChildCounts().acquire(target, existed ? 0 : 1)) {
+                io(() -> Files.createDirectories(dir), dir);
+                slot.commit();
+            } catch (StorageException e) {
+                throw fail(e);
+            }
+            if (!existed) {
+                context.created(dir);
+                entries.incrementAndGet();
+            }
+        }
+    }
+
+    private final class CopyFiles extends RecursiveAction {
+
+        private final List<Path> files;
+        private final Path targetDir;
+
+        CopyFiles(List<Path> files, Path targetDir) {
+            this.files = files;
+            this.targetDir = targetDir;
+        }
+
+        @Override
+        protected void compute() {
+            for (Path file : files) {
+                checkContinue();
+                try {
+                    copyFile(file, targetDir.resolve(file.getFileName().toString()));
+                } catch (StorageException e) {
+                    throw fail(e);
+                }
+            }
+            report();
+        }
+
+        private void copyFile(Path source, Path target) {
+            ops.checkExtension(ExtensionIndex.extensionOf(source));
+            context.mappedFiles.invalidate(target);
+            boolean existed = Files.exists(target, LinkOption.NOFOLLOW_LINKS);
+            long previousSize = existed ? QuotaTracker.sizeOf(target) : 0;
+            long copied;
+            try (ChildCountTracker.Slots slot = context.getChildCounts().acquire(targetDir, existed ? 0 : 1);
+                 QuotaTracker.Reservation reservation = context.getQuota()
+                         .reserve(Math.max(0, QuotaTracker.sizeOf(source) - previousSize))) {
+                copied = Files.isSymbolicLink(source)
+                        ? FileTransfer.copyLink(source, target)
+                        : FileTransfer.copy(source, target, ops.getTransferMode());
+                reservation.commit(copied);
+                context.getQuota().release(previousSize);
+                slot.commit();
+            }
+            if (!existed) {
+                context.created(target);
+            }
+            entries.incrementAndGet();
+            bytes.addAndGet(copied);
+        }
+    }
+
+    private final class DeleteDir extends RecursiveAction {
+
+        private final Path dir;
+
+        DeleteDir(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+            for (Path entry : list(dir)) {
+                checkContinue();
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    tasks.add(new DeleteDir(entry));
+                } else {
+                    files.add(entry);
+                    if (files.size() == FILE_BATCH) {
+                        tasks.add(new DeleteFiles(files));
+                        files = new ArrayList<>();
+                    }
+                }
+            }
+            if (!files.isEmpty()) {
+                tasks.add(new DeleteFiles(files));
+            }
+            invokeAll(tasks);
+            checkContinue();
+            context.removing(dir);
+            io(() -> Files.delete(dir), dir);
+            entries.incrementAndGet();
+            report();
+        }
+    }
+
+    private final class DeleteFiles extends RecursiveAction {
+
+        private final List<Path> files;
+
+        DeleteFiles(List<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            for (Path file : files) {
+                checkContinue();
+                io(() -> {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    long size = attrs.isRegularFile() ? attrs.size() : 0;
+                    context.removing(file);
+                    try (QuotaTracker.Reservation ignored = context.getQuota().reserve(0)) {
+                        Files.delete(file);
+                        context.getQuota().release(size);
+                    }
+                    entries.incrementAndGet();
+                    bytes.addAndGet(size);
+                }, file);
+            }
+            report();
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private void run(RecursiveAction root) {
+        ForkJoinPool pool = POOLS.computeIfAbsent(Math.min(options.getParallelism(), MAX_PARALLELISM),
+                ForkJoinPool::new);
+        try {
+            pool.invoke(root);
+        } catch (RuntimeException e) {
+            // ForkJoin may rethrow a copy of the task's exception; prefer the original
+            throw failure != null ? failure : e;
+        }
+    }
+
+    private void checkContinue() {
+        StorageException failed = failure;
+        if (failed != null) {
+            throw failed;
+        }
+        if (options.isCancelled()) {
+            throw fail(new StorageException("Operation cancelled"));
+        }
+    }
+
+    private StorageException fail(StorageException e) {
+        if (failure == null) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        return failure;
+    }
+
+    private void io(IoAction action, Path path) {
+        try {
+            action.run();
+        } catch (NoSuchFileException e) {
+            throw fail(new StorageException("No such file or directory: " + e.getFile(), e));
+        } catch (IOException e) {
+            throw fail(new StorageException("I/O failure on '" + path + "'", e));
+        }
+    }
+
+    private List<Path> list(Path dir) {
+        List<Path> result = new ArrayList<>();
+        io(() -> {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    result.add(entry);
+                }
+            }
+        }, dir);
+        return result;
+    }
+
+    private void report() {
+        TreeProgressListener listener = options.getProgressListener();
+        if (listener != null) {
+            listener.onProgress(entries.get(), bytes.get());
+        }
+    }
+}
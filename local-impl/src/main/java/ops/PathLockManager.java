@@ -0,0 +1,191 @@
+package ops;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical, path-striped read/write locks for one storage.
+ * <p>
+ * Locking a path exclusively also takes shared locks on all of its ancestors up to the root;
+ * locking it shared takes shared locks on the path and its ancestors. An exclusive lock on
+ * a directory therefore excludes every operation inside it, while operations on disjoint
+ * subtrees only share ancestors and run concurrently.
+ * <p>
+ * Paths are mapped onto a fixed number of {@link ReentrantReadWriteLock} stripes. All stripes
+ * an operation needs are collected first, deduplicated (exclusive wins) and acquired in
+ * ascending stripe order, so no two operations can wait on each other in a cycle. Stripe
+ * collisions can only add false conflicts, never lose a real one.
+ * <p>
+ * Wait times are recorded: uncontended acquisitions take a {@code tryLock} fast path and
+ * are only counted, contended ones are timed.
+ */
+public final class PathLockManager {
+
+    private static final int STRIPES = 1024;
+
+    private final Path root;
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    PathLockManager(Path root) {
+        this.root = root;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    // ── Locking ──────────────────────────────────────────────────────────────
+
+    /**
+     * Locks {@code path} exclusively and its ancestors shared.
+     *
+     * @param path path to lock
+     * @return the held locks; close to release
+     */
+    public Locks exclusive(Path path) {
+        return lock(List.of(), List.of(path));
+    }
+
+    /**
+     * Locks {@code path} and its ancestors shared.
+     *
+     * @param path path to lock
+     * @return the held locks; close to release
+     */
+    public Locks shared(Path path) {
+        return lock(List.of(path), List.of());
+    }
+
+    /**
+     * Locks several paths at once in a deadlock-free order.
+     *
+     * @param shared    paths to lock shared
+     * @param exclusive paths to lock exclusively
+     * @return the held locks; close to release
+     */
+    public Locks lock(Collection<Path> shared, Collection<Path> exclusive) {
+        TreeMap<Integer, Boolean> wanted = new TreeMap<>();
+        for (Path path : shared) {
+            want(wanted, path, false);
+        }
+        for (Path path : exclusive) {
+            want(wanted, path, true);
+        }
+        Lock[] held = new Lock[wanted.size()];
+        int count = 0;
+        try {
+            for (Map.Entry<Integer, Boolean> entry : wanted.entrySet()) {
+                ReentrantReadWriteLock stripe = stripes[entry.getKey()];
+                Lock lock = entry.getValue() ? stripe.writeLock() : stripe.readLock();
+                acquire(lock);
+                held[count++] = lock;
+            }
+        } catch (RuntimeException | Error e) {
+            release(held, count);
+            throw e;
+        }
+        return new Locks(held);
+    }
+
+    // ── Metrics ──────────────────────────────────────────────────────────────
+
+    /**
+     * Returns the number of stripe locks acquired so far.
+     *
+     * @return acquisitions
+     */
+    public long acquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Returns the number of stripe acquisitions that had to wait.
+     *
+     * @return contended acquisitions
+     */
+    public long contendedAcquisitions() {
+        return contended.sum();
+    }
+
+    /**
+     * Returns the total time spent waiting for stripe locks.
+     *
+     * @return wait time in nanoseconds
+     */
+    public long totalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * Returns the longest single wait for a stripe lock.
+     *
+     * @return wait time in nanoseconds
+     */
+    public long maxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private void want(TreeMap<Integer, Boolean> wanted, Path path, boolean exclusive) {
+        wanted.merge(stripe(path), exclusive, Boolean::logicalOr);
+        for (Path ancestor = path.getParent(); ancestor != null && ancestor.startsWith(root); ancestor = ancestor.getParent()) {
+            wanted.merge(stripe(ancestor), false, Boolean::logicalOr);
+        }
+    }
+
+    private static int stripe(Path path) {
+        int h = path.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void acquire(Lock lock) {
+        acquisitions.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        long waited = System.nanoTime() - start;
+        contended.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private static void release(Lock[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    /**
+     * Stripe locks held by one operation. Must be closed by the thread that acquired them.
+     */
+    public static final class Locks implements AutoCloseable {
+
+        private final Lock[] held;
+        private boolean released;
+
+        private Locks(Lock[] held) {
+            this.held = held;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(held, held.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package ops;
+
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.exception.StorageFullException;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running used-bytes counter for one storage, checked against {@link Storage#getStorageSize()}.
+ * <p>
+ * Committed usage is a {@link LongAdder}, so commits and releases from many writers do not
+ * contend. Admission goes through a separate reserved-bytes counter updated by CAS: a writer
+ * {@linkplain #reserve reserves} its expected size up front, then either commits the bytes
+ * actually written or rolls the reservation back. Concurrent uploads therefore cannot
+ * overshoot the quota. When the storage is unlimited the CAS is skipped entirely.
+ * <p>
+ * The counter is mirrored into {@link Storage#setUsedBytes(long)} so it is persisted with the
+ * rest of the storage metadata, and starts from the persisted value. That value may be stale
+ * — a storage may have been created over an existing tree — so
+ * {@linkplain #startReconciliation starting the reconciliation} walks the tree once in the
+ * background, off the request path, and later passes correct any drift (e.g. files changed
+ * behind the back-end's back). The passes of all trackers share one daemon thread.
+ * <p>
+ * A walk only counts what is on disk, so it is applied only if no write was in flight while
+ * it ran: every reservation, commit, rollback and release advances a generation counter, and
+ * a pass that started with open reservations, or saw the generation move, is discarded and
+ * retried by the next one. Writers therefore do all their accounting — including the
+ * {@linkplain #release release} of overwritten or deleted bytes — before closing their
+ * reservation; a delete holds a zero-byte reservation for the purpose.
+ * <p>
+ * A counter {@linkplain #restore restored} from a valid index snapshot counts as reconciled,
+ * so its first pass waits for the regular interval.
+ */
+public final class QuotaTracker {
+
+    private final Storage storage;
+    private final Path root;
+    private final Path excluded;
+    /**
+     * Told about every change to the accounting, e.g. to drop a snapshot of it.
+     */
+    private final Runnable listener;
+    private final LongAdder used = new LongAdder();
+    private final AtomicLong reserved = new AtomicLong();
+    /**
+     * Reservations not yet closed.
+     */
+    private final AtomicInteger open = new AtomicInteger();
+    /**
+     * Advanced by every change to the accounting; see the class comment.
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean reconciled;
+    /**
+     * Guards {@link #reconciliation}; separate from the monitor a running pass holds.
+     */
+    private final Object schedule = new Object();
+    private ScheduledFuture<?> reconciliation;
+
+    QuotaTracker(Storage storage, Path root, Path excluded, Runnable listener) {
+        this.storage = storage;
+        this.root = root;
+        this.excluded = excluded;
+        this.listener = listener;
+        this.used.add(storage.getUsedBytes());
+    }
+
+    /**
+     * Returns the bytes currently committed.
+     *
+     * @return used bytes
+     */
+    public long usedBytes() {
+        return used.sum();
+    }
+
+    /**
+     * Returns whether a reconciliation pass has been applied since the tracker was created.
+     *
+     * @return true once the counter reflects a walk of the tree
+     */
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Returns the bytes currently reserved by in-flight writes.
+     *
+     * @return reserved bytes
+     */
+    public long reservedBytes() {
+        return reserved.get();
+    }
+
+    /**
+     * Reserves {@code bytes} against the quota. A zero-byte reservation always succeeds,
+     * even when the storage is full.
+     *
+     * @param bytes expected number of bytes to be written
+     * @return the reservation; commit it once the write succeeded, close it in any case
+     * @throws StorageFullException if the reservation does not fit in the remaining space
+     */
+    public Reservation reserve(long bytes) {
+        listener.run();
+        long limit = storage.getStorageSize();
+        if (limit <= 0) {
+            reserved.addAndGet(bytes);
+            return new Reservation(bytes);
+        }
+        while (true) {
+            long current = reserved.get();
+            long available = limit - used.sum() - current;
+            if (bytes > 0 && bytes > available) {
+                throw new StorageFullException(bytes, Math.max(available, 0));
+            }
+            if (reserved.compareAndSet(current, current + bytes)) {
+                return new Reservation(bytes);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code bytes} to the pool, e.g. after a delete or an overwrite.
+     *
+     * @param bytes number of bytes freed
+     */
+    public void release(long bytes) {
+        if (bytes != 0) {
+            used.add(-bytes);
+            storage.setUsedBytes(used.sum());
+            changed();
+        }
+    }
+
+    /**
+     * Recomputes the real usage by walking the storage, leaving out the metadata directory,
+     * and corrects the counter — unless writes were in flight during the walk, in which case
+     * the pass is discarded (see the class comment).
+     *
+     * @return the used-bytes value after the pass
+     * @throws StorageException if the walk fails
+     */
+    public synchronized long reconcile() {
+        long start = generation.get();
+        if (open.get() > 0) {
+            return used.sum();
+        }
+        long committed = used.sum();
+        long actual = sizeOf(root, excluded);
+        if (generation.get() != start) {
+            return used.sum();
+        }
+        if (actual != committed) {
+            used.add(actual - committed);
+            storage.setUsedBytes(used.sum());
+            changed();
+        }
+        reconciled = true;
+        return used.sum();
+    }
+
+    /**
+     * Sets the counter to a value known to be current, such as one from a valid index
+     * snapshot, and marks it reconciled. Must be called before the first write.
+     *
+     * @param bytes used bytes
+     */
+    synchronized void restore(long bytes) {
+        used.add(bytes - used.sum());
+        storage.setUsedBytes(bytes);
+        reconciled = true;
+    }
+
+    /**
+     * Schedules a {@linkplain #reconcile() reconciliation} on the shared reconciler thread,
+     * replacing any schedule of this tracker: a first pass right away, unless the counter is
+     * already reconciled, then one every {@code interval}.
+     *
+     * @param interval time between reconciliation passes
+     */
+    public void startReconciliation(Duration interval) {
+        long millis = interval.toMillis();
+        ScheduledFuture<?> scheduled = Reconciler.THREAD.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (StorageException ignored) {
+                // transient (e.g. a file vanished mid-walk) — next pass retries
+            }
+        }, reconciled ? millis : 0, millis, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous;
+        synchronized (schedule) {
+            previous = reconciliation;
+            reconciliation = scheduled;
+        }
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the periodic reconciliation, if scheduled.
+     */
+    public void stopReconciliation() {
+        ScheduledFuture<?> previous;
+        synchronized (schedule) {
+            previous = reconciliation;
+            reconciliation = null;
+        }
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void changed() {
+        generation.incrementAndGet();
+        listener.run();
+    }
+
+    /**
+     * Returns the total size in bytes of the regular files at or below {@code path}.
+     *
+     * @throws StorageException if the walk fails
+     */
+    static long sizeOf(Path path) {
+        return sizeOf(path, null);
+    }
+
+    private static long sizeOf(Path path, Path excluded) {
+        long[] total = {0};
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.equals(excluded) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        total[0] += attrs.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to compute size of '" + path + "'", e);
+        }
+        return total[0];
+    }
+
+    /**
+     * Daemon thread shared by the periodic reconciliation of every tracker; created on
+     * first use.
+     */
+    private static final class Reconciler {
+
+        static final ScheduledThreadPoolExecutor THREAD = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "quota-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            THREAD.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    /**
+     * Bytes set aside for one in-flight write. Closing an uncommitted reservation rolls it back.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private long bytes;
+        private boolean done;
+        private boolean closed;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+            open.incrementAndGet();
+            generation.incrementAndGet();
+        }
+
+        /**
+         * Grows the reservation by {@code more} bytes, e.g. for a streamed write whose
+         * final size is not known up front.
+         *
+         * @param more additional bytes
+         * @throws StorageFullException if the extra bytes do not fit
+         */
+        public void extend(long more) {
+            reserve(more).transferTo(this);
+        }
+
+        /**
+         * Converts the reservation into committed usage.
+         *
+         * @param actualBytes bytes actually written (may differ from the reserved amount)
+         */
+        public void commit(long actualBytes) {
+            if (done) {
+                return;
+            }
+            done = true;
+            used.add(actualBytes);
+            reserved.addAndGet(-bytes);
+            storage.setUsedBytes(used.sum());
+            changed();
+        }
+
+        /**
+         * Rolls the reservation back unless it was committed, and ends the write: accounting
+         * for it, such as releasing overwritten bytes, must be done before.
+         */
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                reserved.addAndGet(-bytes);
+            }
+            if (!closed) {
+                closed = true;
+                open.decrementAndGet();
+                changed();
+            }
+        }
+
+        private void transferTo(Reservation target) {
+            target.bytes += bytes;
+            done = true;
+            close();
+        }
+    }
+}
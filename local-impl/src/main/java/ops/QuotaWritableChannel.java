@@ -0,0 +1,53 @@
+package ops;
+
+import storageSpec.exception.StorageFullException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Write channel returned by {@link LocalStorageOps#openWrite}: extends its quota reservation
+ * before every write and commits the bytes actually written on close.
+ */
+final class QuotaWritableChannel implements WritableByteChannel {
+
+    private final FileChannel delegate;
+    private final QuotaTracker.Reservation reservation;
+    private long written;
+
+    QuotaWritableChannel(FileChannel delegate, QuotaTracker.Reservation reservation) {
+        this.delegate = delegate;
+        this.reservation = reservation;
+    }
+
+    /**
+     * @throws StorageFullException if the bytes to write do not fit in the remaining space
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        reservation.extend(src.remaining());
+        int n = delegate.write(src);
+        written += n;
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!delegate.isOpen()) {
+            return;
+        }
+        try {
+            delegate.close();
+        } finally {
+            reservation.commit(written);
+            reservation.close();
+        }
+    }
+}
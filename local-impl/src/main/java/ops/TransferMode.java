@@ -0,0 +1,19 @@
+package ops;
+
+/**
+ * Strategy used by the local back-end when moving file contents between channels.
+ */
+public enum TransferMode {
+
+    /**
+     * Fixed-size chunks — predictable, low per-call overhead.
+     */
+    DEFAULT,
+
+    /**
+     * Chunk size adapts to observed throughput, growing while each chunk moves
+     * data faster than the previous one and shrinking when it slows down.
+     * Intended for multi-gigabyte files.
+     */
+    THROUGHPUT
+}
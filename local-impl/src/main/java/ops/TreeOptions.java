@@ -0,0 +1,41 @@
+package ops;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Tuning and control for a recursive copy or delete in {@link LocalStorageOps}.
+ * <p>
+ * An instance may be shared with another thread to {@linkplain #cancel() cancel} the running
+ * operation. Cancellation is observed before each entry; entries already processed stay
+ * copied or deleted, with quota and indexes updated accordingly.
+ */
+@Getter
+@Setter
+public class TreeOptions {
+
+    /**
+     * Number of worker threads traversing the tree, taken from a pool shared with other
+     * operations of the same parallelism and capped at four per processor. Defaults to the
+     * number of processors.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Optional progress callback, or {@code null}.
+     */
+    private TreeProgressListener progressListener;
+
+    /**
+     * Whether the operation has been asked to stop.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Asks the operation using these options to stop as soon as possible. It then fails
+     * with a {@link storageSpec.exception.StorageException}.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+}
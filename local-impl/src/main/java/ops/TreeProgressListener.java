@@ -0,0 +1,19 @@
+package ops;
+
+/**
+ * Receives progress of a recursive copy or delete.
+ * <p>
+ * Called from the traversal's worker threads, possibly concurrently; implementations must
+ * be thread-safe and should return quickly.
+ */
+@FunctionalInterface
+public interface TreeProgressListener {
+
+    /**
+     * Reports the totals processed so far.
+     *
+     * @param entries files and directories copied or deleted so far
+     * @param bytes   bytes of regular files copied or freed so far
+     */
+    void onProgress(long entries, long bytes);
+}
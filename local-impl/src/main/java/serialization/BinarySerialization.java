@@ -0,0 +1,421 @@
+package serialization;
+
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.ISerialization;
+import storageSpec.serialization.StorageData;
+import storageSpec.serialization.UserData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compact binary implementation of {@link ISerialization}.
+ * <p>
+ * Every file starts with an 8-byte header: the magic {@code "SSDK"}, a format version and a
+ * file kind ({@link #USERS} or {@link #STORAGE}). The header is followed by records, each
+ * prefixed with its length as an {@code int}, so readers can skip records they do not need
+ * and detect truncation. Strings are length-prefixed UTF-8; privileges are stored by
+ * ordinal, which the format version pins.
+ * <p>
+ * A users file is a sequence of user records, so {@code saveUserData(..., true)} appends a
+ * single record without rewriting the file. A storage file holds exactly one record.
+ * Overwrites go through a temporary file and an atomic move.
+ */
+public class BinarySerialization implements ISerialization {
+
+    /**
+     * Magic number at the start of every binary metadata file ({@code "SSDK"}).
+     */
+    public static final int MAGIC = 0x5353444B;
+
+    /**
+     * Current format version.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * File kind of a users file.
+     */
+    public static final byte USERS = 1;
+
+    /**
+     * File kind of a storage file.
+     */
+    public static final byte STORAGE = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final Privilege[] PRIVILEGES = Privilege.values();
+
+    /**
+     * Tells whether {@code file} starts with the binary metadata magic.
+     *
+     * @param file file to probe
+     * @return {@code true} if the file exists and is in the binary format
+     */
+    public static boolean isBinary(Path file) {
+        try {
+            ByteBuffer header = header(file);
+            return header.remaining() >= 4 && header.getInt() == MAGIC;
+        } catch (StorageException e) {
+            return false;
+        }
+    }
+
+    // ── Users ────────────────────────────────────────────────────────────────
+
+    @Override
+    public void saveUserData(String filePath, String userName, String password, Map<String, Privilege> storagesAndPrivileges, boolean append) {
+        Path file = Path.of(filePath);
+        UserData user = new UserData();
+        user.setUserName(userName);
+        user.setPassword(password);
+        user.setStoragesAndPrivileges(storagesAndPrivileges);
+        if (append && Files.exists(file)) {
+            expectKind(file, readHeader(file, header(file)), USERS);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+                writeUser(out, user);
+            } catch (IOException e) {
+                throw new StorageException("Failed to write '" + file + "'", e);
+            }
+        } else {
+            writeUsers(file, List.of(user));
+        }
+    }
+
+    @Override
+    public List<UserData> readSavedUsers(String filePath) {
+        Path file = Path.of(filePath);
+        ByteBuffer buffer = read(file);
+        if (buffer == null) {
+            return List.of();
+        }
+        expectKind(file, readHeader(file, buffer), USERS);
+        List<UserData> users = new ArrayList<>();
+        try {
+            while (buffer.hasRemaining()) {
+                users.add(readUser(record(buffer)));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(file, e);
+        }
+        return users;
+    }
+
+    /**
+     * Streams users record by record from a buffered stream; each record is read by its
+     * length prefix and decoded only when the stream advances.
+     */
+    @Override
+    public Stream<UserData> streamSavedUsers(String filePath, String storageId) {
+        Path file = Path.of(filePath);
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+        try {
+            expectKind(file, readHeader(file, ByteBuffer.wrap(in.readNBytes(HEADER_SIZE))), USERS);
+        } catch (IOException | RuntimeException e) {
+            close(in, file);
+            throw e instanceof StorageException se ? se : new StorageException("Failed to read '" + file + "'", e);
+        }
+        Spliterator<UserData> users = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super UserData> action) {
+                try {
+                    byte[] prefix;
+                    while ((prefix = in.readNBytes(4)).length > 0) {
+                        int length = prefix.length == 4 ? ByteBuffer.wrap(prefix).getInt() : -1;
+                        byte[] record = length < 0 ? new byte[0] : in.readNBytes(length);
+                        if (record.length != length) {
+                            throw new IllegalArgumentException("Truncated record");
+                        }
+                        UserData user = readUser(ByteBuffer.wrap(record));
+                        if (storageId == null || user.hasStorage(storageId)) {
+                            action.accept(user);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new StorageException("Failed to read '" + file + "'", e);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    throw corrupt(file, e);
+                }
+            }
+        };
+        return StreamSupport.stream(users, false).onClose(() -> close(in, file));
+    }
+
+    @Override
+    public void saveUsers(String filePath, Collection<UserData> users) {
+        writeUsers(Path.of(filePath), users);
+    }
+
+    // ── Storage ──────────────────────────────────────────────────────────────
+
+    @Override
+    public void saveStorageData(String filePath, Storage storage) {
+        StorageData data = MetadataFiles.toData(storage);
+        MetadataFiles.replace(Path.of(filePath), raw -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw));
+            writeHeader(out, STORAGE);
+            writeStorage(out, data);
+            out.flush();
+        });
+    }
+
+    @Override
+    public StorageData readStorageData(String filePath) {
+        Path file = Path.of(filePath);
+        ByteBuffer buffer = read(file);
+        if (buffer == null) {
+            return null;
+        }
+        expectKind(file, readHeader(file, buffer), STORAGE);
+        try {
+            return readStorage(record(buffer));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(file, e);
+        }
+    }
+
+    // ── Encoding ─────────────────────────────────────────────────────────────
+
+    private interface RecordWriter {
+        void write(DataOutputStream record) throws IOException;
+    }
+
+    /**
+     * Growable buffer whose backing array can be written out without a copy.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(count);
+            out.write(buf, 0, count);
+        }
+    }
+
+    private void writeUsers(Path file, Collection<UserData> users) {
+        MetadataFiles.replace(file, raw -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw));
+            writeHeader(out, USERS);
+            for (UserData user : users) {
+                writeUser(out, user);
+            }
+            out.flush();
+        });
+    }
+
+    private static void writeHeader(DataOutputStream out, byte kind) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(kind);
+        out.writeByte(0);
+    }
+
+    static void writeStorage(DataOutputStream out, StorageData data) throws IOException {
+        writeRecord(out, record -> {
+            writeString(record, data.getStorageName());
+            writeString(record, data.getStorageID());
+            writeString(record, data.getRootLocation());
+            record.writeLong(data.getStorageSize());
+            record.writeLong(data.getUsedBytes());
+            Collection<String> extensions = data.getForbiddenExtensions();
+            record.writeInt(extensions.size());
+            for (String extension : extensions) {
+                writeString(record, extension);
+            }
+            Map<String, Integer> limits = data.getDirsMaxChildrenCount();
+            record.writeInt(limits.size());
+            for (Map.Entry<String, Integer> entry : limits.entrySet()) {
+                writeString(record, entry.getKey());
+                record.writeInt(entry.getValue());
+            }
+        });
+    }
+
+    static void writeUser(DataOutputStream out, UserData user) throws IOException {
+        writeRecord(out, record -> {
+            writeString(record, user.getUserName());
+            writeString(record, user.getPassword());
+            Map<String, Privilege> privileges = user.getStoragesAndPrivileges();
+            if (privileges == null) {
+                privileges = Map.of();
+            }
+            record.writeInt(privileges.size());
+            for (Map.Entry<String, Privilege> entry : privileges.entrySet()) {
+                writeString(record, entry.getKey());
+                record.writeByte(entry.getValue().ordinal());
+            }
+        });
+    }
+
+    private static void writeRecord(DataOutputStream out, RecordWriter writer) throws IOException {
+        RecordBuffer buffer = new RecordBuffer();
+        writer.write(new DataOutputStream(buffer));
+        buffer.writeTo(out);
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string; {@code null} is encoded as length {@code -1}.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // ── Decoding ─────────────────────────────────────────────────────────────
+
+    private static ByteBuffer read(Path file) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+    }
+
+    private static ByteBuffer header(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return ByteBuffer.wrap(in.readNBytes(HEADER_SIZE));
+        } catch (IOException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+    }
+
+    private static byte readHeader(Path file, ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new StorageException("Not a binary metadata file: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new StorageException("Unsupported metadata format version " + version + " in '" + file + "'");
+        }
+        byte kind = buffer.get();
+        buffer.get();
+        return kind;
+    }
+
+    private static void expectKind(Path file, byte kind, byte expected) {
+        if (kind != expected) {
+            throw new StorageException("Unexpected metadata file kind " + kind + " in '" + file + "'");
+        }
+    }
+
+    static ByteBuffer record(ByteBuffer buffer) {
+        int length = count(buffer);
+        ByteBuffer record = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return record;
+    }
+
+    static StorageData readStorage(ByteBuffer record) {
+        StorageData data = new StorageData();
+        data.setStorageName(readString(record));
+        data.setStorageID(readString(record));
+        data.setRootLocation(readString(record));
+        data.setStorageSize(record.getLong());
+        data.setUsedBytes(record.getLong());
+        int extensions = count(record);
+        List<String> forbidden = new ArrayList<>(extensions);
+        for (int i = 0; i < extensions; i++) {
+            forbidden.add(readString(record));
+        }
+        data.setForbiddenExtensions(forbidden);
+        int limits = count(record);
+        Map<String, Integer> maxChildren = new LinkedHashMap<>();
+        for (int i = 0; i < limits; i++) {
+            maxChildren.put(readString(record), record.getInt());
+        }
+        data.setDirsMaxChildrenCount(maxChildren);
+        return data;
+    }
+
+    static UserData readUser(ByteBuffer record) {
+        UserData user = new UserData();
+        user.setUserName(readString(record));
+        user.setPassword(readString(record));
+        int count = count(record);
+        Map<String, Privilege> privileges = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String storageId = readString(record);
+            int ordinal = record.get();
+            if (ordinal < 0 || ordinal >= PRIVILEGES.length) {
+                throw new IllegalArgumentException("Unknown privilege ordinal " + ordinal);
+            }
+            privileges.put(storageId, PRIVILEGES[ordinal]);
+        }
+        user.setStoragesAndPrivileges(privileges);
+        return user;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int count(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + count);
+        }
+        return count;
+    }
+
+    private static void close(InputStream in, Path file) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new StorageException("Failed to close '" + file + "'", e);
+        }
+    }
+
+    private static StorageException corrupt(Path file, RuntimeException cause) {
+        return new StorageException("Corrupt metadata file '" + file + "'", cause);
+    }
+}
@@ -0,0 +1,544 @@
+package serialization;
+
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.ISerialization;
+import storageSpec.serialization.StorageData;
+import storageSpec.serialization.UserData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Journaling {@link ISerialization}: mutations are appended to a journal next to each
+ * snapshot file ({@code <file>.journal}) instead of rewriting the snapshot.
+ * <p>
+ * User records are keyed by user name — {@code saveUserData(..., true)} and
+ * {@link #updateUsers} append one entry per changed or removed user, so a change costs
+ * O(change) I/O regardless of how many users exist. Storage metadata is small and is
+ * journaled as a whole record per save; the last one wins. Overwrites
+ * ({@code append == false}, {@link #saveUsers}) go straight to a new snapshot, after any
+ * pending entries have been folded into the old one and the journal truncated — so entries
+ * from before the overwrite can never be replayed on top of it.
+ * <p>
+ * Reads replay the snapshot, written by a delegate serializer, followed by the journal.
+ * Every entry carries a CRC-32, so a torn tail left by a crash is detected and cut off when
+ * the journal is reopened. Once the journal grows past the compaction threshold, or the
+ * compaction interval has elapsed since the last compaction, it is folded into a fresh
+ * snapshot and truncated. Replay is idempotent, so a crash between writing the snapshot and
+ * truncating the journal loses nothing.
+ * <p>
+ * Writers append under a short lock and then wait for their entries to be synced. Syncs are
+ * group-committed: one writer forces the journal to disk for every entry appended so far,
+ * and writers whose entries that force covered return without syncing again.
+ */
+public class JournaledSerialization implements ISerialization, AutoCloseable {
+
+    /**
+     * Default journal size that triggers a compaction: 1 MiB.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1L << 20;
+
+    /**
+     * Default maximum time between compactions of a non-empty journal.
+     */
+    public static final Duration DEFAULT_COMPACTION_INTERVAL = Duration.ofMinutes(10);
+
+    private static final String SUFFIX = ".journal";
+    private static final int MAGIC = 0x53534A4C;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_HEADER_SIZE = 8;
+
+    private static final byte PUT_USER = 1;
+    private static final byte REMOVE_USER = 2;
+    private static final byte PUT_STORAGE = 3;
+
+    private final ISerialization snapshots;
+    private final long compactionThreshold;
+    private final long compactionIntervalNanos;
+    private final ConcurrentHashMap<Path, Journal> journals = new ConcurrentHashMap<>();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    /**
+     * Creates a journal over {@link BinarySerialization} snapshots with the default
+     * compaction settings.
+     */
+    public JournaledSerialization() {
+        this(new BinarySerialization(), DEFAULT_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    /**
+     * Creates a journal.
+     *
+     * @param snapshots           serializer that reads and writes the snapshot files
+     * @param compactionThreshold journal size in bytes that triggers a compaction
+     * @param compactionInterval  maximum time a non-empty journal goes without compaction
+     */
+    public JournaledSerialization(ISerialization snapshots, long compactionThreshold, Duration compactionInterval) {
+        if (compactionThreshold <= HEADER_SIZE) {
+            throw new StorageException("Compaction threshold too small: " + compactionThreshold);
+        }
+        this.snapshots = snapshots;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionIntervalNanos = compactionInterval.toNanos();
+    }
+
+    // ── Users ────────────────────────────────────────────────────────────────
+
+    @Override
+    public void saveUserData(String filePath, String userName, String password, Map<String, Privilege> storagesAndPrivileges, boolean append) {
+        UserData user = new UserData();
+        user.setUserName(userName);
+        user.setPassword(password);
+        user.setStoragesAndPrivileges(storagesAndPrivileges);
+        if (append) {
+            updateUsers(filePath, List.of(user), List.of());
+        } else {
+            saveUsers(filePath, List.of(user));
+        }
+    }
+
+    @Override
+    public void saveUsers(String filePath, Collection<UserData> users) {
+        Journal journal = journal(filePath, BinarySerialization.USERS);
+        journal.lock.lock();
+        try {
+            if (journal.size > HEADER_SIZE) {
+                fold(journal);
+            }
+            snapshots.saveUsers(filePath, users);
+        } catch (IOException e) {
+            throw new StorageException("Failed to reset journal of '" + filePath + "'", e);
+        } finally {
+            journal.lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateUsers(String filePath, Collection<UserData> changed, Collection<String> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            for (UserData user : changed) {
+                entry(bytes, PUT_USER, out -> BinarySerialization.writeUser(out, user));
+            }
+            for (String userName : removed) {
+                entry(bytes, REMOVE_USER, out -> BinarySerialization.writeString(out, userName));
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to encode journal entries", e);
+        }
+        append(journal(filePath, BinarySerialization.USERS), bytes.toByteArray());
+    }
+
+    @Override
+    public List<UserData> readSavedUsers(String filePath) {
+        Journal journal = journal(filePath, BinarySerialization.USERS);
+        journal.lock.lock();
+        try {
+            return new ArrayList<>(replayUsers(journal).values());
+        } finally {
+            journal.lock.unlock();
+        }
+    }
+
+    // ── Storage ──────────────────────────────────────────────────────────────
+
+    @Override
+    public void saveStorageData(String filePath, Storage storage) {
+        StorageData data = MetadataFiles.toData(storage);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            entry(bytes, PUT_STORAGE, out -> BinarySerialization.writeStorage(out, data));
+        } catch (IOException e) {
+            throw new StorageException("Failed to encode journal entry", e);
+        }
+        append(journal(filePath, BinarySerialization.STORAGE), bytes.toByteArray());
+    }
+
+    @Override
+    public StorageData readStorageData(String filePath) {
+        Journal journal = journal(filePath, BinarySerialization.STORAGE);
+        journal.lock.lock();
+        try {
+            return replayStorage(journal);
+        } finally {
+            journal.lock.unlock();
+        }
+    }
+
+    // ── Maintenance ──────────────────────────────────────────────────────────
+
+    /**
+     * Folds the journal of {@code filePath} into a new snapshot and truncates it. Does
+     * nothing if the file has no journal entries.
+     *
+     * @param filePath snapshot file whose journal to compact
+     * @throws StorageException if the snapshot cannot be written
+     */
+    public void compact(String filePath) {
+        Journal journal = journals.get(Path.of(filePath));
+        if (journal != null) {
+            compact(journal, true);
+        }
+    }
+
+    /**
+     * Returns the number of journal syncs performed; with concurrent writers this is lower
+     * than the number of appends.
+     *
+     * @return syncs
+     */
+    public long syncs() {
+        return syncs.sum();
+    }
+
+    /**
+     * Returns the number of compactions performed.
+     *
+     * @return compactions
+     */
+    public long compactions() {
+        return compactions.sum();
+    }
+
+    /**
+     * Forces and closes all open journals, so every entry appended so far is durable even
+     * if its writer's sync has not run yet. Later calls reopen journals as needed.
+     */
+    @Override
+    public void close() {
+        for (Journal journal : journals.values()) {
+            journal.lock.lock();
+            try {
+                journal.closeChannel();
+            } catch (IOException e) {
+                throw new StorageException("Failed to close journal '" + journal.path + "'", e);
+            } finally {
+                journal.lock.unlock();
+            }
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private Journal journal(String filePath, byte kind) {
+        Journal journal = journals.computeIfAbsent(Path.of(filePath), file -> new Journal(file, kind));
+        if (journal.kind != kind) {
+            throw new StorageException("'" + filePath + "' is not a " + (kind == BinarySerialization.USERS ? "users" : "storage") + " file");
+        }
+        return journal;
+    }
+
+    /**
+     * Encodes one entry: payload length, CRC-32 of the payload, then the payload itself
+     * (operation byte and body).
+     */
+    private static void entry(ByteArrayOutputStream target, byte operation, EntryWriter body) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(operation);
+        body.write(out);
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        DataOutputStream header = new DataOutputStream(target);
+        header.writeInt(bytes.length);
+        header.writeInt((int) crc.getValue());
+        header.write(bytes);
+    }
+
+    private void append(Journal journal, byte[] entries) {
+        long sequence;
+        journal.lock.lock();
+        try {
+            sequence = journal.write(entries);
+        } catch (IOException e) {
+            throw new StorageException("Failed to append to journal '" + journal.path + "'", e);
+        } finally {
+            journal.lock.unlock();
+        }
+        try {
+            sync(journal, sequence);
+        } catch (IOException e) {
+            throw new StorageException("Failed to sync journal '" + journal.path + "'", e);
+        }
+        compact(journal, false);
+    }
+
+    /**
+     * Group commit: returns once every entry up to {@code sequence} is on disk, forcing the
+     * journal only if no other writer's force has covered it yet.
+     */
+    private void sync(Journal journal, long sequence) throws IOException {
+        if (journal.synced >= sequence) {
+            return;
+        }
+        journal.syncLock.lock();
+        try {
+            if (journal.synced >= sequence) {
+                return;
+            }
+            long covered = journal.appended;
+            FileChannel channel = journal.channel;
+            if (channel != null) {
+                channel.force(false);
+                syncs.increment();
+            }
+            journal.synced = covered;
+        } finally {
+            journal.syncLock.unlock();
+        }
+    }
+
+    private void compact(Journal journal, boolean force) {
+        if (!force && !journal.compactionDue()) {
+            return;
+        }
+        journal.lock.lock();
+        try {
+            if (journal.size <= HEADER_SIZE || (!force && !journal.compactionDue())) {
+                return;
+            }
+            fold(journal);
+        } catch (IOException e) {
+            throw new StorageException("Failed to compact journal '" + journal.path + "'", e);
+        } finally {
+            journal.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the replayed state as the new snapshot, then truncates the journal. Replay is
+     * idempotent, so a crash between the two steps loses nothing. Caller holds the lock.
+     */
+    private void fold(Journal journal) throws IOException {
+        String file = journal.file.toString();
+        if (journal.kind == BinarySerialization.USERS) {
+            snapshots.saveUsers(file, new ArrayList<>(replayUsers(journal).values()));
+        } else {
+            snapshots.saveStorageData(file, MetadataFiles.fromData(replayStorage(journal)));
+        }
+        journal.truncate();
+        compactions.increment();
+    }
+
+    private LinkedHashMap<String, UserData> replayUsers(Journal journal) {
+        LinkedHashMap<String, UserData> users = new LinkedHashMap<>();
+        for (UserData user : snapshots.readSavedUsers(journal.file.toString())) {
+            users.put(user.getUserName(), user);
+        }
+        for (ByteBuffer entry : journal.entries()) {
+            switch (entry.get()) {
+                case PUT_USER -> {
+                    UserData user = BinarySerialization.readUser(BinarySerialization.record(entry));
+                    users.remove(user.getUserName());
+                    users.put(user.getUserName(), user);
+                }
+                case REMOVE_USER -> users.remove(BinarySerialization.readString(entry));
+                default -> throw new StorageException("Unexpected entry in users journal '" + journal.path + "'");
+            }
+        }
+        return users;
+    }
+
+    private StorageData replayStorage(Journal journal) {
+        StorageData data = null;
+        List<ByteBuffer> entries = journal.entries();
+        if (!entries.isEmpty()) {
+            ByteBuffer last = entries.get(entries.size() - 1);
+            if (last.get() != PUT_STORAGE) {
+                throw new StorageException("Unexpected entry in storage journal '" + journal.path + "'");
+            }
+            data = BinarySerialization.readStorage(BinarySerialization.record(last));
+        }
+        return data != null ? data : snapshots.readStorageData(journal.file.toString());
+    }
+
+    /**
+     * Journal of one snapshot file. {@link #lock} serializes appends, replays and
+     * compactions; {@link #syncLock} serializes forces and is only ever taken after
+     * {@link #lock} or on its own.
+     */
+    private final class Journal {
+
+        final Path file;
+        final Path path;
+        final byte kind;
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock syncLock = new ReentrantLock();
+        volatile FileChannel channel;
+        volatile long appended;
+        volatile long synced;
+        volatile long size;
+        volatile long lastCompaction = System.nanoTime();
+
+        Journal(Path file, byte kind) {
+            this.file = file;
+            this.path = file.resolveSibling(file.getFileName() + SUFFIX);
+            this.kind = kind;
+            try {
+                this.size = Files.exists(path) ? open().size() : 0;
+            } catch (IOException e) {
+                throw new StorageException("Failed to open journal '" + path + "'", e);
+            }
+        }
+
+        boolean compactionDue() {
+            return size > compactionThreshold
+                    || (size > HEADER_SIZE && System.nanoTime() - lastCompaction > compactionIntervalNanos);
+        }
+
+        long write(byte[] entries) throws IOException {
+            FileChannel target = channel != null ? channel : open();
+            ByteBuffer buffer = ByteBuffer.wrap(entries);
+            while (buffer.hasRemaining()) {
+                size += target.write(buffer, size);
+            }
+            return ++appended;
+        }
+
+        /**
+         * Returns the payload of every intact entry. Reading stops at the first torn or
+         * corrupt entry.
+         */
+        List<ByteBuffer> entries() {
+            ByteBuffer buffer;
+            try {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            } catch (NoSuchFileException e) {
+                return List.of();
+            } catch (IOException e) {
+                throw new StorageException("Failed to read journal '" + path + "'", e);
+            }
+            List<ByteBuffer> entries = new ArrayList<>();
+            if (buffer.limit() < HEADER_SIZE) {
+                return entries;
+            }
+            readHeader(buffer);
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= ENTRY_HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                entries.add(payload);
+                buffer.position(buffer.position() + length);
+            }
+            return entries;
+        }
+
+        void truncate() throws IOException {
+            if (channel != null) {
+                channel.truncate(HEADER_SIZE);
+                channel.force(false);
+                size = HEADER_SIZE;
+            } else {
+                Files.deleteIfExists(path);
+                size = 0;
+            }
+            syncLock.lock();
+            try {
+                synced = appended;
+            } finally {
+                syncLock.unlock();
+            }
+            lastCompaction = System.nanoTime();
+        }
+
+        void closeChannel() throws IOException {
+            FileChannel open = channel;
+            if (open != null) {
+                channel = null;
+                try {
+                    open.force(false);
+                } finally {
+                    open.close();
+                }
+            }
+        }
+
+        /**
+         * Opens the journal for appending: writes the header of a new journal, or validates
+         * an existing one and cuts off any torn tail.
+         */
+        private FileChannel open() throws IOException {
+            FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                if (opened.size() < HEADER_SIZE) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                            .putInt(MAGIC).putShort(VERSION).put(kind).put((byte) 0).flip();
+                    opened.truncate(0);
+                    while (header.hasRemaining()) {
+                        opened.write(header, header.position());
+                    }
+                    opened.force(true);
+                    size = HEADER_SIZE;
+                } else {
+                    long end = HEADER_SIZE;
+                    for (ByteBuffer entry : entries()) {
+                        end += ENTRY_HEADER_SIZE + entry.remaining();
+                    }
+                    if (end < opened.size()) {
+                        opened.truncate(end);
+                        opened.force(false);
+                    }
+                    size = end;
+                }
+            } catch (IOException | RuntimeException e) {
+                opened.close();
+                throw e;
+            }
+            channel = opened;
+            return opened;
+        }
+
+        private void readHeader(ByteBuffer buffer) {
+            if (buffer.getInt() != MAGIC) {
+                throw new StorageException("Not a metadata journal: " + path);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new StorageException("Unsupported journal version " + version + " in '" + path + "'");
+            }
+            if (buffer.get() != kind) {
+                throw new StorageException("Journal '" + path + "' belongs to a different file kind");
+            }
+            buffer.get();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package serialization;
+
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.ISerialization;
+import storageSpec.serialization.StorageData;
+import storageSpec.serialization.UserData;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Converts metadata files between the JSON ({@link UserSerialization}) and binary
+ * ({@link BinarySerialization}) formats. The source format is detected from the file
+ * header; the target is always the other format.
+ * <p>
+ * Usage: {@code MetadataConverter <users|storage> <source> <target>}
+ */
+public final class MetadataConverter {
+
+    private MetadataConverter() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3 || !(args[0].equals("users") || args[0].equals("storage"))) {
+            System.err.println("Usage: MetadataConverter <users|storage> <source> <target>");
+            System.exit(2);
+        }
+        try {
+            boolean toBinary = !BinarySerialization.isBinary(Path.of(args[1]));
+            if (args[0].equals("users")) {
+                convertUsers(args[1], args[2], toBinary);
+            } else {
+                convertStorage(args[1], args[2], toBinary);
+            }
+            System.out.println("Wrote " + (toBinary ? "binary" : "JSON") + " " + args[0] + " metadata to " + args[2]);
+        } catch (StorageException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a users file, preserving record order.
+     *
+     * @param source   file to read
+     * @param target   file to write; replaced if it exists
+     * @param toBinary {@code true} to convert JSON to binary, {@code false} for the reverse
+     * @throws StorageException if {@code source} is missing or either side fails
+     */
+    public static void convertUsers(String source, String target, boolean toBinary) {
+        requireExists(source);
+        if (toBinary) {
+            List<UserData> users = new UserSerialization().readSavedUsers(source);
+            new BinarySerialization().saveUsers(target, users);
+        } else {
+            List<UserData> users = new BinarySerialization().readSavedUsers(source);
+            new UserSerialization().saveUsers(target, users);
+        }
+    }
+
+    /**
+     * Converts a storage metadata file.
+     *
+     * @param source   file to read
+     * @param target   file to write; replaced if it exists
+     * @param toBinary {@code true} to convert JSON to binary, {@code false} for the reverse
+     * @throws StorageException if {@code source} is missing or either side fails
+     */
+    public static void convertStorage(String source, String target, boolean toBinary) {
+        requireExists(source);
+        ISerialization from = toBinary ? new UserSerialization() : new BinarySerialization();
+        ISerialization to = toBinary ? new BinarySerialization() : new UserSerialization();
+        StorageData data = from.readStorageData(source);
+        to.saveStorageData(target, MetadataFiles.fromData(data));
+    }
+
+    private static void requireExists(String source) {
+        if (!Files.isRegularFile(Path.of(source))) {
+            throw new StorageException("No such file: " + source);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package serialization;
+
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.StorageData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helpers shared by the metadata formats: model conversion and crash-safe file replacement.
+ */
+final class MetadataFiles {
+
+    private MetadataFiles() {
+    }
+
+    interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    static StorageData toData(Storage storage) {
+        StorageData data = new StorageData();
+        data.setStorageName(storage.getStorageName());
+        data.setStorageID(storage.getStorageId());
+        data.setRootLocation(storage.getRootLocation());
+        data.setStorageSize(storage.getStorageSize());
+        data.setUsedBytes(storage.getUsedBytes());
+        data.setForbiddenExtensions(storage.getForbiddenExtensions());
+        data.setDirsMaxChildrenCount(storage.getDirsMaxChildrenCount());
+        return data;
+    }
+
+    static Storage fromData(StorageData data) {
+        Storage storage = new Storage(data.getStorageName(), data.getRootLocation(), data.getStorageID());
+        storage.setStorageSize(data.getStorageSize());
+        storage.setUsedBytes(data.getUsedBytes());
+        if (data.getForbiddenExtensions() != null) {
+            storage.setForbiddenExtensions(data.getForbiddenExtensions());
+        }
+        if (data.getDirsMaxChildrenCount() != null) {
+            storage.setDirsMaxChildrenCount(data.getDirsMaxChildrenCount());
+        }
+        return storage;
+    }
+
+    /**
+     * Writes {@code file} through a temporary sibling that is synced and then moved into
+     * place, so readers never see a half-written file. The parent directory is synced after
+     * the move, so the new file is also the one found after a crash.
+     *
+     * @throws StorageException if the write fails
+     */
+    static void replace(Path file, Writer writer) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    OutputStream out = Channels.newOutputStream(channel);
+                    writer.write(out);
+                    out.flush();
+                    channel.force(true);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            syncDirectory(parent);
+        } catch (IOException e) {
+            throw new StorageException("Failed to write '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Forces the entries of {@code dir} to disk. Platforms that cannot open a directory for
+     * reading (Windows) are skipped; their file systems commit renames on their own.
+     */
+    private static void syncDirectory(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
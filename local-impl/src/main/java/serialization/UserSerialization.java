@@ -1,33 +1,156 @@
 package serialization;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import storageSpec.Privilege;
 import storageSpec.Storage;
+import storageSpec.exception.StorageException;
 import storageSpec.serialization.ISerialization;
 import storageSpec.serialization.StorageData;
 import storageSpec.serialization.UserData;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * JSON implementation of {@link ISerialization}, backed by Gson.
+ * <p>
+ * A users file holds a JSON array of {@link UserData}; a storage file holds one
+ * {@link StorageData} object. Files are replaced atomically on every write. See
+ * {@link BinarySerialization} for a compact alternative and {@link MetadataConverter}
+ * to convert between the two.
+ */
 public class UserSerialization implements ISerialization {
 
+    private static final Type USER_LIST = new TypeToken<List<UserData>>() { }.getType();
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
     @Override
     public void saveUserData(String filePath, String userName, String password, Map<String, Privilege> storagesAndPrivileges, boolean append) {
-
+        List<UserData> users = append ? new ArrayList<>(readSavedUsers(filePath)) : new ArrayList<>();
+        UserData user = new UserData();
+        user.setUserName(userName);
+        user.setPassword(password);
+        user.setStoragesAndPrivileges(storagesAndPrivileges);
+        users.add(user);
+        write(Path.of(filePath), users);
     }
 
     @Override
     public List<UserData> readSavedUsers(String filePath) {
-        return List.of();
+        List<UserData> users = read(Path.of(filePath), USER_LIST);
+        return users == null ? List.of() : users;
     }
 
+    /**
+     * Streams users with an incremental {@link JsonReader}: one record is parsed per element
+     * consumed, and records that do not match {@code storageId} are discarded immediately.
+     */
     @Override
-    public void saveStorageData(String filePath, Storage storage) {
+    public Stream<UserData> streamSavedUsers(String filePath, String storageId) {
+        Path file = Path.of(filePath);
+        JsonReader reader;
+        try {
+            reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                close(reader, file);
+                return Stream.empty();
+            }
+            reader.beginArray();
+        } catch (EOFException e) {
+            close(reader, file);
+            return Stream.empty();
+        } catch (IOException | IllegalStateException e) {
+            close(reader, file);
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
+        Spliterator<UserData> users = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super UserData> action) {
+                try {
+                    while (reader.hasNext()) {
+                        UserData user = gson.fromJson(reader, UserData.class);
+                        if (user != null && (storageId == null || user.hasStorage(storageId))) {
+                            action.accept(user);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException | JsonParseException | IllegalStateException e) {
+                    throw new StorageException("Failed to read '" + file + "'", e);
+                }
+            }
+        };
+        return StreamSupport.stream(users, false).onClose(() -> close(reader, file));
+    }
+
+    @Override
+    public void saveUsers(String filePath, Collection<UserData> users) {
+        write(Path.of(filePath), List.copyOf(users));
+    }
 
+    @Override
+    public void saveStorageData(String filePath, Storage storage) {
+        write(Path.of(filePath), MetadataFiles.toData(storage));
     }
 
     @Override
     public StorageData readStorageData(String filePath) {
-        return null;
+        return read(Path.of(filePath), StorageData.class);
+    }
+
+    private void write(Path file, Object value) {
+        MetadataFiles.replace(file, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            gson.toJson(value, writer);
+            writer.flush();
+        });
+    }
+
+    private static void close(JsonReader reader, Path file) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new StorageException("Failed to close '" + file + "'", e);
+        }
+    }
+
+    private <T> T read(Path file, Type type) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | JsonParseException e) {
+            throw new StorageException("Failed to read '" + file + "'", e);
+        }
     }
 }
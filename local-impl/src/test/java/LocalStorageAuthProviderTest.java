@@ -0,0 +1,159 @@
+import auth.PasswordHasher;
+import ops.FlushPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import serialization.UserSerialization;
+import storageSpec.Privilege;
+import storageSpec.StorageSession;
+import storageSpec.exception.StorageException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalStorageAuthProviderTest {
+
+    private static final String USERS = ".storage/users.meta";
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Path usersFile;
+    private LocalStorageAuthProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        root = temp.resolve("store");
+        usersFile = root.resolve(USERS);
+        provider = new LocalStorageAuthProvider(new UserSerialization(), new PasswordHasher(1_000),
+                Duration.ofMinutes(1), 100, FlushPolicy.sync());
+        provider.initStorage(root.toString(), "admin", "secret");
+        StorageSession admin = provider.logIn(root.toString(), "admin", "secret");
+        admin.addUser("reader", "pw", Privilege.DOWNLOAD);
+        admin.addUser("writer", "pw", Privilege.UPLOAD);
+        admin.addUser("deleter", "pw", Privilege.DELETE);
+        admin.createDir("docs", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void closeWritesPendingMetadataAndStopsFlusherThreads() throws Exception {
+        LocalStorageAuthProvider lazy = new LocalStorageAuthProvider(new UserSerialization(), new PasswordHasher(1_000),
+                Duration.ofMinutes(1), 100, FlushPolicy.interval(Duration.ofHours(1)));
+        Path other = temp.resolve("other");
+        lazy.initStorage(other.toString(), "admin", "secret");
+        lazy.logIn(other.toString(), "admin", "secret").addUser("late", "pw", Privilege.READ);
+
+        lazy.close();
+
+        LocalStorageAuthProvider reopened = new LocalStorageAuthProvider(new UserSerialization(),
+                new PasswordHasher(1_000), Duration.ofMinutes(1), 100, FlushPolicy.sync());
+        try {
+            assertNotNull(reopened.logIn(other.toString(), "late", "pw"));
+        } finally {
+            reopened.close();
+        }
+        for (int i = 0; i < 100 && flusherThreads() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, flusherThreads());
+    }
+
+    @Test
+    void unknownUsersFailLikeWrongPasswords() {
+        StorageException unknown = assertThrows(StorageException.class,
+                () -> provider.logIn(root.toString(), "nobody", "pw"));
+        StorageException wrong = assertThrows(StorageException.class,
+                () -> provider.logIn(root.toString(), "reader", "nope"));
+
+        assertEquals(wrong.getClass(), unknown.getClass());
+        assertEquals(wrong.getMessage(), unknown.getMessage());
+    }
+
+    @Test
+    void metadataCannotBeRead() throws Exception {
+        StorageSession reader = provider.logIn(root.toString(), "reader", "pw");
+        Path out = Files.createDirectory(temp.resolve("out"));
+
+        assertThrows(StorageException.class, () -> reader.openRead(USERS));
+        assertThrows(StorageException.class, () -> reader.openRead("docs/../.storage/users.meta"));
+        assertThrows(StorageException.class, () -> reader.openRead(usersFile.toString()));
+        assertThrows(StorageException.class, () -> reader.readRange(USERS, 0, 16));
+        assertThrows(StorageException.class, () -> reader.download(USERS, out.toString()));
+
+        reader.download("", out.toString());
+        assertTrue(Files.isDirectory(out.resolve("store").resolve("docs")));
+        assertFalse(Files.exists(out.resolve("store").resolve(".storage")));
+    }
+
+    @Test
+    void metadataCannotBeWritten() throws Exception {
+        StorageSession writer = provider.logIn(root.toString(), "writer", "pw");
+        byte[] before = Files.readAllBytes(usersFile);
+        Path source = Files.writeString(temp.resolve("evil.meta"), "[]");
+
+        assertThrows(StorageException.class, () -> writer.uploadFile("users", source.toString(), ".storage", "meta"));
+        assertThrows(StorageException.class, () -> writer.openWrite("users", ".storage", "meta"));
+        assertThrows(StorageException.class, () -> writer.createFile("x", ".storage", "meta"));
+        assertThrows(StorageException.class, () -> writer.createDir("x", ".storage"));
+        assertThrows(StorageException.class, () -> writer.rename("docs", ".storage"));
+        assertThrows(StorageException.class, () -> writer.move(USERS, "docs"));
+        assertThrows(StorageException.class, () -> writer.copy(USERS, "docs"));
+        assertThrows(StorageException.class, () -> writer.uploadFile("stolen", usersFile.toString(), "docs", "meta"));
+
+        assertArrayEquals(before, Files.readAllBytes(usersFile));
+        assertFalse(Files.exists(root.resolve("docs").resolve("stolen.meta")));
+    }
+
+    @Test
+    void downloadCannotOverwriteMetadata() throws Exception {
+        StorageSession writer = provider.logIn(root.toString(), "writer", "pw");
+        writer.createFile("users", "docs", "meta");
+        byte[] before = Files.readAllBytes(usersFile);
+
+        assertThrows(StorageException.class, () -> writer.download("docs/users.meta", root.resolve(".storage").toString()));
+        assertThrows(StorageException.class, () -> writer.download("docs/users.meta", usersFile.toString()));
+        assertArrayEquals(before, Files.readAllBytes(usersFile));
+    }
+
+    @Test
+    void metadataCannotBeDeleted() {
+        StorageSession deleter = provider.logIn(root.toString(), "deleter", "pw");
+
+        assertThrows(StorageException.class, () -> deleter.delete(USERS));
+        assertThrows(StorageException.class, () -> deleter.delete(".storage"));
+        assertTrue(Files.isRegularFile(usersFile));
+        assertNotNull(provider.logIn(root.toString(), "reader", "pw"));
+    }
+
+    @Test
+    void metadataIsNotListedOrIndexed() {
+        StorageSession reader = provider.logIn(root.toString(), "reader", "pw");
+
+        assertEquals(1, reader.listDirs("").size());
+        assertEquals(1, reader.listDirs("", 10, null).getItems().size());
+        assertTrue(reader.searchByName("users.meta").isEmpty());
+        assertTrue(reader.searchByName(".storage").isEmpty());
+        assertTrue(reader.searchByNamePrefix("storage").isEmpty());
+    }
+
+    private static long flusherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("metadata-flusher-"))
+                .count();
+    }
+}
@@ -0,0 +1,84 @@
+package auth;
+
+import org.junit.jupiter.api.Test;
+import storageSpec.exception.StorageException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(1_000);
+
+    @Test
+    void hashesAreSaltedAndVerifyOnlyTheirPassword() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertNotEquals(first, second);
+        assertTrue(PasswordHasher.isHash(first));
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+        assertFalse(hasher.verify("Secret", first));
+    }
+
+    @Test
+    void hashesKeepTheirIterationCount() {
+        String encoded = new PasswordHasher(2_000).hash("secret");
+
+        assertTrue(encoded.contains("$2000$"));
+        assertTrue(hasher.verify("secret", encoded));
+    }
+
+    @Test
+    void plainAndMalformedValuesNeverVerify() {
+        assertFalse(PasswordHasher.isHash("secret"));
+        assertFalse(PasswordHasher.isHash(null));
+        assertFalse(hasher.verify("secret", "secret"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$x$AAAA$AAAA"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$1000$not base64$AAAA"));
+        assertThrows(StorageException.class, () -> new PasswordHasher(0));
+    }
+
+    @Test
+    void cachedVerificationStillRejectsOtherPasswords() {
+        CredentialVerifier verifier = new CredentialVerifier(hasher, Duration.ofMinutes(5), 16);
+        String encoded = hasher.hash("secret");
+
+        assertTrue(verifier.verify("alice", "secret", encoded));
+        assertTrue(verifier.verify("alice", "secret", encoded));
+        assertFalse(verifier.verify("alice", "wrong", encoded));
+        assertFalse(verifier.verify("bob", "wrong", encoded));
+    }
+
+    @Test
+    void changedHashIsVerifiedAgain() {
+        CredentialVerifier verifier = new CredentialVerifier(hasher, Duration.ofMinutes(5), 16);
+        assertTrue(verifier.verify("alice", "old", hasher.hash("old")));
+
+        String changed = hasher.hash("new");
+
+        assertFalse(verifier.verify("alice", "old", changed));
+        assertTrue(verifier.verify("alice", "new", changed));
+    }
+
+    @Test
+    void clearedOrExpiredEntriesAreVerifiedAgain() {
+        CredentialVerifier expiring = new CredentialVerifier(hasher, Duration.ZERO, 16);
+        String encoded = hasher.hash("secret");
+
+        assertTrue(expiring.verify("alice", "secret", encoded));
+        assertTrue(expiring.verify("alice", "secret", encoded));
+        assertFalse(expiring.verify("alice", "other", encoded));
+
+        CredentialVerifier cleared = new CredentialVerifier(hasher, Duration.ofMinutes(5), 1);
+        assertTrue(cleared.verify("alice", "secret", encoded));
+        assertTrue(cleared.verify("bob", "secret", encoded));
+        cleared.clear();
+        assertTrue(cleared.verify("alice", "secret", encoded));
+    }
+}
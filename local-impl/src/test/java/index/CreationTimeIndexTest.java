@@ -0,0 +1,125 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.exception.StorageException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CreationTimeIndexTest {
+
+    private static final Instant T1 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant T2 = Instant.parse("2024-02-01T00:00:00Z");
+    private static final Instant T3 = Instant.parse("2024-03-01T00:00:00Z");
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Path docs;
+    private Path a;
+    private Path b;
+    private Path c;
+    private CreationTimeIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        docs = Files.createDirectory(root.resolve("docs"));
+        a = Files.createFile(root.resolve("a.txt"));
+        b = Files.createFile(docs.resolve("b.txt"));
+        c = Files.createFile(docs.resolve("c.txt"));
+        Files.createFile(Files.createDirectory(root.resolve(".storage")).resolve("users.meta"));
+        index = new CreationTimeIndex(root, root.resolve(".storage"));
+    }
+
+    @Test
+    void storageWideListIsBuiltOnFirstQueryOnly() throws Exception {
+        index.addedTree(Files.createFile(root.resolve("early.txt")));
+        assertNull(index.snapshot());
+
+        assertEquals(Set.of(a, b, c, root.resolve("early.txt")), Set.copyOf(index.range(Instant.MIN, Instant.MAX, 0)));
+        assertEquals(Set.of(a, b, c, root.resolve("early.txt")), index.snapshot().keySet());
+
+        Files.createFile(root.resolve("late.txt"));
+        assertEquals(4, index.range(Instant.MIN, Instant.MAX, 0).size());
+    }
+
+    @Test
+    void rangesAreOrderedByInstantThenPathAndPage() {
+        seed();
+
+        assertEquals(List.of(a, b, c), index.range(Instant.MIN, Instant.MAX, 0));
+        assertEquals(List.of(b, c), index.range(T2, T3, 0));
+        assertEquals(List.of(a), index.range(T1, T1, 5));
+        assertEquals(List.of(), index.range(T3, Instant.MAX, 5));
+
+        List<Map.Entry<Instant, Path>> first = index.range(T1, T3, null, 2);
+        assertEquals(List.of(Map.entry(T1, a), Map.entry(T2, b)), first);
+        assertEquals(List.of(Map.entry(T2, c)), index.range(T1, T3, first.get(1), 2));
+        assertEquals(List.of(Map.entry(T2, c)), index.range(docs, T1, T3, Map.entry(T2, b), 5));
+    }
+
+    @Test
+    void directoryListingsUseTheRecordedInstants() {
+        index.setLoader(() -> Map.of(a, T1, b, T3, c, T2));
+        index.range(Instant.MIN, Instant.MAX, 0);
+
+        assertEquals(List.of(c, b), index.oldestFirst(docs, 0));
+        assertEquals(List.of(b, c), index.newestFirst(docs, 0));
+        assertEquals(List.of(b), index.newestFirst(docs, 1));
+        assertEquals(List.of(c), index.range(docs, T2, T2, 5));
+    }
+
+    @Test
+    void mutationsAreAppliedIncrementally() throws Exception {
+        seed();
+        index.oldestFirst(docs, 0);
+
+        Path added = Files.createFile(docs.resolve("d.txt"));
+        index.addedTree(added);
+        assertEquals(Set.of(a, b, c, added), Set.copyOf(index.range(Instant.MIN, Instant.MAX, 0)));
+        assertEquals(Set.of(b, c, added), Set.copyOf(index.oldestFirst(docs, 0)));
+
+        index.removed(c);
+        Files.delete(c);
+        index.removedTree(docs);
+        Path moved = Files.move(docs, root.resolve("moved"));
+        index.addedTree(moved);
+        assertEquals(Set.of(a, moved.resolve("b.txt"), moved.resolve("d.txt")),
+                Set.copyOf(index.range(Instant.MIN, Instant.MAX, 0)));
+        assertEquals(Set.of(moved.resolve("b.txt"), moved.resolve("d.txt")), Set.copyOf(index.oldestFirst(moved, 0)));
+    }
+
+    @Test
+    void invalidatedOrUnloadableIndexIsRebuiltFromDisk() throws Exception {
+        seed();
+        index.range(Instant.MIN, Instant.MAX, 0);
+        Files.delete(a);
+        Path external = Files.createFile(docs.resolve("external.txt"));
+
+        index.invalidate();
+        index.setLoader(() -> {
+            throw new StorageException("unreadable");
+        });
+
+        assertEquals(Set.of(b, c, external), Set.copyOf(index.range(Instant.MIN, Instant.MAX, 0)));
+        assertEquals(Set.of(b, c, external), Set.copyOf(index.oldestFirst(docs, 0)));
+    }
+
+    /**
+     * Seeds the storage-wide list with fixed instants; {@code b} and {@code c} share one.
+     */
+    private void seed() {
+        index.setLoader(() -> Map.of(a, T1, b, T2, c, T2, root.resolve(".storage").resolve("users.meta"), T1));
+    }
+}
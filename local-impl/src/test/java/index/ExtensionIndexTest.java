@@ -0,0 +1,87 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExtensionIndexTest {
+
+    @TempDir
+    Path temp;
+
+    private Path dir;
+    private ExtensionIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createDirectory(temp.resolve("docs"));
+        Files.createFile(dir.resolve("a.TXT"));
+        Files.createFile(dir.resolve("b.txt"));
+        Files.createFile(dir.resolve("notes.md"));
+        Files.createFile(dir.resolve(".hidden"));
+        Files.createDirectory(dir.resolve("folder.txt"));
+        index = new ExtensionIndex();
+    }
+
+    @Test
+    void directoriesAreListedOnFirstQueryOnly() throws Exception {
+        Path early = Files.createFile(dir.resolve("early.txt"));
+        index.added(early);
+
+        assertEquals(List.of(dir.resolve("a.TXT"), dir.resolve("b.txt"), early), index.find(dir, ".txt"));
+        assertEquals(List.of(dir.resolve(".hidden")), index.find(dir, ""));
+
+        Files.createFile(dir.resolve("late.txt"));
+        assertEquals(3, index.find(dir, "TXT").size());
+    }
+
+    @Test
+    void mutationsAreAppliedIncrementally() throws Exception {
+        index.find(dir, "txt");
+
+        Path added = Files.createFile(dir.resolve("c.txt"));
+        index.added(added);
+        index.added(Files.createDirectory(dir.resolve("sub.txt")));
+        assertEquals(List.of(dir.resolve("a.TXT"), dir.resolve("b.txt"), added), index.find(dir, "txt"));
+
+        index.removed(dir.resolve("b.txt"));
+        Path renamed = Files.move(dir.resolve("notes.md"), dir.resolve("notes.txt"));
+        index.removed(dir.resolve("notes.md"));
+        index.added(renamed);
+        assertEquals(List.of(), index.find(dir, "md"));
+        assertEquals(List.of(dir.resolve("a.TXT"), added, renamed), index.find(dir, "txt"));
+    }
+
+    @Test
+    void lookupsPageInPathOrder() {
+        List<Path> all = index.find(dir, "txt");
+
+        assertEquals(all.subList(0, 1), index.find(dir, "txt", null, 1));
+        assertEquals(all.subList(1, 2), index.find(dir, "txt", all.get(0), 5));
+        assertEquals(List.of(), index.find(dir, "txt", all.get(1), 5));
+        assertEquals(List.of(), index.find(dir, "pdf", null, 5));
+    }
+
+    @Test
+    void removedOrInvalidatedDirectoriesAreListedAgain() throws Exception {
+        Path sub = Files.createDirectory(dir.resolve("sub"));
+        Files.createFile(sub.resolve("x.txt"));
+        assertEquals(1, index.find(sub, "txt").size());
+        index.find(dir, "txt");
+
+        index.removedTree(sub);
+        Files.createFile(sub.resolve("y.txt"));
+        assertEquals(2, index.find(sub, "txt").size());
+
+        Files.createFile(dir.resolve("external.txt"));
+        assertEquals(2, index.find(dir, "txt").size());
+        index.invalidate();
+        assertEquals(3, index.find(dir, "txt").size());
+    }
+}
@@ -0,0 +1,158 @@
+package index;
+
+import ops.LocalStorageContext;
+import ops.LocalStorageOps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexSnapshotTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Path file;
+    private Path nested;
+    private Path report;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        file = temp.resolve("index.snapshot");
+        nested = Files.createDirectories(root.resolve("a").resolve("b"));
+        report = Files.writeString(nested.resolve("report.txt"), "x");
+    }
+
+    @Test
+    void sectionsRoundTrip() {
+        List<Path> names = List.of(root.resolve("a"), nested, report);
+        Map<Path, Instant> times = Map.of(report, Instant.ofEpochSecond(1_700_000_000L, 123));
+
+        assertTrue(IndexSnapshot.write(file, root, 42, names, times, -1, Map.of()));
+        IndexSnapshot snapshot = IndexSnapshot.open(file, root);
+
+        assertNotNull(snapshot);
+        assertEquals(42, snapshot.generation());
+        assertEquals(Set.copyOf(names), Set.copyOf(snapshot.names()));
+        assertEquals(times, snapshot.times());
+    }
+
+    @Test
+    void usageAndChildCountsRoundTrip() {
+        List<Path> names = List.of(root.resolve("a"), nested, report);
+
+        assertTrue(IndexSnapshot.write(file, root, 7, names, null, 1234,
+                Map.of(nested, 1, root, 1, root.resolve("elsewhere"), 9)));
+        IndexSnapshot snapshot = IndexSnapshot.open(file, root);
+
+        assertNotNull(snapshot);
+        assertEquals(1234, snapshot.usedBytes());
+        assertEquals(Map.of(nested, 1, root, 1), snapshot.childCounts());
+    }
+
+    @Test
+    void changesBelowTheRootMakeTheSnapshotStale() throws Exception {
+        IndexSnapshot.write(file, root, 1, List.of(root.resolve("a"), nested, report), null, -1, Map.of());
+        assertNotNull(IndexSnapshot.open(file, root));
+
+        Files.createFile(nested.resolve("external.txt"));
+        Files.setLastModifiedTime(nested, FileTime.fromMillis(Files.getLastModifiedTime(nested).toMillis() + 5_000));
+
+        assertNull(IndexSnapshot.open(file, root));
+    }
+
+    @Test
+    void removedDirectoriesMakeTheSnapshotStale() throws Exception {
+        Path empty = Files.createDirectory(root.resolve("empty"));
+        IndexSnapshot.write(file, root, 1, List.of(root.resolve("a"), nested, report, empty), null, -1, Map.of());
+        FileTime rootModified = Files.getLastModifiedTime(root);
+
+        Files.delete(empty);
+        Files.setLastModifiedTime(root, rootModified);
+
+        assertNull(IndexSnapshot.open(file, root));
+    }
+
+    @Test
+    void vanishedEntriesAbortTheWrite() {
+        assertFalse(IndexSnapshot.write(file, root, 1, List.of(root.resolve("gone")), null, -1, Map.of()));
+        assertTrue(Files.notExists(file));
+    }
+
+    @Test
+    void openedSnapshotSurvivesDeletionOfItsFile() throws Exception {
+        IndexSnapshot.write(file, root, 1, List.of(root.resolve("a"), nested, report), null, -1, Map.of());
+        IndexSnapshot snapshot = IndexSnapshot.open(file, root);
+
+        Files.delete(file);
+
+        assertEquals(3, snapshot.names().size());
+        assertNull(snapshot.times());
+    }
+
+    @Test
+    void contextSeedsIndexesFromAValidSnapshotOnly() throws Exception {
+        Storage storage = new Storage("store", root.toString(), "id");
+        LocalStorageContext context = new LocalStorageContext(storage, file);
+        assertEquals(1, new LocalStorageOps(context).searchByName("report.txt").size());
+        context.saveIndexSnapshot();
+        context.close();
+        assertTrue(Files.isRegularFile(file));
+
+        Files.writeString(nested.resolve("report.txt.bak"), "y");
+        Path deeper = Files.createDirectory(nested.resolve("c"));
+        Files.writeString(deeper.resolve("report.txt"), "z");
+        Files.setLastModifiedTime(nested, FileTime.fromMillis(Files.getLastModifiedTime(nested).toMillis() + 5_000));
+
+        LocalStorageContext reopened = new LocalStorageContext(storage, file);
+        try {
+            assertEquals(2, new LocalStorageOps(reopened).searchByName("report.txt").size());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void contextRestoresUsageAndChildCountsFromAValidSnapshot() {
+        Storage storage = new Storage("store", root.toString(), "id");
+        storage.setDirsMaxChildrenCount(Map.of("a/b", 5));
+        LocalStorageContext context = new LocalStorageContext(storage, file);
+        LocalStorageOps ops = new LocalStorageOps(context);
+        ops.createFile("second", "a/b", "txt");
+        assertEquals(1, ops.searchByName("second.txt").size());
+        assertEquals(1, context.getQuota().reconcile());
+        assertEquals(2, context.getChildCounts().count(nested));
+        context.saveIndexSnapshot();
+        context.close();
+        assertTrue(Files.isRegularFile(file));
+
+        storage.setUsedBytes(0);
+        LocalStorageContext reopened = new LocalStorageContext(storage, file);
+        try {
+            assertTrue(reopened.getQuota().isReconciled());
+            assertEquals(1, reopened.getQuota().usedBytes());
+            assertEquals(2, reopened.getChildCounts().count(nested));
+
+            new LocalStorageOps(reopened).createFile("third", "a/b", "txt");
+            assertFalse(Files.exists(file));
+        } finally {
+            reopened.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.exception.StorageException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameIndexTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Path docs;
+    private NameIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        docs = Files.createDirectory(root.resolve("docs"));
+        Files.createFile(root.resolve("report.txt"));
+        Files.createFile(docs.resolve("report.txt"));
+        Files.createFile(docs.resolve("readme.md"));
+        Files.createDirectories(root.resolve(".storage").resolve("report.txt"));
+        index = new NameIndex(root, root.resolve(".storage"));
+    }
+
+    @Test
+    void indexIsBuiltOnFirstQueryOnly() throws Exception {
+        index.add(root.resolve("ignored.txt"));
+        assertNull(index.snapshot());
+
+        Files.createFile(root.resolve("early.txt"));
+        assertEquals(List.of(root.resolve("early.txt")), index.find("early.txt"));
+        assertEquals(List.of(docs.resolve("report.txt"), root.resolve("report.txt")), index.find("report.txt"));
+        assertEquals(List.of(), index.find("ignored.txt"));
+
+        Files.createFile(root.resolve("late.txt"));
+        assertEquals(List.of(), index.find("late.txt"));
+    }
+
+    @Test
+    void mutationsAreAppliedIncrementally() throws Exception {
+        index.find("report.txt");
+
+        Path nested = Files.createDirectories(docs.resolve("old").resolve("deep"));
+        Files.createFile(nested.resolve("notes.txt"));
+        index.addTree(docs.resolve("old"));
+        assertEquals(List.of(nested.resolve("notes.txt")), index.find("notes.txt"));
+
+        index.removeTree(docs.resolve("old"));
+        Path renamed = Files.move(docs.resolve("old"), docs.resolve("new"));
+        index.addTree(renamed);
+        assertEquals(List.of(), index.find("old"));
+        assertEquals(List.of(renamed), index.find("new"));
+        assertEquals(List.of(renamed.resolve("deep").resolve("notes.txt")), index.find("notes.txt"));
+
+        index.remove(docs.resolve("readme.md"));
+        index.addAll(List.of(root.resolve("a.md"), root.resolve("b.md")));
+        assertEquals(List.of(), index.find("readme.md"));
+        assertEquals(List.of(root.resolve("a.md")), index.find("a.md"));
+    }
+
+    @Test
+    void prefixQueriesPageInNameThenPathOrder() {
+        List<Path> all = index.findByPrefix("re");
+        assertEquals(List.of(docs.resolve("readme.md"), docs.resolve("report.txt"), root.resolve("report.txt")), all);
+        assertEquals(List.of(), index.findByPrefix("zz"));
+
+        assertEquals(all.subList(0, 2), index.findByPrefix("re", null, 2));
+        assertEquals(all.subList(1, 3), index.findByPrefix("re", all.get(0), 5));
+        assertEquals(all.subList(2, 3), index.findByPrefix("re", all.get(1), 5));
+        assertEquals(List.of(root.resolve("report.txt")), index.find("report.txt", docs.resolve("report.txt"), 5));
+    }
+
+    @Test
+    void invalidatedIndexIsRebuiltFromDisk() throws Exception {
+        index.find("report.txt");
+        Files.delete(docs.resolve("report.txt"));
+        Files.createFile(docs.resolve("external.txt"));
+
+        index.invalidate();
+
+        assertEquals(List.of(root.resolve("report.txt")), index.find("report.txt"));
+        assertEquals(List.of(docs.resolve("external.txt")), index.find("external.txt"));
+    }
+
+    @Test
+    void loaderReplacesTheWalkAndAFailingOneFallsBackToIt() {
+        AtomicInteger calls = new AtomicInteger();
+        index.setLoader(() -> {
+            calls.incrementAndGet();
+            return List.of(root.resolve("cached.txt"), root.resolve(".storage").resolve("hidden"));
+        });
+        assertEquals(List.of(root.resolve("cached.txt")), index.find("cached.txt"));
+        assertEquals(List.of(), index.find("hidden"));
+        assertEquals(List.of(), index.find("report.txt"));
+        assertEquals(1, calls.get());
+
+        index.invalidate();
+        index.setLoader(() -> {
+            throw new StorageException("unreadable");
+        });
+        assertEquals(2, index.find("report.txt").size());
+        assertTrue(Set.copyOf(index.snapshot()).contains(docs.resolve("readme.md")));
+    }
+}
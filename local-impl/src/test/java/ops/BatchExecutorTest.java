@@ -0,0 +1,92 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchExecutorTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private LocalStorageOps ops;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        ops = new LocalStorageOps(new LocalStorageContext(new Storage("store", root.toString(), "id")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ops.getContext().close();
+    }
+
+    @Test
+    void invalidNamesFailWithoutEscapingTheRoot() throws Exception {
+        Path source = Files.writeString(temp.resolve("source.txt"), "data");
+        Files.createDirectory(root.resolve("dir"));
+
+        BulkOperationResult result = ops.executeBatch(List.of(
+                BatchOperation.createDir("../../outside", ""),
+                BatchOperation.createFile("../outside", "", "txt"),
+                BatchOperation.uploadFile("../outside", source.toString(), "", "bin"),
+                BatchOperation.rename("dir", "../renamed"),
+                BatchOperation.createDir("ok", "")));
+
+        assertEquals(4, result.getFailed().size());
+        assertEquals(1, result.getSucceeded().size());
+        assertFalse(Files.exists(temp.resolve("outside")));
+        assertFalse(Files.exists(temp.resolve("outside.txt")));
+        assertFalse(Files.exists(temp.resolve("outside.bin")));
+        assertFalse(Files.exists(temp.resolve("renamed")));
+        assertTrue(Files.isDirectory(root.resolve("dir")));
+        assertTrue(Files.isDirectory(root.resolve("ok")));
+        assertEquals(0, ops.getContext().getQuota().usedBytes());
+    }
+
+    @Test
+    void renamedPlannedDirectoryAcceptsLaterEntries() {
+        BulkOperationResult result = ops.executeBatch(List.of(
+                BatchOperation.createDir("draft", ""),
+                BatchOperation.rename("draft", "final"),
+                BatchOperation.createFile("note", "final", "txt")));
+
+        assertTrue(result.isSuccess());
+        assertTrue(Files.isRegularFile(root.resolve("final").resolve("note.txt")));
+    }
+
+    @Test
+    void laterOperationsOnAnAlreadyTargetedEntryFail() throws Exception {
+        Path source = Files.write(temp.resolve("source.bin"), new byte[10]);
+        ops.getContext().getStorage().setDirsMaxChildrenCount(Map.of("", 5));
+
+        BulkOperationResult result = ops.executeBatch(List.of(
+                BatchOperation.uploadFile("data", source.toString(), "", "bin"),
+                BatchOperation.uploadFile("data", source.toString(), "", "bin"),
+                BatchOperation.createFile("data", "", "bin"),
+                BatchOperation.createDir("dir", ""),
+                BatchOperation.rename("dir", "data.bin")));
+
+        assertEquals(2, result.getSucceeded().size());
+        assertTrue(result.getSucceeded().get(0).startsWith("[0]"));
+        assertTrue(result.getSucceeded().get(1).startsWith("[3]"));
+        assertEquals(3, result.getFailed().size());
+        assertEquals(10, ops.getContext().getQuota().usedBytes());
+        assertEquals(2, ops.getContext().getChildCounts().count(root));
+    }
+}
@@ -0,0 +1,109 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+import storageSpec.exception.DirectoryLimitException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChildCountTrackerTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Storage storage;
+    private LocalStorageContext context;
+    private LocalStorageOps ops;
+    private LocalStorageAdminOps admin;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        storage = new Storage("store", root.toString(), "id");
+        context = new LocalStorageContext(storage);
+        ops = new LocalStorageOps(context);
+        admin = new LocalStorageAdminOps(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void limitsAreKeyedRelativeToTheRoot() {
+        ops.createDir("a", "");
+        ops.createDir("b", "a");
+        admin.setMaxFileNumberInDir(1, "a/b");
+        admin.setMaxFileNumberInDir(5, "");
+
+        assertEquals(Map.of("a/b", 1, "", 5), storage.getDirsMaxChildrenCount());
+        ops.createFile("one", "a/b", "txt");
+        assertThrows(DirectoryLimitException.class, () -> ops.createFile("two", "a/b", "txt"));
+    }
+
+    @Test
+    void limitsFollowRenamedAndMovedDirectories() {
+        ops.createDir("a", "");
+        ops.createDir("b", "a");
+        ops.createDir("elsewhere", "");
+        admin.setMaxFileNumberInDir(1, "a");
+        admin.setMaxFileNumberInDir(1, "a/b");
+
+        ops.rename("a", "renamed");
+        assertEquals(Map.of("renamed", 1, "renamed/b", 1), storage.getDirsMaxChildrenCount());
+        assertThrows(DirectoryLimitException.class, () -> ops.createFile("x", "renamed", "txt"));
+
+        ops.move("renamed/b", "elsewhere");
+        assertEquals(Map.of("renamed", 1, "elsewhere/b", 1), storage.getDirsMaxChildrenCount());
+        ops.createFile("x", "renamed", "txt");
+        ops.createFile("y", "elsewhere/b", "txt");
+        assertThrows(DirectoryLimitException.class, () -> ops.createFile("z", "elsewhere/b", "txt"));
+    }
+
+    @Test
+    void limitsOfDeletedDirectoriesAreDropped() {
+        ops.createDir("a", "");
+        ops.createDir("b", "a");
+        ops.createDir("ab", "");
+        admin.setMaxFileNumberInDir(1, "a/b");
+        admin.setMaxFileNumberInDir(1, "ab");
+
+        ops.delete("a");
+        assertEquals(Map.of("ab", 1), storage.getDirsMaxChildrenCount());
+
+        ops.createDir("a", "");
+        ops.createDir("b", "a");
+        ops.createFile("x", "a/b", "txt");
+        ops.createFile("y", "a/b", "txt");
+    }
+
+    @Test
+    void absoluteKeysInsideTheRootAreMigrated() throws Exception {
+        Files.createDirectories(root.resolve("a").resolve("b"));
+        Storage legacy = new Storage("store", root.toString(), "id");
+        legacy.setDirsMaxChildrenCount(Map.of(root.resolve("a").resolve("b").toString(), 0,
+                temp.resolve("outside").toString(), 3));
+
+        LocalStorageContext reopened = new LocalStorageContext(legacy);
+        try {
+            assertEquals(Map.of("a/b", 0, temp.resolve("outside").toString(), 3),
+                    legacy.getDirsMaxChildrenCount());
+            assertThrows(DirectoryLimitException.class,
+                    () -> new LocalStorageOps(reopened).createFile("x", "a/b", "txt"));
+        } finally {
+            reopened.close();
+        }
+        assertTrue(Files.isDirectory(root.resolve("a").resolve("b")));
+    }
+}
@@ -0,0 +1,239 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.ops.Page;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryPagerTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private LocalStorageOps ops;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        ops = new LocalStorageOps(new LocalStorageContext(new Storage("store", root.toString(), "id")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ops.getContext().close();
+    }
+
+    @Test
+    void fullTraversalListsEveryFileOnceInNameOrder() {
+        for (int i = 0; i < 25; i++) {
+            ops.createFile(String.format("f%02d", i), "", "txt");
+        }
+        ops.createDir("sub", "");
+
+        List<String> names = collect(token -> ops.listFiles("", 4, token));
+
+        assertEquals(25, names.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(root.resolve(String.format("f%02d.txt", i)).toString(), names.get(i));
+        }
+    }
+
+    @Test
+    void entriesCreatedOrDeletedBetweenPagesCauseNoDuplicatesOrSkips() {
+        for (int i = 0; i < 10; i++) {
+            ops.createFile("f" + i, "", "txt");
+        }
+
+        Page first = ops.listFiles("", 5, null);
+        ops.createFile("a", "", "txt");
+        ops.createFile("z", "", "txt");
+        ops.delete("f0.txt");
+        List<String> rest = collect(token -> ops.listFiles("", 5, token), first.getNextPageToken());
+
+        List<String> all = new ArrayList<>(first.getItems());
+        all.addAll(rest);
+        assertEquals(all.size(), new HashSet<>(all).size());
+        for (int i = 1; i < 10; i++) {
+            assertTrue(all.contains(root.resolve("f" + i + ".txt").toString()));
+        }
+        assertTrue(rest.contains(root.resolve("z.txt").toString()));
+        assertFalse(rest.contains(root.resolve("a.txt").toString()));
+    }
+
+    @Test
+    void externalChangesAreSeenThroughTheModificationTime() throws Exception {
+        ops.createFile("a", "", "txt");
+        assertEquals(1, ops.listFiles("", 10, null).getItems().size());
+
+        Files.createFile(root.resolve("b.txt"));
+        Files.setLastModifiedTime(root, FileTime.fromMillis(Files.getLastModifiedTime(root).toMillis() + 5_000));
+
+        assertEquals(2, ops.listFiles("", 10, null).getItems().size());
+    }
+
+    @Test
+    void directoriesArePagedWithoutTheMetadataDirectory() throws Exception {
+        Files.createDirectories(root.resolve(LocalStorageContext.METADATA_DIR));
+        for (int i = 0; i < 7; i++) {
+            ops.createDir("d" + i, "");
+        }
+
+        List<String> dirs = collect(token -> ops.listDirs("", 3, token));
+
+        assertEquals(7, dirs.size());
+        assertFalse(dirs.contains(root.resolve(LocalStorageContext.METADATA_DIR).toString()));
+        try (Stream<String> stream = ops.streamDirs("")) {
+            assertEquals(7, stream.count());
+        }
+    }
+
+    @Test
+    void pagesAreServedFromBoundedWindowsOfOnePass() throws Exception {
+        DirectoryPager pager = new DirectoryPager(null, 4, 2);
+        Path dir = Files.createDirectory(temp.resolve("big"));
+        for (int i = 0; i < 12; i++) {
+            Files.createFile(dir.resolve(String.format("n%02d", i)));
+        }
+        Files.createDirectory(dir.resolve("n05-dir"));
+
+        List<String> names = collect(token -> pager.page(dir, DirectoryPager.Kind.FILES, 5, token));
+        String second = pager.page(dir, DirectoryPager.Kind.FILES, 5, null).getNextPageToken();
+        Page fromWindow = pager.page(dir, DirectoryPager.Kind.FILES, 5, second);
+        List<String> dirs = collect(token -> pager.page(dir, DirectoryPager.Kind.DIRS, 5, token));
+
+        assertEquals(12, names.size());
+        assertEquals(dir.resolve("n00").toString(), names.get(0));
+        assertEquals(dir.resolve("n11").toString(), names.get(11));
+        assertEquals(List.of(dir.resolve("n05").toString(), dir.resolve("n06").toString(),
+                dir.resolve("n07").toString(), dir.resolve("n08").toString(), dir.resolve("n09").toString()),
+                fromWindow.getItems());
+        assertEquals(List.of(dir.resolve("n05-dir").toString()), dirs);
+    }
+
+    @Test
+    void windowsAreDroppedWhenTheDirectoryChanges() throws Exception {
+        DirectoryPager pager = new DirectoryPager(null, 4, 4);
+        Path dir = Files.createDirectory(temp.resolve("changing"));
+        for (int i = 0; i < 6; i++) {
+            Files.createFile(dir.resolve("f" + i));
+        }
+        Page first = pager.page(dir, DirectoryPager.Kind.FILES, 2, null);
+
+        Files.createFile(dir.resolve("f2a"));
+        pager.invalidate(dir);
+        Page second = pager.page(dir, DirectoryPager.Kind.FILES, 2, first.getNextPageToken());
+
+        assertEquals(List.of(dir.resolve("f2").toString(), dir.resolve("f2a").toString()), second.getItems());
+    }
+
+    @Test
+    void hugePageSizesAreCapped() {
+        for (int i = 0; i < 3; i++) {
+            ops.createFile("f" + i, "", "txt");
+            ops.createDir("d" + i, "");
+        }
+
+        assertEquals(3, ops.listFiles("", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(3, ops.listDirs("", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(3, ops.searchByNamePrefix("f", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(1, ops.searchByName("f0.txt", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(3, ops.searchByExtension("txt", "", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(3, ops.searchByCreationDateRange(LocalDateTime.now().minusDays(1),
+                LocalDateTime.now().plusDays(1), "", Integer.MAX_VALUE, null).getItems().size());
+        assertEquals(DirectoryPager.MAX_PAGE_SIZE, DirectoryPager.checkPageSize(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void invalidTokensAndPageSizesAreRejected() {
+        ops.createFile("a", "", "txt");
+
+        assertThrows(StorageException.class, () -> ops.listFiles("", 0, null));
+        assertThrows(StorageException.class, () -> ops.listFiles("", 5, "not base64!"));
+        assertThrows(StorageException.class, () -> ops.searchByName("a.txt", -1, null));
+        assertThrows(StorageException.class, () -> ops.searchByCreationDateRange(
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), 5, DirectoryPager.encode("x")));
+        assertNull(ops.listFiles("", 5, "").getNextPageToken());
+    }
+
+    @Test
+    void pagedExtensionSearchUsesTheIndex() {
+        for (int i = 0; i < 9; i++) {
+            ops.createFile("f" + i, "", i % 3 == 0 ? "log" : "txt");
+        }
+
+        List<String> logs = collect(token -> ops.searchByExtension(".log", "", 2, token));
+
+        assertEquals(List.of(root.resolve("f0.log").toString(), root.resolve("f3.log").toString(),
+                root.resolve("f6.log").toString()), logs);
+    }
+
+    @Test
+    void pagedNameSearchesVisitEveryMatchOnce() {
+        for (int i = 0; i < 6; i++) {
+            ops.createDir("d" + i, "");
+            ops.createFile("report", "d" + i, "txt");
+            ops.createFile("readme" + i, "d" + i, "md");
+        }
+
+        List<String> byName = collect(token -> ops.searchByName("report.txt", 4, token));
+        List<String> byPrefix = collect(token -> ops.searchByNamePrefix("read", 4, token));
+
+        assertEquals(6, new HashSet<>(byName).size());
+        assertEquals(Set.copyOf(ops.searchByName("report.txt")), Set.copyOf(byName));
+        assertEquals(6, new HashSet<>(byPrefix).size());
+        assertEquals(Set.copyOf(ops.searchByNamePrefix("read")), Set.copyOf(byPrefix));
+    }
+
+    @Test
+    void pagedCreationDateSearchesVisitEveryMatchOnce() {
+        ops.createDir("dir", "");
+        for (int i = 0; i < 8; i++) {
+            ops.createFile("f" + i, "dir", "txt");
+        }
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+        List<String> all = collect(token -> ops.searchByCreationDateRange(start, end, 3, token));
+        List<String> inDir = collect(token -> ops.searchByCreationDateRange(start, end, "dir", 3, token));
+
+        assertEquals(Set.copyOf(ops.searchByCreationDateRange(start, end)), Set.copyOf(all));
+        assertEquals(all.size(), new HashSet<>(all).size());
+        assertEquals(8, inDir.size());
+        assertEquals(8, new HashSet<>(inDir).size());
+    }
+
+    private static List<String> collect(Function<String, Page> pages) {
+        return collect(pages, null);
+    }
+
+    private static List<String> collect(Function<String, Page> pages, String token) {
+        List<String> items = new ArrayList<>();
+        do {
+            Page page = pages.apply(token);
+            items.addAll(page.getItems());
+            token = page.getNextPageToken();
+        } while (token != null);
+        return items;
+    }
+}
@@ -0,0 +1,252 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileTransferTest {
+
+    private static final long MIB = 1L << 20;
+
+    @TempDir
+    Path temp;
+
+    private LocalStorageContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // ── Copies ───────────────────────────────────────────────────────────────
+
+    @Test
+    void copyReplacesTheTargetWithTheSourceBytes() throws Exception {
+        byte[] bytes = random(3 * MIB + 17);
+        Path source = Files.write(temp.resolve("source.bin"), bytes);
+
+        for (TransferMode mode : TransferMode.values()) {
+            Path target = Files.write(temp.resolve("target-" + mode), random(5 * MIB));
+
+            assertEquals(bytes.length, FileTransfer.copy(source, target, mode));
+            assertArrayEquals(bytes, Files.readAllBytes(target));
+        }
+    }
+
+    @Test
+    void filesOnAnotherFileSystemAreCopiedThroughTheFallback() throws Exception {
+        byte[] bytes = random(MIB + 3);
+        Path source = Files.write(temp.resolve("source.bin"), bytes);
+        Path back = temp.resolve("back.bin");
+
+        try (FileSystem zip = FileSystems.newFileSystem(temp.resolve("other.zip"), Map.of("create", "true"))) {
+            Path inZip = zip.getPath("/copy.bin");
+
+            assertEquals(bytes.length, FileTransfer.copy(source, inZip, TransferMode.THROUGHPUT));
+            assertArrayEquals(bytes, Files.readAllBytes(inZip));
+            assertEquals(bytes.length, FileTransfer.copy(inZip, back, TransferMode.DEFAULT));
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(back));
+    }
+
+    @Test
+    void uploadDownloadAndCopyRoundTripTheContents() throws Exception {
+        Path root = Files.createDirectory(temp.resolve("store"));
+        context = new LocalStorageContext(new Storage("store", root.toString(), "id"));
+        LocalStorageOps ops = new LocalStorageOps(context);
+        ops.setTransferMode(TransferMode.THROUGHPUT);
+        ops.createDir("copies", "");
+        byte[] bytes = random(4 * MIB + 5);
+        Path source = Files.write(temp.resolve("source.bin"), bytes);
+        Path out = Files.createDirectory(temp.resolve("out"));
+
+        ops.uploadFile("data", source.toString(), "", "bin");
+        ops.copy("data.bin", "copies");
+        ops.download("copies/data.bin", out.toString());
+
+        assertArrayEquals(bytes, Files.readAllBytes(root.resolve("data.bin")));
+        assertArrayEquals(bytes, Files.readAllBytes(out.resolve("data.bin")));
+        assertEquals(2L * bytes.length, context.getQuota().usedBytes());
+    }
+
+    // ── Chunking ─────────────────────────────────────────────────────────────
+
+    @Test
+    void defaultModeMovesFixedChunks() throws Exception {
+        long size = 2 * FileTransfer.DEFAULT_CHUNK + 5;
+        List<Long> requests = new ArrayList<>();
+
+        assertEquals(size, transfer(size, TransferMode.DEFAULT, requests, count -> 0));
+        assertEquals(List.of(FileTransfer.DEFAULT_CHUNK, FileTransfer.DEFAULT_CHUNK, 5L), requests);
+    }
+
+    @Test
+    void throughputModeGrowsChunksWhileTheRateRisesAndShrinksWhenItFalls() throws Exception {
+        // Chunks up to 2 MiB take the same time, so doubling them doubles the rate; a 4 MiB
+        // chunk is ten times slower, so the rate drops and the next chunk is halved.
+        long size = 9 * MIB;
+        List<Long> requests = new ArrayList<>();
+
+        assertEquals(size, transfer(size, TransferMode.THROUGHPUT, requests, count -> count <= 2 * MIB ? 20 : 200));
+        assertEquals(List.of(MIB, 2 * MIB, 4 * MIB, 2 * MIB), requests);
+    }
+
+    /**
+     * Transfers a sparse file of {@code size} bytes, recording every chunk requested from the
+     * source and stalling each request for {@code millis(count)} milliseconds.
+     */
+    private long transfer(long size, TransferMode mode, List<Long> requests, LongUnaryOperator millis) throws IOException {
+        Path source = temp.resolve("sparse.bin");
+        try (RandomAccessFile file = new RandomAccessFile(source.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        try (FileChannel in = new RecordingChannel(FileChannel.open(source, StandardOpenOption.READ), requests, millis);
+             FileChannel out = FileChannel.open(temp.resolve("sink.bin"), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long moved = FileTransfer.transfer(in, out, in.size(), mode);
+            assertEquals(size, out.size());
+            return moved;
+        }
+    }
+
+    private static byte[] random(long length) {
+        byte[] bytes = new byte[(int) length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Source channel that records the count of every {@link #transferTo} call and delays it.
+     */
+    private static final class RecordingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final List<Long> requests;
+        private final LongUnaryOperator millis;
+
+        RecordingChannel(FileChannel delegate, List<Long> requests, LongUnaryOperator millis) {
+            this.delegate = delegate;
+            this.requests = requests;
+            this.millis = millis;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            requests.add(count);
+            long moved = delegate.transferTo(position, count, target);
+            try {
+                Thread.sleep(millis.applyAsLong(count));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return moved;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.metrics.MetricsRegistry;
+import storageSpec.metrics.MetricsStorageOps;
+import storageSpec.metrics.StorageMetrics;
+import storageSpec.metrics.StorageOperation;
+import storageSpec.ops.ByteRange;
+import storageSpec.ops.IStorageOps;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalStorageOpsTest {
+
+    private static final String[] ESCAPES = {"../../../outside", "..", ".", "a/b", "a\\b", "", ".storage"};
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private LocalStorageOps ops;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        ops = new LocalStorageOps(new LocalStorageContext(new Storage("store", root.toString(), "id")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ops.getContext().close();
+    }
+
+    // ── Entry names ──────────────────────────────────────────────────────────
+
+    @Test
+    void createDirRejectsNamesThatAreNotSingleElements() {
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.createDir(name, ""), name);
+        }
+        assertFalse(Files.exists(temp.resolve("outside")));
+
+        ops.createDir("dir", "");
+        assertTrue(Files.isDirectory(root.resolve("dir")));
+    }
+
+    @Test
+    void bulkCreateDirRejectsNamesThatAreNotSingleElements() throws Exception {
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.createDir(name, "", "d", 3), name);
+        }
+        assertThrows(StorageException.class, () -> ops.createDir("base", "", "../../outside", 3));
+        assertThrows(StorageException.class, () -> ops.createDir("base", "", "x/", 3));
+        assertFalse(Files.exists(temp.resolve("outside1")));
+        assertFalse(Files.exists(root.resolve("base")));
+
+        ops.createDir("base", "", "d", 3);
+        try (Stream<Path> children = Files.list(root.resolve("base"))) {
+            assertEquals(3, children.count());
+        }
+    }
+
+    @Test
+    void createFileRejectsNamesThatAreNotSingleElements() {
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.createFile(name, "", ""), name);
+        }
+        assertThrows(StorageException.class, () -> ops.createFile("../outside", "", "txt"));
+        assertFalse(Files.exists(temp.resolve("outside")));
+        assertFalse(Files.exists(temp.resolve("outside.txt")));
+
+        ops.createFile("file", "", "txt");
+        assertTrue(Files.isRegularFile(root.resolve("file.txt")));
+    }
+
+    @Test
+    void uploadRejectsNamesThatAreNotSingleElements() throws Exception {
+        Path source = Files.writeString(temp.resolve("source.txt"), "data");
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.uploadFile(name, source.toString(), "", ""), name);
+        }
+        assertFalse(Files.exists(temp.resolve("outside")));
+        assertEquals(0, ops.getContext().getQuota().usedBytes());
+
+        ops.uploadFile("copy", source.toString(), "", "txt");
+        assertEquals("data", Files.readString(root.resolve("copy.txt")));
+    }
+
+    @Test
+    void transfersReportTheirBytesToTheMetrics() throws Exception {
+        Path source = Files.writeString(temp.resolve("source.txt"), "data");
+        Files.createDirectory(root.resolve("dir"));
+        StorageMetrics metrics = new MetricsRegistry(false).forStorage("id");
+        IStorageOps measured = new MetricsStorageOps(ops, metrics);
+
+        measured.uploadFile("copy", source.toString(), "", "txt");
+        measured.copy("copy.txt", "dir");
+        measured.download("dir", temp.toString());
+
+        assertEquals(4, metrics.of(StorageOperation.UPLOAD_FILE).bytes());
+        assertEquals(4, metrics.of(StorageOperation.COPY).bytes());
+        assertEquals(4, metrics.of(StorageOperation.DOWNLOAD).bytes());
+    }
+
+    @Test
+    void openWriteRejectsNamesThatAreNotSingleElements() throws Exception {
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.openWrite(name, "", ""), name);
+        }
+        assertFalse(Files.exists(temp.resolve("outside")));
+
+        try (WritableByteChannel channel = ops.openWrite("out", "", "bin")) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        }
+        assertEquals(3, Files.size(root.resolve("out.bin")));
+    }
+
+    @Test
+    void renameRejectsNamesThatAreNotSingleElements() throws Exception {
+        Files.createDirectory(root.resolve("dir"));
+        for (String name : ESCAPES) {
+            assertThrows(StorageException.class, () -> ops.rename("dir", name), name);
+        }
+        assertTrue(Files.isDirectory(root.resolve("dir")));
+    }
+
+    // ── Ranged reads ─────────────────────────────────────────────────────────
+
+    @Test
+    void rangedReadsReturnTheRequestedBytes() throws Exception {
+        Files.write(root.resolve("data.bin"), new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+
+        ByteBuffer middle = ops.readRange("data.bin", 2, 3);
+        ByteBuffer tail = ops.readRange("data.bin", 6, 10);
+        List<ByteBuffer> ranges = ops.readRanges("data.bin", List.of(new ByteRange(0, 1), new ByteRange(7, 1)));
+
+        assertEquals(3, middle.remaining());
+        assertEquals(2, middle.get(0));
+        assertEquals(2, tail.remaining());
+        assertEquals(0, ranges.get(0).get(0));
+        assertEquals(7, ranges.get(1).get(0));
+        assertEquals(0, ops.readRange("data.bin", 8, 4).remaining());
+    }
+
+    @Test
+    void rangedReadsStayReadableAfterTheFileIsTruncated() throws Exception {
+        Files.write(root.resolve("data.bin"), new byte[1 << 16]);
+        ByteBuffer tail = ops.readRange("data.bin", (1 << 16) - 4096, 4096);
+        List<ByteBuffer> ranges = ops.readRanges("data.bin", List.of(new ByteRange(60_000, 1000)));
+
+        ops.openWrite("data", "", "bin").close();
+
+        assertEquals(0, Files.size(root.resolve("data.bin")));
+        assertEquals(4096, tail.remaining());
+        assertEquals(0, tail.get(4095));
+        assertEquals(1000, ranges.get(0).remaining());
+        assertTrue(tail.isReadOnly());
+    }
+
+    @Test
+    void rangedReadsRejectNegativeOffsetsAndLengths() throws Exception {
+        Files.write(root.resolve("data.bin"), new byte[8]);
+
+        assertThrows(StorageException.class, () -> ops.readRange("data.bin", -1, 4));
+        assertThrows(StorageException.class, () -> ops.readRange("data.bin", 0, -1));
+        assertThrows(StorageException.class, () -> ops.readRange("data.bin", 9, 1));
+        assertThrows(StorageException.class, () -> new ByteRange(-1, 1));
+    }
+
+    // ── Attributes ───────────────────────────────────────────────────────────
+
+    @Test
+    void attributesDescribeExistingEntriesOnly() throws Exception {
+        ops.createDir("dir", "");
+        Files.write(root.resolve("dir").resolve("a.bin"), new byte[7]);
+        Files.write(root.resolve("b.bin"), new byte[5]);
+
+        assertTrue(ops.fileExists("dir"));
+        assertTrue(ops.fileExists("b.bin"));
+        assertFalse(ops.fileExists("missing"));
+        assertFalse(ops.fileExists("../outside"));
+        assertFalse(ops.fileExists(".storage"));
+        assertFalse(ops.fileExists("bad\0name"));
+        assertTrue(ops.fileExists(""));
+        assertEquals(5, ops.getFileSize("b.bin"));
+        assertThrows(StorageException.class, () -> ops.getFileSize("dir"));
+        assertThrows(StorageException.class, () -> ops.getFileSize("missing"));
+        assertEquals(LocalDateTime.ofInstant(Files.getLastModifiedTime(root.resolve("b.bin")).toInstant(),
+                ZoneId.systemDefault()).toString(), ops.getModificationDate("b.bin"));
+        assertNotNull(LocalDateTime.parse(ops.getCreationDate("dir")));
+        assertNull(ops.getModificationDate("missing"));
+        assertNull(ops.getCreationDate("missing"));
+    }
+}
@@ -0,0 +1,99 @@
+package ops;
+
+import org.junit.jupiter.api.Test;
+import storageSpec.exception.StorageException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataFlusherTest {
+
+    @Test
+    void changesAreCoalescedUntilTheBarrier() {
+        AtomicInteger writes = new AtomicInteger();
+        MetadataFlusher flusher = new MetadataFlusher("test-flusher", writes::incrementAndGet,
+                FlushPolicy.interval(Duration.ofHours(1)));
+        try {
+            for (int i = 0; i < 10; i++) {
+                flusher.changed();
+            }
+            assertEquals(10, flusher.pendingChanges());
+
+            flusher.flush();
+            flusher.flush();
+            assertEquals(1, writes.get());
+            assertEquals(0, flusher.pendingChanges());
+        } finally {
+            flusher.close();
+        }
+    }
+
+    @Test
+    void changesAfterCloseAreWrittenSynchronously() {
+        AtomicInteger writes = new AtomicInteger();
+        MetadataFlusher flusher = new MetadataFlusher("test-flusher", writes::incrementAndGet,
+                FlushPolicy.changeCount(1, Duration.ofHours(1)));
+        flusher.close();
+
+        flusher.changed();
+        flusher.changed();
+
+        assertEquals(2, writes.get());
+        assertEquals(0, flusher.pendingChanges());
+    }
+
+    @Test
+    void unexpectedWriterFailuresDoNotStopTheIntervalFlushes() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        MetadataFlusher flusher = new MetadataFlusher("test-flusher", () -> {
+            if (writes.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk full");
+            }
+        }, FlushPolicy.interval(Duration.ofMillis(5)));
+        try {
+            flusher.changed();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (writes.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(writes.get() >= 2);
+        } finally {
+            flusher.close();
+        }
+    }
+
+    @Test
+    void failuresAreKeptUntilTheNextSuccessfulFlush() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch failed = new CountDownLatch(1);
+        MetadataFlusher flusher = new MetadataFlusher("test-flusher", () -> {
+            writes.incrementAndGet();
+            failed.countDown();
+            throw new IllegalStateException("disk full");
+        }, FlushPolicy.changeCount(1, Duration.ofHours(1)));
+        try {
+            flusher.changed();
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flusher.getLastFailure() == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(flusher.getLastFailure().getCause() instanceof IllegalStateException);
+        } finally {
+            assertThrows(IllegalStateException.class, flusher::close);
+        }
+    }
+
+    @Test
+    void subMillisecondIntervalsAreRejected() {
+        assertThrows(StorageException.class, () -> FlushPolicy.interval(Duration.ofNanos(500)));
+        assertThrows(StorageException.class, () -> FlushPolicy.changeCount(5, Duration.ZERO));
+        assertEquals(Duration.ofMillis(1), FlushPolicy.interval(Duration.ofMillis(1)).getInterval());
+    }
+}
@@ -0,0 +1,105 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTreeTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private LocalStorageOps ops;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        ops = new LocalStorageOps(new LocalStorageContext(new Storage("store", root.toString(), "id")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ops.getContext().close();
+    }
+
+    @Test
+    void copyAndDeleteTreesWithQuotaAndIndexes() throws Exception {
+        Path src = Files.createDirectories(root.resolve("src").resolve("deep"));
+        for (int i = 0; i < 150; i++) {
+            Files.write(src.resolve("f" + i + ".bin"), new byte[10]);
+        }
+        Files.createDirectory(root.resolve("dst"));
+        QuotaTracker quota = ops.getContext().getQuota();
+        assertEquals(1500, quota.reconcile());
+
+        ops.copy("src", "dst");
+        assertEquals(3000, quota.usedBytes());
+        assertEquals(2, ops.searchByName("f7.bin").size());
+
+        ops.delete("src");
+        assertFalse(Files.exists(root.resolve("src")));
+        assertEquals(1500, quota.usedBytes());
+        assertEquals(1, ops.searchByName("f7.bin").size());
+    }
+
+    @Test
+    void copiesSymbolicLinksAsLinks() throws Exception {
+        Path secret = Files.writeString(temp.resolve("secret.txt"), "outside the storage");
+        Path outsideDir = Files.createDirectory(temp.resolve("outside-dir"));
+        Files.writeString(outsideDir.resolve("inner.txt"), "also outside");
+        Path src = Files.createDirectory(root.resolve("src"));
+        Files.createSymbolicLink(src.resolve("file-link"), secret);
+        Files.createSymbolicLink(src.resolve("dir-link"), outsideDir);
+        Files.createDirectory(root.resolve("dst"));
+
+        ops.copy("src", "dst");
+        ops.copy("src/file-link", "");
+
+        Path copy = root.resolve("dst").resolve("src");
+        assertTrue(Files.isSymbolicLink(copy.resolve("file-link")));
+        assertEquals(secret, Files.readSymbolicLink(copy.resolve("file-link")));
+        assertTrue(Files.isSymbolicLink(copy.resolve("dir-link")));
+        assertTrue(Files.isSymbolicLink(root.resolve("file-link")));
+        assertEquals(0, ops.getContext().getQuota().usedBytes());
+
+        ops.delete("dst");
+        assertTrue(Files.isRegularFile(secret));
+        assertTrue(Files.isRegularFile(outsideDir.resolve("inner.txt")));
+    }
+
+    @Test
+    void operationsShareOnePoolPerParallelism() throws Exception {
+        Path src = Files.createDirectory(root.resolve("src"));
+        for (int i = 0; i < 10; i++) {
+            Files.createDirectory(src.resolve("d" + i));
+            Files.write(src.resolve("d" + i).resolve("f"), new byte[1]);
+        }
+        Set<String> pools = ConcurrentHashMap.newKeySet();
+        TreeOptions options = new TreeOptions();
+        options.setParallelism(3);
+        options.setProgressListener((entries, bytes) -> {
+            String name = Thread.currentThread().getName();
+            pools.add(name.substring(0, name.indexOf("-worker")));
+        });
+
+        for (int i = 0; i < 5; i++) {
+            Files.createDirectory(root.resolve("dst" + i));
+            ops.copy("src", "dst" + i, options);
+            ops.delete("dst" + i, options);
+        }
+
+        assertEquals(1, pools.size());
+    }
+}
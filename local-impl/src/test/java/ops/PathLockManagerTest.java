@@ -0,0 +1,103 @@
+package ops;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathLockManagerTest {
+
+    private final Path root = Path.of("/store");
+    private final PathLockManager locks = new PathLockManager(root);
+
+    @Test
+    void exclusiveDirectoryLockExcludesOperationsInsideIt() throws Exception {
+        CompletableFuture<Void> inside;
+        try (PathLockManager.Locks ignored = locks.exclusive(root.resolve("dir"))) {
+            inside = CompletableFuture.runAsync(() -> {
+                try (PathLockManager.Locks held = locks.shared(root.resolve("dir/file"))) {
+                    // acquired
+                }
+            });
+            assertThrows(TimeoutException.class, () -> inside.get(100, TimeUnit.MILLISECONDS));
+        }
+        inside.get(5, TimeUnit.SECONDS);
+        assertEquals(1, locks.contendedAcquisitions());
+        assertTrue(locks.totalWaitNanos() > 0);
+    }
+
+    @Test
+    void disjointSubtreesAndSharedLocksDoNotWait() throws Exception {
+        try (PathLockManager.Locks ignored = locks.exclusive(root.resolve("a/file"));
+             PathLockManager.Locks reading = locks.shared(root.resolve("b/file"))) {
+            CompletableFuture.runAsync(() -> {
+                try (PathLockManager.Locks held = locks.exclusive(root.resolve("c/file"));
+                     PathLockManager.Locks also = locks.shared(root.resolve("b/file"))) {
+                    // acquired
+                }
+            }).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, locks.contendedAcquisitions());
+    }
+
+    @Test
+    void pathsLockedInOppositeOrdersDoNotDeadlock() throws Exception {
+        Path a = root.resolve("x/a");
+        Path b = root.resolve("y/b");
+        CountDownLatch start = new CountDownLatch(1);
+        Runnable forward = () -> repeat(start, List.of(a, b));
+        Runnable backward = () -> repeat(start, List.of(b, a));
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(forward);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(backward);
+        start.countDown();
+
+        CompletableFuture.allOf(first, second).get(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void overlappingRequestsTakeEachStripeOnce() {
+        Path file = root.resolve("dir/file");
+        try (PathLockManager.Locks ignored = locks.lock(List.of(file, file.getParent()), List.of(file))) {
+            assertEquals(3, locks.acquisitions());
+        }
+    }
+
+    @Test
+    void closingTwiceReleasesOnce() throws Exception {
+        Path file = root.resolve("dir/file");
+        PathLockManager.Locks held = locks.exclusive(file);
+        held.close();
+        held.close();
+
+        CompletableFuture.runAsync(() -> {
+            try (PathLockManager.Locks again = locks.exclusive(file)) {
+                // acquired
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Locks {@code paths} exclusively many times in a row, in the given order.
+     */
+    private void repeat(CountDownLatch start, List<Path> paths) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            try (PathLockManager.Locks ignored = locks.lock(List.of(), paths)) {
+                // held
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ops;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Storage;
+import storageSpec.exception.StorageFullException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuotaTrackerTest {
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private Storage storage;
+    private LocalStorageContext context;
+    private LocalStorageOps ops;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectory(temp.resolve("store"));
+        Files.write(root.resolve("a.bin"), new byte[60]);
+        Files.createDirectory(root.resolve("dir"));
+        Files.write(root.resolve("dir").resolve("b.bin"), new byte[40]);
+        Files.createDirectory(root.resolve(LocalStorageContext.METADATA_DIR));
+        Files.write(root.resolve(LocalStorageContext.METADATA_DIR).resolve("users.meta"), new byte[1000]);
+        storage = new Storage("store", root.toString(), "id");
+        context = new LocalStorageContext(storage);
+        ops = new LocalStorageOps(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void existingTreeIsCountedByTheFirstPass() throws Exception {
+        storage.setStorageSize(150);
+        Path source = Files.write(temp.resolve("upload.bin"), new byte[60]);
+        assertEquals(100, context.getQuota().reconcile());
+
+        assertThrows(StorageFullException.class, () -> ops.uploadFile("up", source.toString(), "", "bin"));
+        assertEquals(100, context.getQuota().usedBytes());
+        assertEquals(100, storage.getUsedBytes());
+    }
+
+    @Test
+    void persistedUsageIsCorrectedInTheBackground() throws Exception {
+        storage.setUsedBytes(12345);
+        LocalStorageContext reopened = new LocalStorageContext(storage);
+        try {
+            QuotaTracker quota = reopened.getQuota();
+            for (int i = 0; i < 500 && !quota.isReconciled(); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(quota.isReconciled());
+            assertEquals(100, quota.usedBytes());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reconcileSkipsPassesThatOverlapAWrite() throws IOException {
+        QuotaTracker quota = context.getQuota();
+        assertEquals(100, quota.reconcile());
+
+        try (QuotaTracker.Reservation reservation = quota.reserve(30)) {
+            Files.write(root.resolve("c.bin"), new byte[30]);
+            assertEquals(100, quota.reconcile());
+            reservation.commit(30);
+        }
+        assertEquals(130, quota.usedBytes());
+        assertEquals(130, quota.reconcile());
+    }
+
+    @Test
+    void zeroByteReservationsSucceedWhenTheStorageIsFull() throws Exception {
+        storage.setStorageSize(100);
+        context.getQuota().reconcile();
+
+        ops.createFile("empty", "", "txt");
+        try (QuotaTracker.Reservation reservation = context.getQuota().reserve(0)) {
+            reservation.commit(0);
+        }
+        assertThrows(StorageFullException.class, () -> context.getQuota().reserve(1));
+
+        try (WritableByteChannel channel = ops.openWrite("stream", "", "bin")) {
+            assertThrows(StorageFullException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        }
+        assertTrue(Files.isRegularFile(root.resolve("empty.txt")));
+        assertEquals(100, context.getQuota().usedBytes());
+    }
+
+    @Test
+    void reservationsAreReleasedOnClose() throws Exception {
+        storage.setStorageSize(200);
+        QuotaTracker quota = context.getQuota();
+        quota.reconcile();
+
+        try (QuotaTracker.Reservation reservation = quota.reserve(100)) {
+            assertEquals(100, quota.reservedBytes());
+            assertThrows(StorageFullException.class, () -> quota.reserve(1));
+        }
+        assertEquals(0, quota.reservedBytes());
+        try (QuotaTracker.Reservation reservation = quota.reserve(100)) {
+            reservation.commit(30);
+        }
+        assertEquals(130, quota.usedBytes());
+        assertEquals(0, quota.reservedBytes());
+    }
+
+    @Test
+    void reconcileCorrectsDriftAndSkipsMetadata() throws IOException {
+        QuotaTracker quota = context.getQuota();
+        assertEquals(100, quota.reconcile());
+
+        Files.write(root.resolve("external.bin"), new byte[25]);
+        Files.delete(root.resolve("a.bin"));
+        assertEquals(65, quota.reconcile());
+        assertEquals(65, quota.usedBytes());
+    }
+}
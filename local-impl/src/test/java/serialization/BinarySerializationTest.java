@@ -0,0 +1,122 @@
+package serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.exception.StorageException;
+import storageSpec.serialization.StorageData;
+import storageSpec.serialization.UserData;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinarySerializationTest {
+
+    @TempDir
+    Path temp;
+
+    private final BinarySerialization serialization = new BinarySerialization();
+
+    @Test
+    void usersRoundTripWithTheirPrivileges() {
+        String file = temp.resolve("users.meta").toString();
+        Map<String, Privilege> privileges = new LinkedHashMap<>();
+        privileges.put("a", Privilege.READ);
+        privileges.put("b", Privilege.ADMIN);
+        serialization.saveUsers(file, List.of(user("alice", "pw", privileges), user("bob", null, Map.of())));
+
+        List<UserData> users = serialization.readSavedUsers(file);
+
+        assertEquals(2, users.size());
+        assertEquals("alice", users.get(0).getUserName());
+        assertEquals("pw", users.get(0).getPassword());
+        assertEquals(privileges, users.get(0).getStoragesAndPrivileges());
+        assertEquals("bob", users.get(1).getUserName());
+        assertNull(users.get(1).getPassword());
+        assertEquals(Map.of(), users.get(1).getStoragesAndPrivileges());
+        assertTrue(BinarySerialization.isBinary(Path.of(file)));
+    }
+
+    @Test
+    void appendedUsersAreReadAndStreamedByStorage() {
+        String file = temp.resolve("users.meta").toString();
+        serialization.saveUserData(file, "alice", "pw", Map.of("a", Privilege.READ), false);
+        serialization.saveUserData(file, "bob", "pw", Map.of("b", Privilege.READ), true);
+        serialization.saveUserData(file, "carol", "pw", Map.of("a", Privilege.UPLOAD), true);
+
+        assertEquals(3, serialization.readSavedUsers(file).size());
+        try (Stream<UserData> users = serialization.streamSavedUsers(file, "a")) {
+            assertEquals(List.of("alice", "carol"), users.map(UserData::getUserName).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void removingTheLastUserEmptiesTheFile() {
+        String file = temp.resolve("users.meta").toString();
+        serialization.saveUserData(file, "alice", "pw", Map.of("a", Privilege.READ), false);
+
+        serialization.updateUsers(file, List.of(), List.of("alice"));
+
+        assertTrue(serialization.readSavedUsers(file).isEmpty());
+    }
+
+    @Test
+    void storageRoundTripsWithLimitsAndExtensions() {
+        String file = temp.resolve("storage.meta").toString();
+        Storage storage = new Storage("name", temp.toString(), "id");
+        storage.setStorageSize(1_000);
+        storage.setUsedBytes(250);
+        storage.setForbiddenExtensions(List.of("exe", "bat"));
+        storage.setDirsMaxChildrenCount(Map.of("", 10, "docs/old", 3));
+        serialization.saveStorageData(file, storage);
+
+        StorageData data = serialization.readStorageData(file);
+
+        assertEquals("name", data.getStorageName());
+        assertEquals("id", data.getStorageID());
+        assertEquals(temp.toString(), data.getRootLocation());
+        assertEquals(1_000, data.getStorageSize());
+        assertEquals(250, data.getUsedBytes());
+        assertEquals(List.of("exe", "bat"), List.copyOf(data.getForbiddenExtensions()));
+        assertEquals(Map.of("", 10, "docs/old", 3), data.getDirsMaxChildrenCount());
+    }
+
+    @Test
+    void wrongKindsAndDamagedFilesAreRejected() throws Exception {
+        Path users = temp.resolve("users.meta");
+        Path storage = temp.resolve("storage.meta");
+        serialization.saveUsers(users.toString(), List.of(user("alice", "pw", Map.of("a", Privilege.READ))));
+        serialization.saveStorageData(storage.toString(), new Storage("name", temp.toString(), "id"));
+
+        assertThrows(StorageException.class, () -> serialization.readStorageData(users.toString()));
+        assertThrows(StorageException.class, () -> serialization.readSavedUsers(storage.toString()));
+
+        byte[] bytes = Files.readAllBytes(users);
+        Files.write(users, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(StorageException.class, () -> serialization.readSavedUsers(users.toString()));
+
+        Path json = Files.writeString(temp.resolve("users.json"), "[]");
+        assertFalse(BinarySerialization.isBinary(json));
+    }
+
+    private static UserData user(String name, String password, Map<String, Privilege> privileges) {
+        UserData user = new UserData();
+        user.setUserName(name);
+        user.setPassword(password);
+        user.setStoragesAndPrivileges(privileges);
+        return user;
+    }
+}
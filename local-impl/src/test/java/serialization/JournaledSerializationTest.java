@@ -0,0 +1,127 @@
+package serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storageSpec.Privilege;
+import storageSpec.serialization.UserData;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournaledSerializationTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void entriesAreReplayedOverTheSnapshotAfterReopening() {
+        String file = temp.resolve("users.meta").toString();
+        JournaledSerialization journal = journal(new BinarySerialization());
+        journal.saveUsers(file, List.of(user("a", "1"), user("b", "1")));
+        journal.updateUsers(file, List.of(user("c", "1"), user("a", "2")), List.of("b"));
+        journal.close();
+
+        List<UserData> users = journal(new BinarySerialization()).readSavedUsers(file);
+
+        assertEquals(Set.of("a", "c"), names(users));
+        assertEquals("2", users.stream().filter(u -> u.getUserName().equals("a")).findFirst().get().getPassword());
+    }
+
+    @Test
+    void overwriteIsNotUndoneByEntriesJournaledBeforeIt() {
+        String file = temp.resolve("users.meta").toString();
+        CrashingSnapshots snapshots = new CrashingSnapshots();
+        JournaledSerialization journal = journal(snapshots);
+        journal.saveUsers(file, List.of(user("a", "1")));
+        journal.updateUsers(file, List.of(user("stale", "1")), List.of());
+
+        snapshots.crashAfterSaving = "fresh";
+        assertThrows(IllegalStateException.class, () -> journal.saveUsers(file, List.of(user("fresh", "1"))));
+        journal.close();
+
+        assertEquals(Set.of("fresh"), names(journal(new BinarySerialization()).readSavedUsers(file)));
+    }
+
+    @Test
+    void tornOrCorruptTailIsCutOff() throws Exception {
+        Path file = temp.resolve("users.meta");
+        JournaledSerialization journal = journal(new BinarySerialization());
+        journal.saveUsers(file.toString(), List.of());
+        journal.updateUsers(file.toString(), List.of(user("a", "1")), List.of());
+        journal.updateUsers(file.toString(), List.of(user("b", "1")), List.of());
+        journal.close();
+
+        Path journalFile = temp.resolve("users.meta.journal");
+        byte[] bytes = Files.readAllBytes(journalFile);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(journalFile, bytes);
+        Files.write(journalFile, new byte[]{0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+
+        JournaledSerialization reopened = journal(new BinarySerialization());
+        assertEquals(Set.of("a"), names(reopened.readSavedUsers(file.toString())));
+        reopened.updateUsers(file.toString(), List.of(user("c", "1")), List.of());
+        reopened.close();
+        assertEquals(Set.of("a", "c"), names(journal(new BinarySerialization()).readSavedUsers(file.toString())));
+    }
+
+    @Test
+    void compactionFoldsTheJournalIntoTheSnapshot() {
+        String file = temp.resolve("users.meta").toString();
+        JournaledSerialization journal = journal(new BinarySerialization());
+        journal.saveUsers(file, List.of(user("a", "1")));
+        journal.updateUsers(file, List.of(user("b", "1")), List.of("a"));
+
+        journal.compact(file);
+        journal.close();
+
+        assertEquals(1, journal.compactions());
+        assertEquals(Set.of("b"), names(new BinarySerialization().readSavedUsers(file)));
+        assertTrue(Files.exists(temp.resolve("users.meta.journal")));
+        assertEquals(Set.of("b"), names(journal(new BinarySerialization()).readSavedUsers(file)));
+    }
+
+    private static JournaledSerialization journal(BinarySerialization snapshots) {
+        return new JournaledSerialization(snapshots, JournaledSerialization.DEFAULT_COMPACTION_THRESHOLD,
+                Duration.ofHours(1));
+    }
+
+    private static UserData user(String name, String password) {
+        UserData user = new UserData();
+        user.setUserName(name);
+        user.setPassword(password);
+        user.setStoragesAndPrivileges(Map.of("id", Privilege.READ));
+        return user;
+    }
+
+    private static Set<String> names(List<UserData> users) {
+        return users.stream().map(UserData::getUserName).collect(Collectors.toSet());
+    }
+
+    /**
+     * Snapshot writer that fails right after writing a snapshot containing a given user, as
+     * if the process died before the journal could be touched.
+     */
+    private static final class CrashingSnapshots extends BinarySerialization {
+
+        String crashAfterSaving;
+
+        @Override
+        public void saveUsers(String filePath, Collection<UserData> users) {
+            super.saveUsers(filePath, users);
+            if (users.stream().anyMatch(user -> user.getUserName().equals(crashAfterSaving))) {
+                throw new IllegalStateException("crash");
+            }
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package storageSpec;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import storageSpec.ops.IStorageAdminOps;
 import storageSpec.ops.IStorageOps;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
 
 /**
  * Data container representing a storage instance.
@@ -17,11 +22,22 @@ import java.util.Map;
  * forbidden extensions, per-directory child limits). Does <em>not</em> contain
  * any business logic — operations are in {@link IStorageOps} and
  * {@link IStorageAdminOps}.
+ * <p>
+ * Safe to share between concurrent sessions. Collection-valued properties are immutable
+ * snapshots held in volatile fields: readers get a consistent view without locking, and
+ * every mutation publishes a new snapshot with an atomic compare-and-set.
  */
 @Getter
 @Setter
 public class Storage {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Storage, Map> LIMITS =
+            AtomicReferenceFieldUpdater.newUpdater(Storage.class, Map.class, "dirsMaxChildrenCount");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Storage, Map> USERS =
+            AtomicReferenceFieldUpdater.newUpdater(Storage.class, Map.class, "usersByName");
+
     /**
      * Human-readable name of the storage.
      */
@@ -41,23 +57,34 @@ public class Storage {
      * Maximum allowed total size of the storage in bytes.
      * {@code 0} means unlimited.
      */
-    private long storageSize;
+    private volatile long storageSize;
+
+    /**
+     * Bytes currently used by files in the storage. Maintained by the back-end
+     * and persisted with the rest of the metadata.
+     */
+    private volatile long usedBytes;
 
     /**
      * File extensions that are forbidden in this storage (without leading dot).
+     * Immutable snapshot; replaced as a whole on every change.
      */
-    private Collection<String> forbiddenExtensions = new ArrayList<>();
+    private volatile Collection<String> forbiddenExtensions = List.of();
 
     /**
      * Maximum number of direct children allowed per directory.
      * Key = directory path/id, Value = max children count.
+     * Immutable snapshot; replaced as a whole on every change.
      */
-    private Map<String, Integer> dirsMaxChildrenCount = new HashMap<>();
+    private volatile Map<String, Integer> dirsMaxChildrenCount = Map.of();
 
     /**
-     * All users who have access to this storage.
+     * All users who have access to this storage, indexed by user name in insertion order.
+     * Immutable snapshot; replaced as a whole on every change.
      */
-    private Collection<User> users = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, User> usersByName = Map.of();
 
     /**
      * Constructs a storage with the given name, root location, and ID.
@@ -72,13 +99,138 @@ public class Storage {
         this.storageId = storageID;
     }
 
+    // ── Copy-on-write mutators ───────────────────────────────────────────────
+
+    /**
+     * Replaces the forbidden extensions with a copy of {@code forbiddenExtensions}. A
+     * {@code null} collection means none.
+     *
+     * @param forbiddenExtensions extensions without leading dot, or {@code null}
+     */
+    public void setForbiddenExtensions(Collection<String> forbiddenExtensions) {
+        this.forbiddenExtensions = forbiddenExtensions == null ? List.of() : List.copyOf(forbiddenExtensions);
+    }
+
+    /**
+     * Replaces all per-directory child limits with a copy of {@code dirsMaxChildrenCount}. A
+     * {@code null} map means no limits.
+     *
+     * @param dirsMaxChildrenCount directory path/id → max children count, or {@code null}
+     */
+    public void setDirsMaxChildrenCount(Map<String, Integer> dirsMaxChildrenCount) {
+        this.dirsMaxChildrenCount = dirsMaxChildrenCount == null ? Map.of() : Map.copyOf(dirsMaxChildrenCount);
+    }
+
+    /**
+     * Sets (or overwrites) the child limit of one directory.
+     *
+     * @param dirKey   directory path/id
+     * @param maxCount max children count
+     */
+    public void setDirMaxChildrenCount(String dirKey, int maxCount) {
+        updateLimits(current -> {
+            Map<String, Integer> next = new HashMap<>(current);
+            next.put(dirKey, maxCount);
+            return Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Atomically replaces the child limits with {@code change} applied to the current ones.
+     * {@code change} may run more than once under contention, and returns its argument to
+     * leave the limits as they are.
+     *
+     * @param change maps the current limits to the new ones
+     */
+    public void updateDirsMaxChildrenCount(UnaryOperator<Map<String, Integer>> change) {
+        updateLimits(current -> {
+            Map<String, Integer> next = change.apply(current);
+            return next == current ? current : Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Removes the child limit of one directory, if any.
+     *
+     * @param dirKey directory path/id
+     */
+    public void removeDirMaxChildrenCount(String dirKey) {
+        updateLimits(current -> {
+            if (!current.containsKey(dirKey)) {
+                return current;
+            }
+            Map<String, Integer> next = new HashMap<>(current);
+            next.remove(dirKey);
+            return Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Returns all users who have access to this storage, in the order they were added.
+     *
+     * @return immutable snapshot of the users
+     */
+    public Collection<User> getUsers() {
+        return usersByName.values();
+    }
+
+    /**
+     * Looks up a user by login name in constant time.
+     *
+     * @param userName login name
+     * @return the user, or {@code null} if there is no such user
+     */
+    public User findUser(String userName) {
+        return usersByName.get(userName);
+    }
+
+    /**
+     * Replaces the user list with {@code users}. A later user replaces an earlier one
+     * with the same name.
+     *
+     * @param users users with access to this storage
+     */
+    public void setUsers(Collection<User> users) {
+        Map<String, User> next = new LinkedHashMap<>();
+        for (User user : users) {
+            next.put(user.getUserName(), user);
+        }
+        this.usersByName = Collections.unmodifiableMap(next);
+    }
+
     /**
-     * Adds a user to this storage's user list.
+     * Adds a user to this storage's user list, replacing any user with the same name.
      *
      * @param user the user to add
      */
     public void addUser(User user) {
-        this.users.add(user);
+        updateUsers(current -> {
+            Map<String, User> next = new LinkedHashMap<>(current);
+            next.put(user.getUserName(), user);
+            return Collections.unmodifiableMap(next);
+        });
+    }
+
+    /**
+     * Adds a user to this storage's user list unless a user with the same name is already
+     * there. The check and the insertion are one atomic step.
+     *
+     * @param user the user to add
+     * @return {@code true} if the user was added, {@code false} if the name was taken
+     */
+    public boolean addUserIfAbsent(User user) {
+        boolean[] added = new boolean[1];
+        updateUsers(current -> {
+            added[0] = false;
+            if (current.containsKey(user.getUserName())) {
+                return current;
+            }
+            Map<String, User> next = new LinkedHashMap<>(current);
+            next.put(user.getUserName(), user);
+            added[0] = true;
+            return Collections.unmodifiableMap(next);
+        });
+        return added[0];
     }
 
     /**
@@ -87,6 +239,31 @@ public class Storage {
      * @param user the user to remove
      */
     public void removeUser(User user) {
-        this.users.remove(user);
+        updateUsers(current -> {
+            if (current.get(user.getUserName()) != user) {
+                return current;
+            }
+            Map<String, User> next = new LinkedHashMap<>(current);
+            next.remove(user.getUserName());
+            return Collections.unmodifiableMap(next);
+        });
+    }
+
+    private void updateLimits(UnaryOperator<Map<String, Integer>> change) {
+        Map<String, Integer> current;
+        Map<String, Integer> next;
+        do {
+            current = dirsMaxChildrenCount;
+            next = change.apply(current);
+        } while (next != current && !LIMITS.compareAndSet(this, current, next));
+    }
+
+    private void updateUsers(UnaryOperator<Map<String, User>> change) {
+        Map<String, User> current;
+        Map<String, User> next;
+        do {
+            current = usersByName;
+            next = change.apply(current);
+        } while (next != current && !USERS.compareAndSet(this, current, next));
     }
 }
@@ -0,0 +1,96 @@
+package storageSpec;
+
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+import storageSpec.ops.IStorageOps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects mutating operations and submits them in one {@link IStorageOps#executeBatch} call.
+ * <p>
+ * Obtained from {@link StorageSession#batch()}; the session checks privileges once for the
+ * whole batch instead of once per call.
+ * <pre>{@code
+ * BulkOperationResult result = session.batch()
+ *         .createDir("2024", "reports")
+ *         .uploadFile("q1", "/tmp/q1.csv", "reports/2024", "csv")
+ *         .rename("reports/2024/q1.csv", "q1-final.csv")
+ *         .submit();
+ * }</pre>
+ * A builder is not thread-safe and may be submitted once.
+ */
+public class StorageBatch {
+
+    private final IStorageOps target;
+    private final List<BatchOperation> operations = new ArrayList<>();
+
+    /**
+     * Creates an empty batch that will be submitted to {@code target}.
+     *
+     * @param target operations that execute the batch
+     */
+    public StorageBatch(IStorageOps target) {
+        this.target = target;
+    }
+
+    /**
+     * @see IStorageOps#createDir(String, String)
+     */
+    public StorageBatch createDir(String dirName, String path) {
+        return add(BatchOperation.createDir(dirName, path));
+    }
+
+    /**
+     * @see IStorageOps#createFile(String, String, String)
+     */
+    public StorageBatch createFile(String fileName, String path, String fileType) {
+        return add(BatchOperation.createFile(fileName, path, fileType));
+    }
+
+    /**
+     * @see IStorageOps#uploadFile(String, String, String, String)
+     */
+    public StorageBatch uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
+        return add(BatchOperation.uploadFile(fileName, sourcePath, destinationPath, fileType));
+    }
+
+    /**
+     * @see IStorageOps#rename(String, String)
+     */
+    public StorageBatch rename(String path, String newName) {
+        return add(BatchOperation.rename(path, newName));
+    }
+
+    /**
+     * Appends an already built operation.
+     *
+     * @param operation operation to append
+     * @return this builder
+     */
+    public StorageBatch add(BatchOperation operation) {
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Returns the number of operations collected so far.
+     *
+     * @return operation count
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Executes the collected operations.
+     *
+     * @return per-operation outcome, keyed as described in {@link IStorageOps#executeBatch}
+     * @throws storageSpec.exception.StoragePermissionException if the user may not perform
+     *                                                          every operation in the batch
+     */
+    public BulkOperationResult submit() {
+        return target.executeBatch(List.copyOf(operations));
+    }
+}
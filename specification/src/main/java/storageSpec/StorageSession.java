@@ -2,12 +2,23 @@ package storageSpec;
 
 import lombok.Getter;
 import storageSpec.exception.StoragePermissionException;
+import storageSpec.ops.AsyncStorageOps;
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+import storageSpec.ops.ByteRange;
+import storageSpec.ops.IAsyncStorageOps;
 import storageSpec.ops.IStorageAdminOps;
 import storageSpec.ops.IStorageOps;
+import storageSpec.ops.Page;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Binds a {@link User} to an active {@link Storage} and enforces privilege checks
@@ -31,6 +42,11 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
     private final Storage storage;
     private final IStorageOps ops;
     private final IStorageAdminOps admin;
+    /**
+     * Run after every passed privilege check, or {@code null}.
+     */
+    private final Runnable afterCheck;
+    private volatile IAsyncStorageOps async;
 
     /**
      * Creates a new session binding a user to a storage through the given operation delegates.
@@ -42,10 +58,87 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
      */
     public StorageSession(User currentUser, Storage storage,
                           IStorageOps ops, IStorageAdminOps admin) {
+        this(currentUser, storage, ops, admin, null);
+    }
+
+    private StorageSession(User currentUser, Storage storage,
+                           IStorageOps ops, IStorageAdminOps admin, Runnable afterCheck) {
         this.currentUser = currentUser;
         this.storage = storage;
         this.ops = ops;
         this.admin = admin;
+        this.afterCheck = afterCheck;
+    }
+
+    /**
+     * Returns a session for the same user, storage and back-end that runs {@code afterCheck}
+     * whenever a privilege check passes, right before the back-end is called — e.g. to tell
+     * the check and the back-end apart when timing a call. The hook never sees the back-end,
+     * so it cannot get around the checks. This session is unaffected.
+     *
+     * @param afterCheck hook to run on the calling thread
+     * @return the new session
+     */
+    public StorageSession withCheckHook(Runnable afterCheck) {
+        return new StorageSession(currentUser, storage, ops, admin, afterCheck);
+    }
+
+    // ── Async access ─────────────────────────────────────────────────────────
+
+    /**
+     * Returns a non-blocking view of this session that runs every call on its own virtual
+     * thread. Privilege checks are the same as for the blocking methods; a failed check
+     * completes the returned future exceptionally with {@link StoragePermissionException}.
+     *
+     * @return the session's shared async facade
+     */
+    public IAsyncStorageOps async() {
+        IAsyncStorageOps result = async;
+        if (result == null) {
+            synchronized (this) {
+                result = async;
+                if (result == null) {
+                    result = new AsyncStorageOps(this);
+                    async = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a non-blocking view of this session that runs on the given executor.
+     *
+     * @param executor    executor that runs each call
+     * @param maxInFlight maximum number of calls running at the same time
+     * @return a new async facade
+     */
+    public IAsyncStorageOps async(Executor executor, int maxInFlight) {
+        return new AsyncStorageOps(this, executor, maxInFlight);
+    }
+
+    // ── Batches ──────────────────────────────────────────────────────────────
+
+    /**
+     * Starts a batch of mutating operations to be submitted together. Privileges are checked
+     * once, on submission, against the most demanding operation in the batch.
+     *
+     * @return an empty batch bound to this session
+     */
+    public StorageBatch batch() {
+        return new StorageBatch(this);
+    }
+
+    @Override
+    public BulkOperationResult executeBatch(List<BatchOperation> operations) {
+        Privilege required = Privilege.READ;
+        for (BatchOperation operation : operations) {
+            if (!required.satisfies(operation.requiredPrivilege())) {
+                required = operation.requiredPrivilege();
+            }
+        }
+        require(required);
+        return ops.executeBatch(operations);
     }
 
     // ── Privilege helper ─────────────────────────────────────────────────────
@@ -55,6 +148,9 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
         if (actual == null || !actual.satisfies(required)) {
             throw new StoragePermissionException(required, actual);
         }
+        if (afterCheck != null) {
+            afterCheck.run();
+        }
     }
 
     // ── IStorageOperations — directory ops ───────────────────────────────────
@@ -86,9 +182,9 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
     }
 
     @Override
-    public void move(Collection<String> filePaths, String destinationPath) {
+    public BulkOperationResult move(Collection<String> filePaths, String destinationPath) {
         require(Privilege.UPLOAD);
-        ops.move(filePaths, destinationPath);
+        return ops.move(filePaths, destinationPath);
     }
 
     @Override
@@ -121,6 +217,32 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
         ops.copy(sourcePath, destinationPath);
     }
 
+    // ── IStorageOperations — streaming ───────────────────────────────────────
+
+    @Override
+    public ReadableByteChannel openRead(String path) {
+        require(Privilege.DOWNLOAD);
+        return ops.openRead(path);
+    }
+
+    @Override
+    public WritableByteChannel openWrite(String fileName, String destinationPath, String fileType) {
+        require(Privilege.UPLOAD);
+        return ops.openWrite(fileName, destinationPath, fileType);
+    }
+
+    @Override
+    public ByteBuffer readRange(String path, long offset, int length) {
+        require(Privilege.DOWNLOAD);
+        return ops.readRange(path, offset, length);
+    }
+
+    @Override
+    public List<ByteBuffer> readRanges(String path, List<ByteRange> ranges) {
+        require(Privilege.DOWNLOAD);
+        return ops.readRanges(path, ranges);
+    }
+
     // ── IStorageOperations — search & query ──────────────────────────────────
 
     @Override
@@ -129,24 +251,72 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
         return ops.listFiles(dirPath);
     }
 
+    @Override
+    public Page listFiles(String dirPath, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.listFiles(dirPath, pageSize, pageToken);
+    }
+
+    @Override
+    public Stream<String> streamFiles(String dirPath) {
+        require(Privilege.READ);
+        return ops.streamFiles(dirPath);
+    }
+
     @Override
     public List<String> listDirs(String dirPath) {
         require(Privilege.READ);
         return ops.listDirs(dirPath);
     }
 
+    @Override
+    public Page listDirs(String dirPath, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.listDirs(dirPath, pageSize, pageToken);
+    }
+
+    @Override
+    public Stream<String> streamDirs(String dirPath) {
+        require(Privilege.READ);
+        return ops.streamDirs(dirPath);
+    }
+
     @Override
     public List<String> searchByName(String name) {
         require(Privilege.READ);
         return ops.searchByName(name);
     }
 
+    @Override
+    public Page searchByName(String name, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.searchByName(name, pageSize, pageToken);
+    }
+
+    @Override
+    public List<String> searchByNamePrefix(String prefix) {
+        require(Privilege.READ);
+        return ops.searchByNamePrefix(prefix);
+    }
+
+    @Override
+    public Page searchByNamePrefix(String prefix, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.searchByNamePrefix(prefix, pageSize, pageToken);
+    }
+
     @Override
     public List<String> searchByExtension(String extension, String dirPath) {
         require(Privilege.READ);
         return ops.searchByExtension(extension, dirPath);
     }
 
+    @Override
+    public Page searchByExtension(String extension, String dirPath, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.searchByExtension(extension, dirPath, pageSize, pageToken);
+    }
+
     @Override
     public List<String> listFilesSortedByName(String dirPath) {
         require(Privilege.READ);
@@ -159,18 +329,48 @@ public class StorageSession implements IStorageOps, IStorageAdminOps {
         return ops.listFilesSortedByDate(dirPath);
     }
 
+    @Override
+    public List<String> listNewestFiles(String dirPath, int count) {
+        require(Privilege.READ);
+        return ops.listNewestFiles(dirPath, count);
+    }
+
     @Override
     public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end) {
         require(Privilege.READ);
         return ops.searchByCreationDateRange(start, end);
     }
 
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit) {
+        require(Privilege.READ);
+        return ops.searchByCreationDateRange(start, end, limit);
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.searchByCreationDateRange(start, end, pageSize, pageToken);
+    }
+
     @Override
     public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath) {
         require(Privilege.READ);
         return ops.searchByCreationDateRange(start, end, dirPath);
     }
 
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit) {
+        require(Privilege.READ);
+        return ops.searchByCreationDateRange(start, end, dirPath, limit);
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken) {
+        require(Privilege.READ);
+        return ops.searchByCreationDateRange(start, end, dirPath, pageSize, pageToken);
+    }
+
     @Override
     public String getModificationDate(String path) {
         require(Privilege.READ);
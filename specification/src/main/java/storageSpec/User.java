@@ -5,8 +5,11 @@ import lombok.Setter;
 import storageSpec.ops.IStorageAdminOps;
 import storageSpec.ops.IStorageOps;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
 
 /**
  * Simple principal: credentials + a map of storage-id → privilege.
@@ -14,11 +17,22 @@ import java.util.Map;
  * This class holds <em>no</em> business logic or file-system operations.
  * All operations are performed through {@link IStorageOps} and
  * {@link IStorageAdminOps}, with privilege enforcement in {@link StorageSession}.
+ * <p>
+ * The privilege map is an immutable snapshot replaced atomically on every change, so
+ * privilege checks from concurrent sessions never lock and never see a partial update. The
+ * password is volatile too, and can be {@linkplain #compareAndSetPassword replaced
+ * conditionally}, e.g. to upgrade it to a hash without undoing a concurrent change.
  */
 @Getter
 @Setter
 public class User {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<User, Map> PRIVILEGES =
+            AtomicReferenceFieldUpdater.newUpdater(User.class, Map.class, "storagesAndPrivileges");
+    private static final AtomicReferenceFieldUpdater<User, String> PASSWORD =
+            AtomicReferenceFieldUpdater.newUpdater(User.class, String.class, "password");
+
     /**
      * Login name.
      */
@@ -27,12 +41,13 @@ public class User {
     /**
      * Password. Implementations should store a hash rather than plain text.
      */
-    private String password;
+    private volatile String password;
 
     /**
      * Map of storageID → {@link Privilege} this user holds for each storage.
+     * Immutable snapshot; replaced as a whole on every change.
      */
-    private Map<String, Privilege> storagesAndPrivileges = new HashMap<>();
+    private volatile Map<String, Privilege> storagesAndPrivileges = Map.of();
 
     /**
      * Constructs a user with the given credentials.
@@ -52,7 +67,11 @@ public class User {
      * @param privilege privilege level
      */
     public void addStorage(String storageId, Privilege privilege) {
-        storagesAndPrivileges.put(storageId, privilege);
+        updatePrivileges(current -> {
+            Map<String, Privilege> next = new HashMap<>(current);
+            next.put(storageId, privilege);
+            return Collections.unmodifiableMap(next);
+        });
     }
 
     /**
@@ -61,7 +80,37 @@ public class User {
      * @param storageId storage identifier
      */
     public void removeStorage(String storageId) {
-        storagesAndPrivileges.remove(storageId);
+        updatePrivileges(current -> {
+            if (!current.containsKey(storageId)) {
+                return current;
+            }
+            Map<String, Privilege> next = new HashMap<>(current);
+            next.remove(storageId);
+            return Collections.unmodifiableMap(next);
+        });
+    }
+
+    /**
+     * Replaces the privilege map with a copy of {@code storagesAndPrivileges}. A
+     * {@code null} map means no privileges; {@code null} values are kept as they are.
+     *
+     * @param storagesAndPrivileges storageID → privilege, or {@code null}
+     */
+    public void setStoragesAndPrivileges(Map<String, Privilege> storagesAndPrivileges) {
+        this.storagesAndPrivileges = storagesAndPrivileges == null
+                ? Map.of()
+                : Collections.unmodifiableMap(new HashMap<>(storagesAndPrivileges));
+    }
+
+    /**
+     * Replaces the password only if it is still {@code expected}.
+     *
+     * @param expected password the caller last read
+     * @param password new password
+     * @return {@code true} if the password was replaced
+     */
+    public boolean compareAndSetPassword(String expected, String password) {
+        return PASSWORD.compareAndSet(this, expected, password);
     }
 
     /**
@@ -74,5 +123,13 @@ public class User {
     public Privilege getPrivilegeFor(String storageId) {
         return storagesAndPrivileges.get(storageId);
     }
-}
 
+    private void updatePrivileges(UnaryOperator<Map<String, Privilege>> change) {
+        Map<String, Privilege> current;
+        Map<String, Privilege> next;
+        do {
+            current = storagesAndPrivileges;
+            next = change.apply(current);
+        } while (next != current && !PRIVILEGES.compareAndSet(this, current, next));
+    }
+}
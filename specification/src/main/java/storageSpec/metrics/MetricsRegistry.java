@@ -0,0 +1,242 @@
+package storageSpec.metrics;
+
+import storageSpec.StorageSession;
+import storageSpec.exception.StorageException;
+import storageSpec.ops.IStorageOps;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the {@link StorageMetrics} of every instrumented storage and exports them.
+ * <p>
+ * Storages are instrumented with {@link #instrument}, which wraps a session in a
+ * {@link MetricsStorageOps}. When JMX export is enabled, each storage's operations are
+ * registered as {@link OperationMetricsMXBean}s on the platform MBean server as soon as the
+ * storage is first seen. Any number of {@link MetricsSink}s can additionally receive
+ * periodic snapshots through {@link #startReporting}.
+ */
+public final class MetricsRegistry {
+
+    /**
+     * JMX domain of the registered MXBeans.
+     */
+    public static final String JMX_DOMAIN = "storageSpec";
+
+    private final boolean jmx;
+    private final ConcurrentHashMap<String, StorageMetrics> storages = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MetricsSink, ScheduledExecutorService> reporters = new ConcurrentHashMap<>();
+    /**
+     * Names of the MXBeans this registry registered itself; beans that were already present
+     * (another registry's) are neither tracked nor unregistered on {@link #close}.
+     */
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a registry.
+     *
+     * @param jmx whether to register MXBeans on the platform MBean server
+     */
+    public MetricsRegistry(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    /**
+     * Wraps the session's operations so that every call is measured under its storage.
+     *
+     * @param session session to instrument
+     * @return measured view of the session; privilege failures are counted as errors
+     */
+    public IStorageOps instrument(StorageSession session) {
+        return new MetricsStorageOps(session, forStorage(session.getStorage().getStorageId()));
+    }
+
+    /**
+     * Returns the statistics of a storage, creating (and registering) them on first use.
+     *
+     * @param storageId storage ID
+     * @return live statistics
+     * @throws StorageException if JMX registration fails
+     */
+    public StorageMetrics forStorage(String storageId) {
+        StorageMetrics metrics = storages.get(storageId);
+        return metrics != null ? metrics : storages.computeIfAbsent(storageId, this::create);
+    }
+
+    /**
+     * Returns the statistics of every storage seen so far.
+     *
+     * @return storage ID → statistics
+     */
+    public Map<String, StorageMetrics> storages() {
+        return Map.copyOf(storages);
+    }
+
+    // ── Export ───────────────────────────────────────────────────────────────
+
+    /**
+     * Sends the current values of every called operation to {@code sink}.
+     *
+     * @param sink destination
+     */
+    public void report(MetricsSink sink) {
+        for (StorageMetrics metrics : storages.values()) {
+            metrics.report(sink);
+        }
+    }
+
+    /**
+     * Starts a daemon thread that {@linkplain #report reports} to {@code sink} at a fixed
+     * interval. Exceptions thrown by the sink are swallowed so that reporting continues.
+     *
+     * @param sink     destination
+     * @param interval time between reports
+     */
+    public void startReporting(MetricsSink sink, Duration interval) {
+        stopReporting(sink);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        reporter.scheduleWithFixedDelay(() -> {
+            try {
+                report(sink);
+            } catch (RuntimeException ignored) {
+                // a failing sink must not stop the schedule — next pass retries
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        reporters.put(sink, reporter);
+    }
+
+    /**
+     * Stops periodic reporting to {@code sink}, if running.
+     *
+     * @param sink destination
+     */
+    public void stopReporting(MetricsSink sink) {
+        ScheduledExecutorService reporter = reporters.remove(sink);
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops all reporting and unregisters every MXBean this registry registered.
+     */
+    public void close() {
+        reporters.keySet().forEach(this::stopReporting);
+        if (jmx) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : registered) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException ignored) {
+                    // already gone
+                }
+                registered.remove(name);
+            }
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private StorageMetrics create(String storageId) {
+        StorageMetrics metrics = new StorageMetrics(storageId);
+        if (jmx) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                for (StorageOperation operation : StorageOperation.values()) {
+                    ObjectName name = objectName(storageId, operation);
+                    try {
+                        server.registerMBean(new OperationMetrics(metrics.of(operation)), name);
+                        registered.add(name);
+                    } catch (InstanceAlreadyExistsException ignored) {
+                        // owned by another registry — left alone, and left for it to unregister
+                    }
+                }
+            } catch (JMException e) {
+                throw new StorageException("Failed to register metrics of storage '" + storageId + "'", e);
+            }
+        }
+        return metrics;
+    }
+
+    private static ObjectName objectName(String storageId, StorageOperation operation) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=StorageOperation,storage=" + ObjectName.quote(storageId)
+                + ",operation=" + operation.name());
+    }
+
+    /**
+     * MXBean adapter over one operation's live statistics.
+     */
+    private static final class OperationMetrics implements OperationMetricsMXBean {
+
+        private final OperationStats stats;
+
+        OperationMetrics(OperationStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public long getCount() {
+            return stats.latency().count();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return stats.errorCount();
+        }
+
+        @Override
+        public Map<String, Long> getErrorsByType() {
+            return stats.errorsByType();
+        }
+
+        @Override
+        public long getBytes() {
+            return stats.bytes();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return stats.latency().mean() / 1_000;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return stats.latency().percentile(0.5) / 1_000.0;
+        }
+
+        @Override
+        public double getP90Micros() {
+            return stats.latency().percentile(0.9) / 1_000.0;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return stats.latency().percentile(0.99) / 1_000.0;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return stats.latency().percentile(0.999) / 1_000.0;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return stats.latency().max() / 1_000.0;
+        }
+    }
+}
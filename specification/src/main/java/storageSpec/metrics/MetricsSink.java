@@ -0,0 +1,19 @@
+package storageSpec.metrics;
+
+/**
+ * Destination for periodically exported metrics, e.g. a log, a push gateway or a
+ * time-series client. See {@link MetricsRegistry#startReporting}.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * Receives the values of one operation on one storage. Operations that were never
+     * called are not reported.
+     *
+     * @param storageId storage the operation ran on
+     * @param operation the operation
+     * @param snapshot  cumulative values
+     */
+    void report(String storageId, StorageOperation operation, OperationSnapshot snapshot);
+}
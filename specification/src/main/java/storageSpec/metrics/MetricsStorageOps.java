@@ -0,0 +1,698 @@
+package storageSpec.metrics;
+
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+import storageSpec.ops.ByteRange;
+import storageSpec.ops.IStorageOps;
+import storageSpec.ops.Page;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that records latency, failures and transferred bytes of every call into a
+ * {@link StorageMetrics}.
+ * <p>
+ * Each method times itself inline, so the only per-call cost is two {@link System#nanoTime()}
+ * reads and a few striped counter increments — no lambdas or boxed values. Bytes are counted
+ * for uploads, downloads and copies (as the back-end reports them to the
+ * {@link TransferMeter}), range reads (bytes returned) and the channels of
+ * {@link #openRead}/{@link #openWrite}, which count as they are drained; the latency of those
+ * two and of the {@code stream*} methods covers opening only. A {@link #executeBatch batch}
+ * is measured as a whole and is passed to the delegate unchanged, so its steps are counted
+ * under their own operations only when the delegate routes them back through a measured
+ * view.
+ * <p>
+ * Wrapping a {@link storageSpec.StorageSession} includes its privilege checks, so denied
+ * calls appear as {@code StoragePermissionException} errors.
+ */
+public final class MetricsStorageOps implements IStorageOps {
+
+    private final IStorageOps delegate;
+    private final StorageMetrics metrics;
+
+    /**
+     * Creates a measured view.
+     *
+     * @param delegate operations to measure
+     * @param metrics  statistics to record into
+     */
+    public MetricsStorageOps(IStorageOps delegate, StorageMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the statistics this view records into.
+     *
+     * @return live statistics
+     */
+    public StorageMetrics metrics() {
+        return metrics;
+    }
+
+    // ── Directory operations ─────────────────────────────────────────────────
+
+    @Override
+    public void createDir(String dirName, String path) {
+        OperationStats stats = metrics.of(StorageOperation.CREATE_DIR);
+        long t0 = System.nanoTime();
+        try {
+            delegate.createDir(dirName, path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void createDir(String dirName, String path, String namePrefix, int numberOfDirs) {
+        OperationStats stats = metrics.of(StorageOperation.CREATE_DIRS);
+        long t0 = System.nanoTime();
+        try {
+            delegate.createDir(dirName, path, namePrefix, numberOfDirs);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    // ── File operations ──────────────────────────────────────────────────────
+
+    @Override
+    public void createFile(String fileName, String path, String fileType) {
+        OperationStats stats = metrics.of(StorageOperation.CREATE_FILE);
+        long t0 = System.nanoTime();
+        try {
+            delegate.createFile(fileName, path, fileType);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
+        OperationStats stats = metrics.of(StorageOperation.UPLOAD_FILE);
+        TransferMeter meter = TransferMeter.begin();
+        long t0 = System.nanoTime();
+        try {
+            delegate.uploadFile(fileName, sourcePath, destinationPath, fileType);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.bytes(meter.end());
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public BulkOperationResult move(Collection<String> filePaths, String destinationPath) {
+        OperationStats stats = metrics.of(StorageOperation.MOVE_BULK);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.move(filePaths, destinationPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void move(String filePath, String destinationPath) {
+        OperationStats stats = metrics.of(StorageOperation.MOVE);
+        long t0 = System.nanoTime();
+        try {
+            delegate.move(filePath, destinationPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        OperationStats stats = metrics.of(StorageOperation.DELETE);
+        long t0 = System.nanoTime();
+        try {
+            delegate.delete(path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void download(String path, String destinationPath) {
+        OperationStats stats = metrics.of(StorageOperation.DOWNLOAD);
+        TransferMeter meter = TransferMeter.begin();
+        long t0 = System.nanoTime();
+        try {
+            delegate.download(path, destinationPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.bytes(meter.end());
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void rename(String path, String newName) {
+        OperationStats stats = metrics.of(StorageOperation.RENAME);
+        long t0 = System.nanoTime();
+        try {
+            delegate.rename(path, newName);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public void copy(String sourcePath, String destinationPath) {
+        OperationStats stats = metrics.of(StorageOperation.COPY);
+        TransferMeter meter = TransferMeter.begin();
+        long t0 = System.nanoTime();
+        try {
+            delegate.copy(sourcePath, destinationPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.bytes(meter.end());
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public BulkOperationResult executeBatch(List<BatchOperation> operations) {
+        OperationStats stats = metrics.of(StorageOperation.EXECUTE_BATCH);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.executeBatch(operations);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    // ── Streaming I/O ────────────────────────────────────────────────────────
+
+    @Override
+    public ReadableByteChannel openRead(String path) {
+        OperationStats stats = metrics.of(StorageOperation.OPEN_READ);
+        long t0 = System.nanoTime();
+        try {
+            return new CountingReadChannel(delegate.openRead(path), stats);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public WritableByteChannel openWrite(String fileName, String destinationPath, String fileType) {
+        OperationStats stats = metrics.of(StorageOperation.OPEN_WRITE);
+        long t0 = System.nanoTime();
+        try {
+            return new CountingWriteChannel(delegate.openWrite(fileName, destinationPath, fileType), stats);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public ByteBuffer readRange(String path, long offset, int length) {
+        OperationStats stats = metrics.of(StorageOperation.READ_RANGE);
+        long t0 = System.nanoTime();
+        try {
+            ByteBuffer result = delegate.readRange(path, offset, length);
+            stats.bytes(result.remaining());
+            return result;
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<ByteBuffer> readRanges(String path, List<ByteRange> ranges) {
+        OperationStats stats = metrics.of(StorageOperation.READ_RANGES);
+        long t0 = System.nanoTime();
+        try {
+            List<ByteBuffer> result = delegate.readRanges(path, ranges);
+            for (ByteBuffer buffer : result) {
+                stats.bytes(buffer.remaining());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    // ── Listing / search ─────────────────────────────────────────────────────
+
+    @Override
+    public List<String> listFiles(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_FILES);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listFiles(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page listFiles(String dirPath, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_FILES_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listFiles(dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Stream<String> streamFiles(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.STREAM_FILES);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.streamFiles(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> listDirs(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_DIRS);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listDirs(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page listDirs(String dirPath, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_DIRS_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listDirs(dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Stream<String> streamDirs(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.STREAM_DIRS);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.streamDirs(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByName(String name) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_NAME);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByName(name);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page searchByName(String name, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_NAME_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByName(name, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByNamePrefix(String prefix) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_NAME_PREFIX);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByNamePrefix(prefix);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page searchByNamePrefix(String prefix, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_NAME_PREFIX_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByNamePrefix(prefix, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByExtension(String extension, String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_EXTENSION);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByExtension(extension, dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page searchByExtension(String extension, String dirPath, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_EXTENSION_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByExtension(extension, dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> listFilesSortedByName(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_FILES_SORTED_BY_NAME);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listFilesSortedByName(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> listFilesSortedByDate(String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_FILES_SORTED_BY_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listFilesSortedByDate(dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> listNewestFiles(String dirPath, int count) {
+        OperationStats stats = metrics.of(StorageOperation.LIST_NEWEST_FILES);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.listNewestFiles(dirPath, count);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end, limit);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end, dirPath);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end, dirPath, limit);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken) {
+        OperationStats stats = metrics.of(StorageOperation.SEARCH_BY_CREATION_DATE_PAGE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.searchByCreationDateRange(start, end, dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    // ── Metadata ─────────────────────────────────────────────────────────────
+
+    @Override
+    public String getModificationDate(String path) {
+        OperationStats stats = metrics.of(StorageOperation.GET_MODIFICATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.getModificationDate(path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public String getCreationDate(String path) {
+        OperationStats stats = metrics.of(StorageOperation.GET_CREATION_DATE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.getCreationDate(path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String path) {
+        OperationStats stats = metrics.of(StorageOperation.FILE_EXISTS);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.fileExists(path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+
+    @Override
+    public long getFileSize(String path) {
+        OperationStats stats = metrics.of(StorageOperation.GET_FILE_SIZE);
+        long t0 = System.nanoTime();
+        try {
+            return delegate.getFileSize(path);
+        } catch (RuntimeException e) {
+            stats.failed(e);
+            throw e;
+        } finally {
+            stats.record(t0);
+        }
+    }
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private static final class CountingReadChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel channel;
+        private final OperationStats stats;
+
+        CountingReadChannel(ReadableByteChannel channel, OperationStats stats) {
+            this.channel = channel;
+            this.stats = stats;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int n = channel.read(dst);
+            stats.bytes(n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class CountingWriteChannel implements WritableByteChannel {
+
+        private final WritableByteChannel channel;
+        private final OperationStats stats;
+
+        CountingWriteChannel(WritableByteChannel channel, OperationStats stats) {
+            this.channel = channel;
+            this.stats = stats;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int n = channel.write(src);
+            stats.bytes(n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
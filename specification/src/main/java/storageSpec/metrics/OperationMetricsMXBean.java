@@ -0,0 +1,31 @@
+package storageSpec.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of one operation on one storage, registered by {@link MetricsRegistry} as
+ * {@code storageSpec:type=StorageOperation,storage=<id>,operation=<name>}. Latencies are in
+ * microseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    Map<String, Long> getErrorsByType();
+
+    long getBytes();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,77 @@
+package storageSpec.metrics;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Point-in-time values of one operation's {@link OperationStats}, cumulative since the
+ * statistics were created. Latencies are in nanoseconds.
+ */
+@Getter
+public final class OperationSnapshot {
+
+    /**
+     * Number of calls, successful or not.
+     */
+    private final long count;
+
+    /**
+     * Number of failed calls.
+     */
+    private final long errors;
+
+    /**
+     * Failed calls by exception simple name.
+     */
+    private final Map<String, Long> errorsByType;
+
+    /**
+     * Bytes transferred by the calls.
+     */
+    private final long bytes;
+
+    /**
+     * Mean latency.
+     */
+    private final double meanNanos;
+
+    /**
+     * Median latency.
+     */
+    private final long p50Nanos;
+
+    /**
+     * 90th percentile latency.
+     */
+    private final long p90Nanos;
+
+    /**
+     * 99th percentile latency.
+     */
+    private final long p99Nanos;
+
+    /**
+     * 99.9th percentile latency.
+     */
+    private final long p999Nanos;
+
+    /**
+     * Largest latency.
+     */
+    private final long maxNanos;
+
+    OperationSnapshot(long count, long errors, Map<String, Long> errorsByType, long bytes, double meanNanos,
+                      long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.errors = errors;
+        this.errorsByType = Map.copyOf(errorsByType);
+        this.bytes = bytes;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+}
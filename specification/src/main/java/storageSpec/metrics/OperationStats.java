@@ -0,0 +1,103 @@
+package storageSpec.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one operation on one storage: latency, failures by exception type and
+ * bytes transferred. Every recording method is allocation-free once the exception types
+ * seen have been registered.
+ */
+public final class OperationStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final ConcurrentHashMap<Class<?>, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Records one call that started at {@code startNanos} (a {@link System#nanoTime()} value)
+     * and has just finished.
+     *
+     * @param startNanos start timestamp
+     */
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a failed call under the exception's class.
+     *
+     * @param error what the call threw
+     */
+    public void failed(Throwable error) {
+        LongAdder counter = errors.get(error.getClass());
+        if (counter == null) {
+            counter = errors.computeIfAbsent(error.getClass(), type -> new LongAdder());
+        }
+        counter.increment();
+        errorCount.increment();
+    }
+
+    /**
+     * Adds transferred bytes.
+     *
+     * @param n number of bytes
+     */
+    public void bytes(long n) {
+        if (n > 0) {
+            bytes.add(n);
+        }
+    }
+
+    /**
+     * Returns the latency histogram.
+     *
+     * @return histogram of call latencies
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of failed calls.
+     *
+     * @return failures
+     */
+    public long errorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * Returns failed calls by exception simple name, sorted by name.
+     *
+     * @return failures per exception type
+     */
+    public Map<String, Long> errorsByType() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((type, count) -> result.merge(type.getSimpleName(), count.sum(), Long::sum));
+        return result;
+    }
+
+    /**
+     * Returns the bytes transferred.
+     *
+     * @return bytes
+     */
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Captures the current values.
+     *
+     * @return immutable snapshot
+     */
+    public OperationSnapshot snapshot() {
+        return new OperationSnapshot(latency.count(), errorCount(), errorsByType(), bytes(),
+                latency.mean(), latency.percentile(0.5), latency.percentile(0.9),
+                latency.percentile(0.99), latency.percentile(0.999), latency.max());
+    }
+}
@@ -0,0 +1,48 @@
+package storageSpec.metrics;
+
+/**
+ * Per-operation statistics of one storage. Lookups are array accesses by
+ * {@link StorageOperation} ordinal, so recording never allocates.
+ */
+public final class StorageMetrics {
+
+    private static final StorageOperation[] OPERATIONS = StorageOperation.values();
+
+    private final String storageId;
+    private final OperationStats[] stats = new OperationStats[OPERATIONS.length];
+
+    StorageMetrics(String storageId) {
+        this.storageId = storageId;
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new OperationStats();
+        }
+    }
+
+    /**
+     * Returns the storage these statistics belong to.
+     *
+     * @return storage ID
+     */
+    public String storageId() {
+        return storageId;
+    }
+
+    /**
+     * Returns the statistics of one operation.
+     *
+     * @param operation the operation
+     * @return its live statistics
+     */
+    public OperationStats of(StorageOperation operation) {
+        return stats[operation.ordinal()];
+    }
+
+    void report(MetricsSink sink) {
+        for (StorageOperation operation : OPERATIONS) {
+            OperationStats operationStats = of(operation);
+            if (operationStats.latency().count() > 0) {
+                sink.report(storageId, operation, operationStats.snapshot());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package storageSpec.metrics;
+
+/**
+ * The {@link storageSpec.ops.IStorageOps} calls that {@link MetricsStorageOps} measures.
+ * Overloads that only differ in optional arguments share a constant; bulk and paged
+ * variants, whose cost profile differs, have their own.
+ */
+public enum StorageOperation {
+    CREATE_DIR,
+    CREATE_DIRS,
+    CREATE_FILE,
+    UPLOAD_FILE,
+    MOVE,
+    MOVE_BULK,
+    DELETE,
+    DOWNLOAD,
+    RENAME,
+    COPY,
+    EXECUTE_BATCH,
+    OPEN_READ,
+    OPEN_WRITE,
+    READ_RANGE,
+    READ_RANGES,
+    LIST_FILES,
+    LIST_FILES_PAGE,
+    STREAM_FILES,
+    LIST_DIRS,
+    LIST_DIRS_PAGE,
+    STREAM_DIRS,
+    SEARCH_BY_NAME,
+    SEARCH_BY_NAME_PAGE,
+    SEARCH_BY_NAME_PREFIX,
+    SEARCH_BY_NAME_PREFIX_PAGE,
+    SEARCH_BY_EXTENSION,
+    SEARCH_BY_EXTENSION_PAGE,
+    LIST_FILES_SORTED_BY_NAME,
+    LIST_FILES_SORTED_BY_DATE,
+    LIST_NEWEST_FILES,
+    SEARCH_BY_CREATION_DATE,
+    SEARCH_BY_CREATION_DATE_PAGE,
+    GET_MODIFICATION_DATE,
+    GET_CREATION_DATE,
+    FILE_EXISTS,
+    GET_FILE_SIZE
+}
@@ -0,0 +1,70 @@
+package storageSpec.metrics;
+
+import storageSpec.ops.IStorageOps;
+
+/**
+ * Bytes copied by the measured call running on the current thread.
+ * <p>
+ * {@link IStorageOps#uploadFile}, {@link IStorageOps#download} and {@link IStorageOps#copy}
+ * return nothing, so {@link MetricsStorageOps} cannot see how much they moved. Instead it
+ * opens a measurement around each of them, and a back-end that knows the number
+ * {@linkplain #record reports} it from the thread the call was made on, once the transfer
+ * succeeded. Back-ends that never report are simply measured without bytes; bytes reported
+ * while no measurement is open are dropped.
+ * <p>
+ * One instance per thread is reused, so a measurement allocates nothing. A measured call
+ * made from inside another on the same thread gets its own instance, whose bytes are added
+ * to the outer one when it ends.
+ */
+public final class TransferMeter {
+
+    private static final ThreadLocal<TransferMeter> CURRENT = ThreadLocal.withInitial(() -> new TransferMeter(null));
+
+    private final TransferMeter parent;
+    private boolean active;
+    private long bytes;
+
+    private TransferMeter(TransferMeter parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Reports bytes copied into or out of the storage by the current call.
+     *
+     * @param bytes number of bytes copied
+     */
+    public static void record(long bytes) {
+        TransferMeter meter = CURRENT.get();
+        if (meter.active) {
+            meter.bytes += bytes;
+        }
+    }
+
+    /**
+     * Opens a measurement on this thread.
+     */
+    static TransferMeter begin() {
+        TransferMeter meter = CURRENT.get();
+        if (meter.active) {
+            meter = new TransferMeter(meter);
+            CURRENT.set(meter);
+        }
+        meter.active = true;
+        meter.bytes = 0;
+        return meter;
+    }
+
+    /**
+     * Closes this measurement and restores the one it interrupted, if any.
+     *
+     * @return bytes reported since {@link #begin()}
+     */
+    long end() {
+        active = false;
+        if (parent != null) {
+            parent.bytes += bytes;
+            CURRENT.set(parent);
+        }
+        return bytes;
+    }
+}
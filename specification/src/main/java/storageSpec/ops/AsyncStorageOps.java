@@ -0,0 +1,286 @@
+package storageSpec.ops;
+
+import storageSpec.StorageSession;
+import storageSpec.exception.StorageException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * {@link IAsyncStorageOps} that runs each call of a blocking {@link IStorageOps} delegate
+ * on an {@link Executor}.
+ * <p>
+ * By default every call gets its own virtual thread, so thousands of concurrent transfers
+ * park cheaply on a handful of carrier threads instead of pinning platform threads.
+ * At most {@code maxInFlight} calls run at once. A call made while all slots are taken
+ * never blocks the caller: its future fails right away with a {@link StorageException},
+ * and the caller decides whether to retry, queue or give up.
+ */
+public class AsyncStorageOps implements IAsyncStorageOps {
+
+    /**
+     * Default bound on concurrently running calls.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("storage-async-", 0).factory();
+
+    private final IStorageOps delegate;
+    private final Executor executor;
+    private final Semaphore inFlight;
+
+    /**
+     * Creates an async facade running on a virtual thread per call.
+     *
+     * @param delegate blocking operations to run (typically a {@link StorageSession})
+     */
+    public AsyncStorageOps(IStorageOps delegate) {
+        this(delegate, command -> VIRTUAL_THREADS.newThread(command).start(), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates an async facade running on the given executor.
+     *
+     * @param delegate    blocking operations to run (typically a {@link StorageSession})
+     * @param executor    executor that runs each call
+     * @param maxInFlight maximum number of calls running at the same time
+     */
+    public AsyncStorageOps(IStorageOps delegate, Executor executor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new StorageException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    // ── Directory operations ─────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<Void> createDir(String dirName, String path) {
+        return run(() -> delegate.createDir(dirName, path));
+    }
+
+    @Override
+    public CompletableFuture<Void> createDir(String dirName, String path, String namePrefix, int numberOfDirs) {
+        return run(() -> delegate.createDir(dirName, path, namePrefix, numberOfDirs));
+    }
+
+    // ── File operations ──────────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<Void> createFile(String fileName, String path, String fileType) {
+        return run(() -> delegate.createFile(fileName, path, fileType));
+    }
+
+    @Override
+    public CompletableFuture<Void> uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
+        return run(() -> delegate.uploadFile(fileName, sourcePath, destinationPath, fileType));
+    }
+
+    @Override
+    public CompletableFuture<BulkOperationResult> move(Collection<String> filePaths, String destinationPath) {
+        return supply(() -> delegate.move(filePaths, destinationPath));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(String filePath, String destinationPath) {
+        return run(() -> delegate.move(filePath, destinationPath));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String path) {
+        return run(() -> delegate.delete(path));
+    }
+
+    @Override
+    public CompletableFuture<Void> download(String path, String destinationPath) {
+        return run(() -> delegate.download(path, destinationPath));
+    }
+
+    @Override
+    public CompletableFuture<Void> rename(String path, String newName) {
+        return run(() -> delegate.rename(path, newName));
+    }
+
+    @Override
+    public CompletableFuture<Void> copy(String sourcePath, String destinationPath) {
+        return run(() -> delegate.copy(sourcePath, destinationPath));
+    }
+
+    @Override
+    public CompletableFuture<BulkOperationResult> executeBatch(List<BatchOperation> operations) {
+        return supply(() -> delegate.executeBatch(operations));
+    }
+
+    // ── Streaming ────────────────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<ReadableByteChannel> openRead(String path) {
+        return supply(() -> delegate.openRead(path));
+    }
+
+    @Override
+    public CompletableFuture<WritableByteChannel> openWrite(String fileName, String destinationPath, String fileType) {
+        return supply(() -> delegate.openWrite(fileName, destinationPath, fileType));
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> readRange(String path, long offset, int length) {
+        return supply(() -> delegate.readRange(path, offset, length));
+    }
+
+    @Override
+    public CompletableFuture<List<ByteBuffer>> readRanges(String path, List<ByteRange> ranges) {
+        return supply(() -> delegate.readRanges(path, ranges));
+    }
+
+    // ── Search & query ───────────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<List<String>> listFiles(String dirPath) {
+        return supply(() -> delegate.listFiles(dirPath));
+    }
+
+    @Override
+    public CompletableFuture<Page> listFiles(String dirPath, int pageSize, String pageToken) {
+        return supply(() -> delegate.listFiles(dirPath, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listDirs(String dirPath) {
+        return supply(() -> delegate.listDirs(dirPath));
+    }
+
+    @Override
+    public CompletableFuture<Page> listDirs(String dirPath, int pageSize, String pageToken) {
+        return supply(() -> delegate.listDirs(dirPath, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByName(String name) {
+        return supply(() -> delegate.searchByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Page> searchByName(String name, int pageSize, String pageToken) {
+        return supply(() -> delegate.searchByName(name, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByNamePrefix(String prefix) {
+        return supply(() -> delegate.searchByNamePrefix(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Page> searchByNamePrefix(String prefix, int pageSize, String pageToken) {
+        return supply(() -> delegate.searchByNamePrefix(prefix, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByExtension(String extension, String dirPath) {
+        return supply(() -> delegate.searchByExtension(extension, dirPath));
+    }
+
+    @Override
+    public CompletableFuture<Page> searchByExtension(String extension, String dirPath, int pageSize, String pageToken) {
+        return supply(() -> delegate.searchByExtension(extension, dirPath, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listFilesSortedByName(String dirPath) {
+        return supply(() -> delegate.listFilesSortedByName(dirPath));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listFilesSortedByDate(String dirPath) {
+        return supply(() -> delegate.listFilesSortedByDate(dirPath));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listNewestFiles(String dirPath, int count) {
+        return supply(() -> delegate.listNewestFiles(dirPath, count));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end, limit));
+    }
+
+    @Override
+    public CompletableFuture<Page> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end, dirPath));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end, dirPath, limit));
+    }
+
+    @Override
+    public CompletableFuture<Page> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken) {
+        return supply(() -> delegate.searchByCreationDateRange(start, end, dirPath, pageSize, pageToken));
+    }
+
+    @Override
+    public CompletableFuture<String> getModificationDate(String path) {
+        return supply(() -> delegate.getModificationDate(path));
+    }
+
+    @Override
+    public CompletableFuture<String> getCreationDate(String path) {
+        return supply(() -> delegate.getCreationDate(path));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> fileExists(String path) {
+        return supply(() -> delegate.fileExists(path));
+    }
+
+    @Override
+    public CompletableFuture<Long> getFileSize(String path) {
+        return supply(() -> delegate.getFileSize(path));
+    }
+
+    // ── Internal helpers ─────────────────────────────────────────────────────
+
+    private CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> call) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new StorageException("Too many operations in flight"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(call, executor)
+                    .whenComplete((result, error) -> inFlight.release());
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(new StorageException("Executor rejected the operation", e));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package storageSpec.ops;
+
+import lombok.Getter;
+import storageSpec.Privilege;
+
+/**
+ * One mutating call recorded for submission as part of a batch.
+ * <p>
+ * Instances are immutable; create them with the static factories, usually through
+ * {@link storageSpec.StorageBatch}. Arguments have the same meaning as for the corresponding
+ * {@link IStorageOps} method.
+ */
+@Getter
+public class BatchOperation {
+
+    /**
+     * Kind of operation.
+     */
+    public enum Type {
+        CREATE_DIR,
+        CREATE_FILE,
+        UPLOAD_FILE,
+        RENAME
+    }
+
+    private final Type type;
+
+    /**
+     * Name of the entry to create, or the new name for {@link Type#RENAME}.
+     */
+    private final String name;
+
+    /**
+     * Parent directory of the entry to create, or the path being renamed.
+     */
+    private final String path;
+
+    /**
+     * Local source file for {@link Type#UPLOAD_FILE}; {@code null} otherwise.
+     */
+    private final String sourcePath;
+
+    /**
+     * File extension for {@link Type#CREATE_FILE} and {@link Type#UPLOAD_FILE}; {@code null} otherwise.
+     */
+    private final String fileType;
+
+    private BatchOperation(Type type, String name, String path, String sourcePath, String fileType) {
+        this.type = type;
+        this.name = name;
+        this.path = path;
+        this.sourcePath = sourcePath;
+        this.fileType = fileType;
+    }
+
+    /**
+     * @see IStorageOps#createDir(String, String)
+     */
+    public static BatchOperation createDir(String dirName, String path) {
+        return new BatchOperation(Type.CREATE_DIR, dirName, path, null, null);
+    }
+
+    /**
+     * @see IStorageOps#createFile(String, String, String)
+     */
+    public static BatchOperation createFile(String fileName, String path, String fileType) {
+        return new BatchOperation(Type.CREATE_FILE, fileName, path, null, fileType);
+    }
+
+    /**
+     * @see IStorageOps#uploadFile(String, String, String, String)
+     */
+    public static BatchOperation uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
+        return new BatchOperation(Type.UPLOAD_FILE, fileName, destinationPath, sourcePath, fileType);
+    }
+
+    /**
+     * @see IStorageOps#rename(String, String)
+     */
+    public static BatchOperation rename(String path, String newName) {
+        return new BatchOperation(Type.RENAME, newName, path, null, null);
+    }
+
+    /**
+     * Returns the privilege a user needs to perform this operation.
+     *
+     * @return required privilege
+     */
+    public Privilege requiredPrivilege() {
+        return Privilege.UPLOAD;
+    }
+
+    /**
+     * Performs this operation as a standalone call on {@code ops}.
+     *
+     * @param ops operations to call
+     */
+    public void applyTo(IStorageOps ops) {
+        switch (type) {
+            case CREATE_DIR -> ops.createDir(name, path);
+            case CREATE_FILE -> ops.createFile(name, path, fileType);
+            case UPLOAD_FILE -> ops.uploadFile(name, sourcePath, path, fileType);
+            case RENAME -> ops.rename(path, name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case CREATE_DIR -> "createDir(" + name + ", " + path + ")";
+            case CREATE_FILE -> "createFile(" + name + ", " + path + ", " + fileType + ")";
+            case UPLOAD_FILE -> "uploadFile(" + name + ", " + sourcePath + ", " + path + ", " + fileType + ")";
+            case RENAME -> "rename(" + path + ", " + name + ")";
+        };
+    }
+}
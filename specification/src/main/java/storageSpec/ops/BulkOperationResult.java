@@ -0,0 +1,47 @@
+package storageSpec.ops;
+
+import lombok.Getter;
+import storageSpec.exception.StorageException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-item outcome of an operation applied to many paths at once.
+ * <p>
+ * A failure on one path does not abort the others: every input path appears either in
+ * {@link #getSucceeded()} or, with the exception that stopped it, in {@link #getFailed()}.
+ */
+@Getter
+public class BulkOperationResult {
+
+    /**
+     * Input paths that were processed successfully.
+     */
+    private final List<String> succeeded;
+
+    /**
+     * Input paths that failed, mapped to the reason.
+     */
+    private final Map<String, StorageException> failed;
+
+    /**
+     * Constructs a result.
+     *
+     * @param succeeded paths that were processed successfully
+     * @param failed    paths that failed, mapped to the reason
+     */
+    public BulkOperationResult(List<String> succeeded, Map<String, StorageException> failed) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    /**
+     * Returns whether every path was processed successfully.
+     *
+     * @return {@code true} if there are no failures
+     */
+    public boolean isSuccess() {
+        return failed.isEmpty();
+    }
+}
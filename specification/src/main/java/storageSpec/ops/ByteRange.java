@@ -0,0 +1,37 @@
+package storageSpec.ops;
+
+import lombok.Getter;
+import storageSpec.exception.StorageException;
+
+/**
+ * A contiguous region of a file: {@code length} bytes starting at {@code offset}.
+ * Used for partial reads (HTTP Range requests, media seeking, etc.).
+ */
+@Getter
+public class ByteRange {
+
+    /**
+     * Zero-based position of the first byte.
+     */
+    private final long offset;
+
+    /**
+     * Number of bytes in the range.
+     */
+    private final int length;
+
+    /**
+     * Constructs a range.
+     *
+     * @param offset zero-based position of the first byte
+     * @param length number of bytes
+     * @throws StorageException if {@code offset} or {@code length} is negative
+     */
+    public ByteRange(long offset, int length) {
+        if (offset < 0 || length < 0) {
+            throw new StorageException("Invalid byte range: offset=" + offset + ", length=" + length);
+        }
+        this.offset = offset;
+        this.length = length;
+    }
+}
@@ -0,0 +1,227 @@
+package storageSpec.ops;
+
+import storageSpec.StorageSession;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link IStorageOps}.
+ * <p>
+ * Every method has the same semantics as its {@link IStorageOps} namesake but returns
+ * immediately, without blocking the caller; the returned future completes with the result,
+ * or exceptionally with the same {@link storageSpec.exception.StorageException} the blocking
+ * call would have thrown. An implementation that bounds the calls in flight fails the
+ * future of a call over the bound, also with a {@code StorageException}, instead of
+ * making the caller wait.
+ * Obtain an instance from {@link StorageSession#async()}, which applies the session's
+ * privilege checks to every call.
+ * <p>
+ * The lazy {@code streamFiles}/{@code streamDirs} listings have no async form — use the
+ * paginated {@code listFiles}/{@code listDirs} overloads instead.
+ */
+public interface IAsyncStorageOps {
+
+    // ── Directory operations ─────────────────────────────────────────────────
+
+    /**
+     * @see IStorageOps#createDir(String, String)
+     */
+    CompletableFuture<Void> createDir(String dirName, String path);
+
+    /**
+     * @see IStorageOps#createDir(String, String, String, int)
+     */
+    CompletableFuture<Void> createDir(String dirName, String path, String namePrefix, int numberOfDirs);
+
+    // ── File operations ──────────────────────────────────────────────────────
+
+    /**
+     * @see IStorageOps#createFile(String, String, String)
+     */
+    CompletableFuture<Void> createFile(String fileName, String path, String fileType);
+
+    /**
+     * @see IStorageOps#uploadFile(String, String, String, String)
+     */
+    CompletableFuture<Void> uploadFile(String fileName, String sourcePath, String destinationPath, String fileType);
+
+    /**
+     * @see IStorageOps#move(Collection, String)
+     */
+    CompletableFuture<BulkOperationResult> move(Collection<String> filePaths, String destinationPath);
+
+    /**
+     * @see IStorageOps#move(String, String)
+     */
+    CompletableFuture<Void> move(String filePath, String destinationPath);
+
+    /**
+     * @see IStorageOps#delete(String)
+     */
+    CompletableFuture<Void> delete(String path);
+
+    /**
+     * @see IStorageOps#download(String, String)
+     */
+    CompletableFuture<Void> download(String path, String destinationPath);
+
+    /**
+     * @see IStorageOps#rename(String, String)
+     */
+    CompletableFuture<Void> rename(String path, String newName);
+
+    /**
+     * @see IStorageOps#copy(String, String)
+     */
+    CompletableFuture<Void> copy(String sourcePath, String destinationPath);
+
+    /**
+     * @see IStorageOps#executeBatch(List)
+     */
+    CompletableFuture<BulkOperationResult> executeBatch(List<BatchOperation> operations);
+
+    // ── Streaming ────────────────────────────────────────────────────────────
+
+    /**
+     * @see IStorageOps#openRead(String)
+     */
+    CompletableFuture<ReadableByteChannel> openRead(String path);
+
+    /**
+     * @see IStorageOps#openWrite(String, String, String)
+     */
+    CompletableFuture<WritableByteChannel> openWrite(String fileName, String destinationPath, String fileType);
+
+    /**
+     * @see IStorageOps#readRange(String, long, int)
+     */
+    CompletableFuture<ByteBuffer> readRange(String path, long offset, int length);
+
+    /**
+     * @see IStorageOps#readRanges(String, List)
+     */
+    CompletableFuture<List<ByteBuffer>> readRanges(String path, List<ByteRange> ranges);
+
+    // ── Search & query ───────────────────────────────────────────────────────
+
+    /**
+     * @see IStorageOps#listFiles(String)
+     */
+    CompletableFuture<List<String>> listFiles(String dirPath);
+
+    /**
+     * @see IStorageOps#listFiles(String, int, String)
+     */
+    CompletableFuture<Page> listFiles(String dirPath, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#listDirs(String)
+     */
+    CompletableFuture<List<String>> listDirs(String dirPath);
+
+    /**
+     * @see IStorageOps#listDirs(String, int, String)
+     */
+    CompletableFuture<Page> listDirs(String dirPath, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#searchByName(String)
+     */
+    CompletableFuture<List<String>> searchByName(String name);
+
+    /**
+     * @see IStorageOps#searchByName(String, int, String)
+     */
+    CompletableFuture<Page> searchByName(String name, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#searchByNamePrefix(String)
+     */
+    CompletableFuture<List<String>> searchByNamePrefix(String prefix);
+
+    /**
+     * @see IStorageOps#searchByNamePrefix(String, int, String)
+     */
+    CompletableFuture<Page> searchByNamePrefix(String prefix, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#searchByExtension(String, String)
+     */
+    CompletableFuture<List<String>> searchByExtension(String extension, String dirPath);
+
+    /**
+     * @see IStorageOps#searchByExtension(String, String, int, String)
+     */
+    CompletableFuture<Page> searchByExtension(String extension, String dirPath, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#listFilesSortedByName(String)
+     */
+    CompletableFuture<List<String>> listFilesSortedByName(String dirPath);
+
+    /**
+     * @see IStorageOps#listFilesSortedByDate(String)
+     */
+    CompletableFuture<List<String>> listFilesSortedByDate(String dirPath);
+
+    /**
+     * @see IStorageOps#listNewestFiles(String, int)
+     */
+    CompletableFuture<List<String>> listNewestFiles(String dirPath, int count);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime)
+     */
+    CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime, int)
+     */
+    CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime, int, String)
+     */
+    CompletableFuture<Page> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime, String)
+     */
+    CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime, String, int)
+     */
+    CompletableFuture<List<String>> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit);
+
+    /**
+     * @see IStorageOps#searchByCreationDateRange(LocalDateTime, LocalDateTime, String, int, String)
+     */
+    CompletableFuture<Page> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken);
+
+    /**
+     * @see IStorageOps#getModificationDate(String)
+     */
+    CompletableFuture<String> getModificationDate(String path);
+
+    /**
+     * @see IStorageOps#getCreationDate(String)
+     */
+    CompletableFuture<String> getCreationDate(String path);
+
+    /**
+     * @see IStorageOps#fileExists(String)
+     */
+    CompletableFuture<Boolean> fileExists(String path);
+
+    /**
+     * @see IStorageOps#getFileSize(String)
+     */
+    CompletableFuture<Long> getFileSize(String path);
+}
@@ -6,9 +6,16 @@ import storageSpec.exception.ForbiddenExtensionException;
 import storageSpec.exception.StorageException;
 import storageSpec.exception.StorageFullException;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Core file-system operations that every storage implementation (local, Google Drive, etc.)
@@ -81,12 +88,17 @@ public interface IStorageOps {
 
     /**
      * Moves multiple files/directories to {@code destinationPath}.
+     * <p>
+     * Items are moved independently (implementations may move them in parallel); a failure
+     * on one item does not stop the others and is reported in the result instead.
      *
      * @param filePaths       paths of files/directories to move
      * @param destinationPath target directory
-     * @throws StorageException if any file cannot be moved
+     * @return per-path outcome — never null
+     * @throws DirectoryLimitException if the destination cannot take all incoming entries
+     * @throws StorageException        if the destination is not a directory
      */
-    void move(Collection<String> filePaths, String destinationPath);
+    BulkOperationResult move(Collection<String> filePaths, String destinationPath);
 
     /**
      * Moves a single file or directory to {@code destinationPath}.
@@ -136,6 +148,91 @@ public interface IStorageOps {
      */
     void copy(String sourcePath, String destinationPath);
 
+    /**
+     * Executes a sequence of mutating operations as one unit of work.
+     * <p>
+     * Operations run in list order as far as their effects are observable: an operation may
+     * use an entry created or renamed by an earlier one. A failure of one operation does not
+     * stop the others. The result is keyed by {@code "[index] operation"}, e.g.
+     * {@code "[2] createDir(reports, docs)"}.
+     * <p>
+     * The default implementation simply calls the individual methods. Implementations
+     * should override it to do bookkeeping and metadata persistence once per batch.
+     *
+     * @param operations operations to execute, in order
+     * @return per-operation outcome — never null
+     */
+    default BulkOperationResult executeBatch(List<BatchOperation> operations) {
+        List<String> succeeded = new ArrayList<>();
+        Map<String, StorageException> failed = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            String key = "[" + i + "] " + operation;
+            try {
+                operation.applyTo(this);
+                succeeded.add(key);
+            } catch (StorageException e) {
+                failed.put(key, e);
+            }
+        }
+        return new BulkOperationResult(succeeded, failed);
+    }
+
+    // ── Streaming ────────────────────────────────────────────────────────────
+
+    /**
+     * Opens the file at {@code path} for reading. Lets callers stream the contents
+     * without going through an intermediate local file.
+     * <p>
+     * The caller owns the returned channel and must close it.
+     *
+     * @param path storage path of the file to read
+     * @return a channel positioned at the start of the file
+     * @throws StorageException if the file does not exist or cannot be opened
+     */
+    ReadableByteChannel openRead(String path);
+
+    /**
+     * Opens a new file named {@code fileName} inside {@code destinationPath} for writing,
+     * replacing any existing file with that name. Lets callers pipe data straight into
+     * the storage without staging it in a local file first.
+     * <p>
+     * The caller owns the returned channel and must close it; the file is complete once
+     * the channel has been closed.
+     *
+     * @param fileName        name of the file to write
+     * @param destinationPath storage directory where the file will be placed
+     * @param fileType        file extension, e.g. ".txt", ".png"
+     * @return a channel writing into the new file
+     * @throws ForbiddenExtensionException if the extension is forbidden
+     * @throws StorageException            if the file cannot be created
+     */
+    WritableByteChannel openWrite(String fileName, String destinationPath, String fileType);
+
+    /**
+     * Reads {@code length} bytes starting at {@code offset} from the file at {@code path}.
+     * The returned buffer is shorter than {@code length} if the file ends earlier.
+     *
+     * @param path   storage path of the file
+     * @param offset zero-based position of the first byte
+     * @param length maximum number of bytes to read
+     * @return a read-only buffer holding the requested bytes
+     * @throws StorageException if the file does not exist, {@code offset} is past its end,
+     *                          or the read fails
+     */
+    ByteBuffer readRange(String path, long offset, int length);
+
+    /**
+     * Reads several ranges of the same file in one call (scatter read).
+     *
+     * @param path   storage path of the file
+     * @param ranges ranges to read
+     * @return one read-only buffer per range, in the order of {@code ranges} — never null
+     * @throws StorageException if the file does not exist, any range starts past its end,
+     *                          or the read fails
+     */
+    List<ByteBuffer> readRanges(String path, List<ByteRange> ranges);
+
     // ── Search & query ───────────────────────────────────────────────────────
 
     /**
@@ -146,6 +243,31 @@ public interface IStorageOps {
      */
     List<String> listFiles(String dirPath);
 
+    /**
+     * Returns one page of the files directly inside {@code dirPath}, sorted by name.
+     * Memory use is bounded by {@code pageSize}, not by the size of the directory.
+     *
+     * @param dirPath   directory to list
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the directory cannot be listed or the token is invalid
+     */
+    Page listFiles(String dirPath, int pageSize, String pageToken);
+
+    /**
+     * Returns a lazily evaluated stream of the paths of files directly inside
+     * {@code dirPath}, in no particular order. Entries are read as the stream is consumed.
+     * <p>
+     * The stream holds an open directory handle — close it, e.g. with try-with-resources.
+     *
+     * @param dirPath directory to list
+     * @return stream of file paths
+     * @throws StorageException if the directory cannot be opened
+     */
+    Stream<String> streamFiles(String dirPath);
+
     /**
      * Lists paths of all subdirectories directly inside the directory at {@code dirPath}.
      *
@@ -154,6 +276,28 @@ public interface IStorageOps {
      */
     List<String> listDirs(String dirPath);
 
+    /**
+     * Returns one page of the subdirectories directly inside {@code dirPath}, sorted by name.
+     *
+     * @param dirPath   directory to list
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the directory cannot be listed or the token is invalid
+     */
+    Page listDirs(String dirPath, int pageSize, String pageToken);
+
+    /**
+     * Returns a lazily evaluated stream of the paths of subdirectories directly inside
+     * {@code dirPath}. Must be closed, like {@link #streamFiles(String)}.
+     *
+     * @param dirPath directory to list
+     * @return stream of directory paths
+     * @throws StorageException if the directory cannot be opened
+     */
+    Stream<String> streamDirs(String dirPath);
+
     /**
      * Searches the entire storage for files or directories whose name matches {@code name}.
      *
@@ -162,6 +306,40 @@ public interface IStorageOps {
      */
     List<String> searchByName(String name);
 
+    /**
+     * Returns one page of the files and directories anywhere in the storage whose name
+     * matches {@code name}, sorted by path.
+     *
+     * @param name      name to search for
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the token is invalid
+     */
+    Page searchByName(String name, int pageSize, String pageToken);
+
+    /**
+     * Searches the entire storage for files or directories whose name starts with {@code prefix}.
+     *
+     * @param prefix name prefix to search for
+     * @return matching paths — never null
+     */
+    List<String> searchByNamePrefix(String prefix);
+
+    /**
+     * Returns one page of the files and directories anywhere in the storage whose name
+     * starts with {@code prefix}, sorted by name and then by path.
+     *
+     * @param prefix    name prefix to search for
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the token is invalid
+     */
+    Page searchByNamePrefix(String prefix, int pageSize, String pageToken);
+
     /**
      * Searches for files with the given extension inside the directory at {@code dirPath}.
      *
@@ -171,6 +349,20 @@ public interface IStorageOps {
      */
     List<String> searchByExtension(String extension, String dirPath);
 
+    /**
+     * Returns one page of the files with the given extension inside {@code dirPath},
+     * sorted by name.
+     *
+     * @param extension file extension to match (e.g. ".txt")
+     * @param dirPath   directory to search
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the directory cannot be listed or the token is invalid
+     */
+    Page searchByExtension(String extension, String dirPath, int pageSize, String pageToken);
+
     /**
      * Lists files in the directory at {@code dirPath}, sorted alphabetically by name.
      *
@@ -187,6 +379,16 @@ public interface IStorageOps {
      */
     List<String> listFilesSortedByDate(String dirPath);
 
+    /**
+     * Lists the {@code count} most recently created files in the directory at
+     * {@code dirPath}, newest first, without materialising the full listing.
+     *
+     * @param dirPath directory to list
+     * @param count   maximum number of files to return
+     * @return file paths sorted by creation date (descending) — never null
+     */
+    List<String> listNewestFiles(String dirPath, int count);
+
     /**
      * Searches the entire storage for files created between {@code start} and {@code end}.
      *
@@ -196,6 +398,31 @@ public interface IStorageOps {
      */
     List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Same as {@link #searchByCreationDateRange(LocalDateTime, LocalDateTime)}, but returns at
+     * most {@code limit} files — the earliest-created ones in the range.
+     *
+     * @param start inclusive start of the date range
+     * @param end   inclusive end of the date range
+     * @param limit maximum number of results; {@code 0} means unlimited
+     * @return matching file paths sorted by creation date — never null
+     */
+    List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit);
+
+    /**
+     * Returns one page of the files anywhere in the storage created between {@code start}
+     * and {@code end}, oldest first.
+     *
+     * @param start     inclusive start of the date range
+     * @param end       inclusive end of the date range
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the token is invalid
+     */
+    Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken);
+
     /**
      * Searches files inside {@code dirPath} that were created between
      * {@code start} and {@code end}.
@@ -207,6 +434,33 @@ public interface IStorageOps {
      */
     List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath);
 
+    /**
+     * Same as {@link #searchByCreationDateRange(LocalDateTime, LocalDateTime, String)}, but
+     * returns at most {@code limit} files — the earliest-created ones in the range.
+     *
+     * @param start   inclusive start of the date range
+     * @param end     inclusive end of the date range
+     * @param dirPath directory to search
+     * @param limit   maximum number of results; {@code 0} means unlimited
+     * @return matching file paths sorted by creation date — never null
+     */
+    List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit);
+
+    /**
+     * Returns one page of the files inside {@code dirPath} created between {@code start}
+     * and {@code end}, oldest first.
+     *
+     * @param start     inclusive start of the date range
+     * @param end       inclusive end of the date range
+     * @param dirPath   directory to search
+     * @param pageSize  maximum number of paths on the page
+     * @param pageToken {@link Page#getNextPageToken()} of the previous page,
+     *                  or {@code null} for the first page
+     * @return the requested page — never null
+     * @throws StorageException if the directory does not exist or the token is invalid
+     */
+    Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken);
+
     /**
      * Returns the last-modification date of the file or directory at {@code path}
      * as an ISO-8601 string, or {@code null} if unavailable.
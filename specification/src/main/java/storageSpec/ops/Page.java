@@ -0,0 +1,46 @@
+package storageSpec.ops;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a paginated listing or search.
+ * <p>
+ * Pass {@link #getNextPageToken()} back to the same method to fetch the following page.
+ * Tokens are opaque and implementation-defined; a {@code null} token means this is the
+ * last page.
+ */
+@Getter
+public class Page {
+
+    /**
+     * Paths on this page.
+     */
+    private final List<String> items;
+
+    /**
+     * Continuation token for the next page, or {@code null} if there are no more results.
+     */
+    private final String nextPageToken;
+
+    /**
+     * Constructs a page.
+     *
+     * @param items         paths on this page
+     * @param nextPageToken continuation token, or {@code null} for the last page
+     */
+    public Page(List<String> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return {@code true} if {@link #getNextPageToken()} is non-null
+     */
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
@@ -4,8 +4,12 @@ import storageSpec.Privilege;
 import storageSpec.Storage;
 import storageSpec.exception.StorageException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Handles persistence of user credentials and storage metadata.
@@ -42,6 +46,61 @@ public interface ISerialization {
      */
     List<UserData> readSavedUsers(String filePath);
 
+    /**
+     * Streams the user records of the resource identified by {@code filePath}, optionally
+     * restricted to users with a privilege on {@code storageId}.
+     * <p>
+     * Implementations should parse records lazily, so memory stays flat regardless of the
+     * number of users and short-circuiting operations such as {@code findFirst} stop reading
+     * at the first match. The stream may hold the resource open and must be closed. The
+     * default implementation filters {@link #readSavedUsers}.
+     *
+     * @param filePath  implementation-defined resource identifier
+     * @param storageId only return users with access to this storage, or {@code null} for all
+     * @return stream of {@link UserData}; empty if no users are found
+     * @throws StorageException if the resource cannot be opened; read or parse failures
+     *                          during traversal are thrown from the stream operation
+     */
+    default Stream<UserData> streamSavedUsers(String filePath, String storageId) {
+        return readSavedUsers(filePath).stream().filter(user -> storageId == null || user.hasStorage(storageId));
+    }
+
+    /**
+     * Replaces all user records in the resource identified by {@code filePath} with
+     * {@code users}. The resource is overwritten even when {@code users} is empty, so
+     * removing the last user leaves no record behind.
+     *
+     * @param filePath implementation-defined resource identifier
+     * @param users    user records to store, in order
+     * @throws StorageException if the write fails
+     */
+    void saveUsers(String filePath, Collection<UserData> users);
+
+    /**
+     * Applies incremental changes to the user records in the resource identified by
+     * {@code filePath}: every record in {@code changed} replaces the stored record with the
+     * same user name (or is added), and every name in {@code removed} is dropped.
+     * <p>
+     * The default implementation reads all records, applies the changes and rewrites them
+     * through {@link #saveUsers}; journaling implementations only write the changes.
+     *
+     * @param filePath implementation-defined resource identifier
+     * @param changed  added or modified user records
+     * @param removed  names of removed users
+     * @throws StorageException if the read or write fails
+     */
+    default void updateUsers(String filePath, Collection<UserData> changed, Collection<String> removed) {
+        LinkedHashMap<String, UserData> users = new LinkedHashMap<>();
+        for (UserData user : readSavedUsers(filePath)) {
+            users.put(user.getUserName(), user);
+        }
+        for (UserData user : changed) {
+            users.put(user.getUserName(), user);
+        }
+        users.keySet().removeAll(removed);
+        saveUsers(filePath, new ArrayList<>(users.values()));
+    }
+
     /**
      * Persists storage metadata (name, ID, root location, size limit,
      * forbidden extensions, directory child limits) to the resource identified
@@ -33,6 +33,11 @@ public class StorageData {
      */
     private long storageSize;
 
+    /**
+     * Bytes used by files in the storage at the time the metadata was saved.
+     */
+    private long usedBytes;
+
     /**
      * File extensions that are forbidden in this storage (without leading dot).
      */
@@ -33,4 +33,14 @@ public class UserData {
      */
     public UserData() {
     }
+
+    /**
+     * Tells whether this record grants any privilege on the given storage.
+     *
+     * @param storageId storage identifier
+     * @return {@code true} if {@code storageId} is in the privilege map
+     */
+    public boolean hasStorage(String storageId) {
+        return storagesAndPrivileges != null && storagesAndPrivileges.containsKey(storageId);
+    }
 }
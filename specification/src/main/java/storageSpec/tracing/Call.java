@@ -0,0 +1,67 @@
+package storageSpec.tracing;
+
+/**
+ * Timestamps of the traced call running on the current thread. {@link TracingStorageOps}
+ * fills in the outer bounds, the session's check hook when the back-end was entered.
+ * <p>
+ * One instance per thread is reused across calls so that an untraced call allocates
+ * nothing; a traced call made from inside another on the same thread (a back-end calling
+ * back into a traced view, say) gets a fresh instance that is dropped when it ends.
+ */
+final class Call {
+
+    private static final ThreadLocal<Call> CURRENT = ThreadLocal.withInitial(() -> new Call(null));
+
+    final Call parent;
+    boolean active;
+    long start;
+    long ioStart;
+    boolean io;
+    long end;
+    RuntimeException error;
+    boolean sampled;
+
+    private Call(Call parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the call running on this thread, or an idle one if none is.
+     */
+    static Call current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a call on this thread.
+     */
+    static Call begin(boolean sampled) {
+        Call call = CURRENT.get();
+        if (call.active) {
+            call = new Call(call);
+            CURRENT.set(call);
+        }
+        call.active = true;
+        call.io = false;
+        call.error = null;
+        call.sampled = sampled;
+        call.start = System.nanoTime();
+        return call;
+    }
+
+    /**
+     * Ends this call and restores the one it interrupted, if any.
+     */
+    void end() {
+        end = System.nanoTime();
+        active = false;
+        if (parent != null) {
+            CURRENT.set(parent);
+        }
+    }
+
+    void ioStarted() {
+        io = true;
+        ioStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,19 @@
+package storageSpec.tracing;
+
+/**
+ * Destination of the spans produced by a {@link TracingStorageOps}.
+ * <p>
+ * {@link #export} runs on the thread that made the traced call, after the call finished;
+ * implementations that do I/O should hand the span off to a queue of their own. Exceptions
+ * thrown by the exporter are ignored.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+
+    /**
+     * Receives one finished span.
+     *
+     * @param span the span
+     */
+    void export(TraceSpan span);
+}
@@ -0,0 +1,116 @@
+package storageSpec.tracing;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One traced call: who made it, with which arguments, and where the time went.
+ * <p>
+ * The duration is split into the privilege check (everything before the back-end was
+ * called, including the session's own dispatch) and the back-end I/O. A call rejected by
+ * the privilege check has no I/O time.
+ */
+@Getter
+public final class TraceSpan {
+
+    /**
+     * 128-bit trace ID as 32 lower-case hex digits.
+     */
+    private final String traceId;
+
+    /**
+     * 64-bit span ID as 16 lower-case hex digits.
+     */
+    private final String spanId;
+
+    /**
+     * Name of the {@code IStorageOps} / {@code IStorageAdminOps} method called.
+     */
+    private final String operation;
+
+    /**
+     * Storage the call was made on.
+     */
+    private final String storageId;
+
+    /**
+     * User the session belongs to.
+     */
+    private final String userName;
+
+    /**
+     * Call arguments by parameter name, rendered as text; passwords are masked.
+     */
+    private final Map<String, String> arguments;
+
+    /**
+     * Wall-clock time the call started.
+     */
+    private final Instant startTime;
+
+    /**
+     * Total duration of the call.
+     */
+    private final long durationNanos;
+
+    /**
+     * Time spent before the back-end was called.
+     */
+    private final long privilegeCheckNanos;
+
+    /**
+     * Time spent in the back-end, {@code 0} if it was never called.
+     */
+    private final long ioNanos;
+
+    /**
+     * What the call threw, or {@code null} if it succeeded.
+     */
+    private final Throwable error;
+
+    /**
+     * Whether the call exceeded the slow threshold.
+     */
+    private final boolean slow;
+
+    TraceSpan(String traceId, String spanId, String operation, String storageId, String userName,
+              Map<String, String> arguments, Instant startTime, long durationNanos,
+              long privilegeCheckNanos, long ioNanos, Throwable error, boolean slow) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.operation = operation;
+        this.storageId = storageId;
+        this.userName = userName;
+        this.arguments = arguments;
+        this.startTime = startTime;
+        this.durationNanos = durationNanos;
+        this.privilegeCheckNanos = privilegeCheckNanos;
+        this.ioNanos = ioNanos;
+        this.error = error;
+        this.slow = slow;
+    }
+
+    /**
+     * Describes the span on one line, e.g.
+     * {@code searchByName on storage 'docs' by 'alice': 40213.512 ms (privilege check 0.004 ms,
+     * I/O 40213.490 ms) {name=report.pdf}}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(operation).append(" on storage '").append(storageId)
+                .append("' by '").append(userName).append("': ").append(millis(durationNanos))
+                .append(" ms (privilege check ").append(millis(privilegeCheckNanos))
+                .append(" ms, I/O ").append(millis(ioNanos)).append(" ms) ").append(arguments);
+        if (error != null) {
+            text.append(" failed: ").append(error);
+        }
+        return text.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
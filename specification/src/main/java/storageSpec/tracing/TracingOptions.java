@@ -0,0 +1,37 @@
+package storageSpec.tracing;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Configuration of a {@link TracingStorageOps}. Values are read once, when the decorator is
+ * created; later changes to the same instance have no effect on it.
+ */
+@Getter
+@Setter
+public class TracingOptions {
+
+    /**
+     * Calls taking at least this long are logged as slow and exported as spans. Defaults to
+     * one second.
+     */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    /**
+     * Fraction of calls, between 0 and 1, exported as spans regardless of duration. Defaults
+     * to 0, which skips sampling entirely.
+     */
+    private double sampleRate;
+
+    /**
+     * Receives sampled and slow spans, or {@code null} to only log slow calls.
+     */
+    private SpanExporter exporter;
+
+    /**
+     * Longest rendering of a single argument in logs and spans; longer values are cut.
+     */
+    private int maxArgumentLength = 200;
+}
@@ -0,0 +1,838 @@
+package storageSpec.tracing;
+
+import storageSpec.Privilege;
+import storageSpec.StorageSession;
+import storageSpec.ops.BatchOperation;
+import storageSpec.ops.BulkOperationResult;
+import storageSpec.ops.ByteRange;
+import storageSpec.ops.IStorageAdminOps;
+import storageSpec.ops.IStorageOps;
+import storageSpec.ops.Page;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that catches individual pathological calls of a {@link StorageSession}: calls
+ * slower than {@link TracingOptions#getSlowThreshold()} are logged with their arguments, user,
+ * storage and a breakdown into privilege check and back-end I/O, and a sample of all calls
+ * is exported as {@link TraceSpan}s.
+ * <p>
+ * The breakdown comes from a {@linkplain StorageSession#withCheckHook check hook} that marks
+ * where the session's privilege check ends and the back-end call starts.
+ * A fast, unsampled call costs three {@link System#nanoTime()} reads and two thread-local
+ * lookups; arguments are only rendered for calls that are reported. With a sample rate of 0
+ * no random number is drawn at all.
+ * <p>
+ * Slow calls are logged at {@link System.Logger.Level#WARNING} to the {@link System.Logger}
+ * named after this class. For the channels of {@link #openRead}/{@link #openWrite} and the
+ * {@code stream*} methods only opening is timed.
+ */
+public final class TracingStorageOps implements IStorageOps, IStorageAdminOps {
+
+    private static final System.Logger LOGGER = System.getLogger(TracingStorageOps.class.getName());
+    private static final int MAX_COLLECTION_ITEMS = 3;
+    private static final Runnable IO_STARTED = () -> Call.current().ioStarted();
+
+    private final StorageSession session;
+    private final String storageId;
+    private final String userName;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final SpanExporter exporter;
+    private final int maxArgumentLength;
+
+    /**
+     * Wraps a session.
+     *
+     * @param session session to trace
+     * @param options threshold, sampling and exporter; read once
+     */
+    public TracingStorageOps(StorageSession session, TracingOptions options) {
+        this.session = session.withCheckHook(IO_STARTED);
+        this.storageId = session.getStorage().getStorageId();
+        this.userName = session.getCurrentUser().getUserName();
+        this.slowThresholdNanos = options.getSlowThreshold().toNanos();
+        this.sampleRate = options.getSampleRate();
+        this.exporter = options.getExporter();
+        this.maxArgumentLength = options.getMaxArgumentLength();
+    }
+
+    // ── Directory operations ─────────────────────────────────────────────────
+
+    @Override
+    public void createDir(String dirName, String path) {
+        Call call = begin();
+        try {
+            session.createDir(dirName, path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "createDir", "dirName", dirName, "path", path);
+            }
+        }
+    }
+
+    @Override
+    public void createDir(String dirName, String path, String namePrefix, int numberOfDirs) {
+        Call call = begin();
+        try {
+            session.createDir(dirName, path, namePrefix, numberOfDirs);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "createDir", "dirName", dirName, "path", path, "namePrefix", namePrefix, "numberOfDirs", numberOfDirs);
+            }
+        }
+    }
+
+    // ── File operations ──────────────────────────────────────────────────────
+
+    @Override
+    public void createFile(String fileName, String path, String fileType) {
+        Call call = begin();
+        try {
+            session.createFile(fileName, path, fileType);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "createFile", "fileName", fileName, "path", path, "fileType", fileType);
+            }
+        }
+    }
+
+    @Override
+    public void uploadFile(String fileName, String sourcePath, String destinationPath, String fileType) {
+        Call call = begin();
+        try {
+            session.uploadFile(fileName, sourcePath, destinationPath, fileType);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "uploadFile", "fileName", fileName, "sourcePath", sourcePath, "destinationPath", destinationPath, "fileType", fileType);
+            }
+        }
+    }
+
+    @Override
+    public BulkOperationResult move(Collection<String> filePaths, String destinationPath) {
+        Call call = begin();
+        try {
+            return session.move(filePaths, destinationPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "move", "filePaths", filePaths, "destinationPath", destinationPath);
+            }
+        }
+    }
+
+    @Override
+    public void move(String filePath, String destinationPath) {
+        Call call = begin();
+        try {
+            session.move(filePath, destinationPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "move", "filePath", filePath, "destinationPath", destinationPath);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        Call call = begin();
+        try {
+            session.delete(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "delete", "path", path);
+            }
+        }
+    }
+
+    @Override
+    public void download(String path, String destinationPath) {
+        Call call = begin();
+        try {
+            session.download(path, destinationPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "download", "path", path, "destinationPath", destinationPath);
+            }
+        }
+    }
+
+    @Override
+    public void rename(String path, String newName) {
+        Call call = begin();
+        try {
+            session.rename(path, newName);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "rename", "path", path, "newName", newName);
+            }
+        }
+    }
+
+    @Override
+    public void copy(String sourcePath, String destinationPath) {
+        Call call = begin();
+        try {
+            session.copy(sourcePath, destinationPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "copy", "sourcePath", sourcePath, "destinationPath", destinationPath);
+            }
+        }
+    }
+
+    @Override
+    public BulkOperationResult executeBatch(List<BatchOperation> operations) {
+        Call call = begin();
+        try {
+            return session.executeBatch(operations);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "executeBatch", "operations", operations);
+            }
+        }
+    }
+
+    // ── Streaming I/O ────────────────────────────────────────────────────────
+
+    @Override
+    public ReadableByteChannel openRead(String path) {
+        Call call = begin();
+        try {
+            return session.openRead(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "openRead", "path", path);
+            }
+        }
+    }
+
+    @Override
+    public WritableByteChannel openWrite(String fileName, String destinationPath, String fileType) {
+        Call call = begin();
+        try {
+            return session.openWrite(fileName, destinationPath, fileType);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "openWrite", "fileName", fileName, "destinationPath", destinationPath, "fileType", fileType);
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer readRange(String path, long offset, int length) {
+        Call call = begin();
+        try {
+            return session.readRange(path, offset, length);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "readRange", "path", path, "offset", offset, "length", length);
+            }
+        }
+    }
+
+    @Override
+    public List<ByteBuffer> readRanges(String path, List<ByteRange> ranges) {
+        Call call = begin();
+        try {
+            return session.readRanges(path, ranges);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "readRanges", "path", path, "ranges", ranges);
+            }
+        }
+    }
+
+    // ── Listing / search ─────────────────────────────────────────────────────
+
+    @Override
+    public List<String> listFiles(String dirPath) {
+        Call call = begin();
+        try {
+            return session.listFiles(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listFiles", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public Page listFiles(String dirPath, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.listFiles(dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listFiles", "dirPath", dirPath, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public Stream<String> streamFiles(String dirPath) {
+        Call call = begin();
+        try {
+            return session.streamFiles(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "streamFiles", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public List<String> listDirs(String dirPath) {
+        Call call = begin();
+        try {
+            return session.listDirs(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listDirs", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public Page listDirs(String dirPath, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.listDirs(dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listDirs", "dirPath", dirPath, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public Stream<String> streamDirs(String dirPath) {
+        Call call = begin();
+        try {
+            return session.streamDirs(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "streamDirs", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByName(String name) {
+        Call call = begin();
+        try {
+            return session.searchByName(name);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByName", "name", name);
+            }
+        }
+    }
+
+    @Override
+    public Page searchByName(String name, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.searchByName(name, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByName", "name", name, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByNamePrefix(String prefix) {
+        Call call = begin();
+        try {
+            return session.searchByNamePrefix(prefix);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByNamePrefix", "prefix", prefix);
+            }
+        }
+    }
+
+    @Override
+    public Page searchByNamePrefix(String prefix, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.searchByNamePrefix(prefix, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByNamePrefix", "prefix", prefix, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByExtension(String extension, String dirPath) {
+        Call call = begin();
+        try {
+            return session.searchByExtension(extension, dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByExtension", "extension", extension, "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public Page searchByExtension(String extension, String dirPath, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.searchByExtension(extension, dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByExtension", "extension", extension, "dirPath", dirPath, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public List<String> listFilesSortedByName(String dirPath) {
+        Call call = begin();
+        try {
+            return session.listFilesSortedByName(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listFilesSortedByName", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public List<String> listFilesSortedByDate(String dirPath) {
+        Call call = begin();
+        try {
+            return session.listFilesSortedByDate(dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listFilesSortedByDate", "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public List<String> listNewestFiles(String dirPath, int count) {
+        Call call = begin();
+        try {
+            return session.listNewestFiles(dirPath, count);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "listNewestFiles", "dirPath", dirPath, "count", count);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int limit) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end, limit);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end, "limit", limit);
+            }
+        }
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end, dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end, "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public List<String> searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int limit) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end, dirPath, limit);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end, "dirPath", dirPath, "limit", limit);
+            }
+        }
+    }
+
+    @Override
+    public Page searchByCreationDateRange(LocalDateTime start, LocalDateTime end, String dirPath, int pageSize, String pageToken) {
+        Call call = begin();
+        try {
+            return session.searchByCreationDateRange(start, end, dirPath, pageSize, pageToken);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "searchByCreationDateRange", "start", start, "end", end, "dirPath", dirPath, "pageSize", pageSize, "pageToken", pageToken);
+            }
+        }
+    }
+
+    // ── Metadata ─────────────────────────────────────────────────────────────
+
+    @Override
+    public String getModificationDate(String path) {
+        Call call = begin();
+        try {
+            return session.getModificationDate(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "getModificationDate", "path", path);
+            }
+        }
+    }
+
+    @Override
+    public String getCreationDate(String path) {
+        Call call = begin();
+        try {
+            return session.getCreationDate(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "getCreationDate", "path", path);
+            }
+        }
+    }
+
+    @Override
+    public boolean fileExists(String path) {
+        Call call = begin();
+        try {
+            return session.fileExists(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "fileExists", "path", path);
+            }
+        }
+    }
+
+    @Override
+    public long getFileSize(String path) {
+        Call call = begin();
+        try {
+            return session.getFileSize(path);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "getFileSize", "path", path);
+            }
+        }
+    }
+
+    // ── Admin operations ─────────────────────────────────────────────────────
+
+    @Override
+    public void setStorageSize(long bytes) {
+        Call call = begin();
+        try {
+            session.setStorageSize(bytes);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "setStorageSize", "bytes", bytes);
+            }
+        }
+    }
+
+    @Override
+    public void setForbiddenExtensions(Collection<String> extensions) {
+        Call call = begin();
+        try {
+            session.setForbiddenExtensions(extensions);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "setForbiddenExtensions", "extensions", extensions);
+            }
+        }
+    }
+
+    @Override
+    public void setMaxFileNumberInDir(int number, String dirPath) {
+        Call call = begin();
+        try {
+            session.setMaxFileNumberInDir(number, dirPath);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "setMaxFileNumberInDir", "number", number, "dirPath", dirPath);
+            }
+        }
+    }
+
+    @Override
+    public void addUser(String userName, String password, Privilege privilege) {
+        Call call = begin();
+        try {
+            session.addUser(userName, password, privilege);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "addUser", "userName", userName, "password", "***", "privilege", privilege);
+            }
+        }
+    }
+
+    @Override
+    public void removeUser(String userName) {
+        Call call = begin();
+        try {
+            session.removeUser(userName);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "removeUser", "userName", userName);
+            }
+        }
+    }
+
+    @Override
+    public void updateUserPrivilege(String userName, Privilege newPrivilege) {
+        Call call = begin();
+        try {
+            session.updateUserPrivilege(userName, newPrivilege);
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } finally {
+            if (end(call)) {
+                report(call, "updateUserPrivilege", "userName", userName, "newPrivilege", newPrivilege);
+            }
+        }
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private Call begin() {
+        return Call.begin(sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Ends the call and tells whether it must be reported.
+     */
+    private boolean end(Call call) {
+        call.end();
+        return call.sampled || call.end - call.start >= slowThresholdNanos;
+    }
+
+    /**
+     * Logs and exports a finished call. {@code arguments} alternates parameter names and
+     * values.
+     */
+    private void report(Call call, String operation, Object... arguments) {
+        long duration = call.end - call.start;
+        long check = (call.io ? call.ioStart : call.end) - call.start;
+        long io = call.io ? call.end - call.ioStart : 0;
+        boolean slow = duration >= slowThresholdNanos;
+        Map<String, String> rendered = new LinkedHashMap<>();
+        for (int i = 0; i < arguments.length; i += 2) {
+            rendered.put((String) arguments[i], render(arguments[i + 1]));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TraceSpan span = new TraceSpan(
+                hex(random.nextLong()) + hex(random.nextLong()), hex(random.nextLong()),
+                operation, storageId, userName, Collections.unmodifiableMap(rendered),
+                Instant.now().minusNanos(System.nanoTime() - call.start), duration, check, io,
+                call.error, slow);
+        if (slow && LOGGER.isLoggable(System.Logger.Level.WARNING)) {
+            LOGGER.log(System.Logger.Level.WARNING, "Slow " + span);
+        }
+        if (exporter != null) {
+            try {
+                exporter.export(span);
+            } catch (RuntimeException ignored) {
+                // a broken exporter must not fail the traced call
+            }
+        }
+    }
+
+    private String render(Object value) {
+        String text;
+        if (value instanceof Collection<?> collection) {
+            StringBuilder items = new StringBuilder().append(collection.size()).append(" items [");
+            Iterator<?> it = collection.iterator();
+            for (int i = 0; i < MAX_COLLECTION_ITEMS && it.hasNext(); i++) {
+                items.append(i == 0 ? "" : ", ").append(it.next());
+            }
+            text = items.append(collection.size() > MAX_COLLECTION_ITEMS ? ", ...]" : "]").toString();
+        } else {
+            text = String.valueOf(value);
+        }
+        return text.length() <= maxArgumentLength ? text : text.substring(0, maxArgumentLength) + "...";
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+}
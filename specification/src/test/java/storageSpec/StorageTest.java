@@ -0,0 +1,97 @@
+package storageSpec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageTest {
+
+    @Test
+    void addUserIfAbsentKeepsTheFirstUserWithAName() {
+        Storage storage = new Storage("s", "/s", "id");
+        User first = new User("alice", "1");
+
+        assertTrue(storage.addUserIfAbsent(first));
+        assertFalse(storage.addUserIfAbsent(new User("alice", "2")));
+        assertSame(first, storage.findUser("alice"));
+        assertEquals(1, storage.getUsers().size());
+    }
+
+    @Test
+    void concurrentAddsOfTheSameNameHaveOneWinner() throws Exception {
+        Storage storage = new Storage("s", "/s", "id");
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger added = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            User user = new User("bob", Integer.toString(i));
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (storage.addUserIfAbsent(user)) {
+                    added.incrementAndGet();
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(1, added.get());
+        assertEquals(1, storage.getUsers().size());
+    }
+
+    @Test
+    void privilegeMapsAcceptNullsAgain() {
+        User user = new User("carol", "pw");
+        user.setStoragesAndPrivileges(null);
+        assertTrue(user.getStoragesAndPrivileges().isEmpty());
+
+        Map<String, Privilege> privileges = new HashMap<>();
+        privileges.put("a", Privilege.READ);
+        privileges.put("b", null);
+        user.setStoragesAndPrivileges(privileges);
+        privileges.clear();
+
+        assertEquals(Privilege.READ, user.getPrivilegeFor("a"));
+        assertNull(user.getPrivilegeFor("b"));
+        assertTrue(user.getStoragesAndPrivileges().containsKey("b"));
+        user.addStorage("c", Privilege.ADMIN);
+        assertEquals(3, user.getStoragesAndPrivileges().size());
+    }
+
+    @Test
+    void nullLimitsAndExtensionsMeanNone() {
+        Storage storage = new Storage("s", "/s", "id");
+        storage.setForbiddenExtensions(null);
+        storage.setDirsMaxChildrenCount(null);
+
+        assertTrue(storage.getForbiddenExtensions().isEmpty());
+        assertTrue(storage.getDirsMaxChildrenCount().isEmpty());
+    }
+
+    @Test
+    void passwordIsReplacedOnlyIfUnchanged() {
+        User user = new User("dave", "old");
+
+        assertFalse(user.compareAndSetPassword("other", "new"));
+        assertEquals("old", user.getPassword());
+        assertTrue(user.compareAndSetPassword("old", "new"));
+        assertEquals("new", user.getPassword());
+    }
+}
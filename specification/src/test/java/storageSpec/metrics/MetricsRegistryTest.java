@@ -0,0 +1,101 @@
+package storageSpec.metrics;
+
+import org.junit.jupiter.api.Test;
+import storageSpec.exception.StorageException;
+import storageSpec.ops.IStorageOps;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    @Test
+    void transfersCountTheBytesTheDelegateReports() {
+        StorageMetrics metrics = new StorageMetrics("transfers");
+        IStorageOps ops = new MetricsStorageOps(transferring(() -> 42L), metrics);
+
+        ops.uploadFile("f", "/does/not/exist", "", "bin");
+        ops.download("f.bin", "/tmp");
+        ops.copy("f.bin", "dir");
+        ops.copy("f.bin", "dir");
+
+        assertEquals(42, metrics.of(StorageOperation.UPLOAD_FILE).bytes());
+        assertEquals(1, metrics.of(StorageOperation.UPLOAD_FILE).latency().count());
+        assertEquals(42, metrics.of(StorageOperation.DOWNLOAD).bytes());
+        assertEquals(84, metrics.of(StorageOperation.COPY).bytes());
+    }
+
+    @Test
+    void nestedMeasurementsHandTheirBytesOutwards() {
+        StorageMetrics inner = new StorageMetrics("inner");
+        StorageMetrics outer = new StorageMetrics("outer");
+        IStorageOps ops = new MetricsStorageOps(new MetricsStorageOps(transferring(() -> 7L), inner), outer);
+
+        ops.uploadFile("f", "src", "", "bin");
+        TransferMeter.record(1_000);
+
+        assertEquals(7, inner.of(StorageOperation.UPLOAD_FILE).bytes());
+        assertEquals(7, outer.of(StorageOperation.UPLOAD_FILE).bytes());
+    }
+
+    @Test
+    void failedUploadCountsAnErrorAndNoBytes() {
+        StorageMetrics metrics = new StorageMetrics("failing");
+        IStorageOps ops = new MetricsStorageOps(transferring(() -> {
+            throw new StorageException("full");
+        }), metrics);
+
+        assertThrows(StorageException.class, () -> ops.uploadFile("f", "src", "", "bin"));
+
+        OperationStats stats = metrics.of(StorageOperation.UPLOAD_FILE);
+        assertEquals(0, stats.bytes());
+        assertEquals(1, stats.errorCount());
+    }
+
+    @Test
+    void closeLeavesAnotherRegistrysBeansRegistered() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=StorageOperation,storage="
+                + ObjectName.quote("shared") + ",operation=" + StorageOperation.UPLOAD_FILE.name());
+        MetricsRegistry first = new MetricsRegistry(true);
+        MetricsRegistry second = new MetricsRegistry(true);
+        try {
+            first.forStorage("shared");
+            second.forStorage("shared");
+            assertTrue(server.isRegistered(name));
+
+            second.close();
+            assertTrue(server.isRegistered(name));
+
+            first.close();
+            assertFalse(server.isRegistered(name));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    /**
+     * Operations whose {@code uploadFile}, {@code download} and {@code copy} report the bytes
+     * {@code result} supplies; every other call fails.
+     */
+    private static IStorageOps transferring(Supplier<Long> result) {
+        return (IStorageOps) Proxy.newProxyInstance(IStorageOps.class.getClassLoader(),
+                new Class<?>[]{IStorageOps.class}, (proxy, method, args) -> {
+                    if (List.of("uploadFile", "download", "copy").contains(method.getName())) {
+                        TransferMeter.record(result.get());
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package storageSpec.ops;
+
+import org.junit.jupiter.api.Test;
+import storageSpec.exception.StorageException;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncStorageOpsTest {
+
+    @Test
+    void callsOverTheBoundFailInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IStorageOps blocking = (IStorageOps) Proxy.newProxyInstance(IStorageOps.class.getClassLoader(),
+                new Class<?>[]{IStorageOps.class}, (proxy, method, args) -> {
+                    release.await();
+                    return null;
+                });
+        AsyncStorageOps async = new AsyncStorageOps(blocking, command -> new Thread(command).start(), 1);
+
+        CompletableFuture<Void> first = async.delete("a");
+        CompletableFuture<Void> second = async.delete("b");
+
+        assertTrue(second.isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class, second::get);
+        assertTrue(failure.getCause() instanceof StorageException);
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        async.delete("c").get(5, TimeUnit.SECONDS);
+    }
+}
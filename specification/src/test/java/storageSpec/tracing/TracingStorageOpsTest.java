@@ -0,0 +1,124 @@
+package storageSpec.tracing;
+
+import org.junit.jupiter.api.Test;
+import storageSpec.Privilege;
+import storageSpec.Storage;
+import storageSpec.StorageSession;
+import storageSpec.User;
+import storageSpec.exception.StoragePermissionException;
+import storageSpec.ops.IStorageAdminOps;
+import storageSpec.ops.IStorageOps;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracingStorageOpsTest {
+
+    private final List<TraceSpan> spans = new CopyOnWriteArrayList<>();
+    private final AtomicReference<TracingStorageOps> traced = new AtomicReference<>();
+
+    @Test
+    void onlySlowCallsAreReportedWithTheirBreakdown() {
+        TracingStorageOps ops = trace(Privilege.ADMIN, options(Duration.ofMillis(30), 0));
+
+        ops.createDir("fast", "");
+        ops.delete("slow");
+
+        assertEquals(1, spans.size());
+        TraceSpan span = spans.get(0);
+        assertEquals("delete", span.getOperation());
+        assertTrue(span.isSlow());
+        assertTrue(span.getIoNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(span.getPrivilegeCheckNanos() + span.getIoNanos() <= span.getDurationNanos());
+        assertEquals("slow", span.getArguments().get("path"));
+    }
+
+    @Test
+    void sampledCallsAreReportedWhateverTheirDuration() {
+        TracingStorageOps all = trace(Privilege.ADMIN, options(Duration.ofHours(1), 1));
+        all.createDir("a", "");
+        all.createFile("b", "", "txt");
+
+        assertEquals(List.of("createDir", "createFile"), spans.stream().map(TraceSpan::getOperation).toList());
+        assertFalse(spans.get(0).isSlow());
+
+        spans.clear();
+        TracingStorageOps none = trace(Privilege.ADMIN, options(Duration.ofHours(1), 0));
+        none.createDir("a", "");
+        assertTrue(spans.isEmpty());
+    }
+
+    @Test
+    void callsMadeFromInsideTheBackEndAreTracedSeparately() {
+        TracingStorageOps ops = trace(Privilege.ADMIN, options(Duration.ofHours(1), 1));
+
+        ops.copy("a", "b");
+
+        assertEquals(List.of("createDir", "copy"), spans.stream().map(TraceSpan::getOperation).toList());
+        TraceSpan inner = spans.get(0);
+        TraceSpan outer = spans.get(1);
+        assertTrue(outer.getIoNanos() >= inner.getDurationNanos());
+        assertTrue(inner.getIoNanos() > 0);
+    }
+
+    @Test
+    void passwordsAreMaskedAndRejectedCallsHaveNoIo() {
+        TracingStorageOps admin = trace(Privilege.ADMIN, options(Duration.ofHours(1), 1));
+        admin.addUser("bob", "secret", Privilege.READ);
+
+        assertEquals("***", spans.get(0).getArguments().get("password"));
+        assertEquals("bob", spans.get(0).getArguments().get("userName"));
+
+        spans.clear();
+        TracingStorageOps reader = trace(Privilege.READ, options(Duration.ofHours(1), 1));
+        assertThrows(StoragePermissionException.class, () -> reader.delete("x"));
+
+        assertEquals(1, spans.size());
+        assertTrue(spans.get(0).getError() instanceof StoragePermissionException);
+        assertEquals(0, spans.get(0).getIoNanos());
+    }
+
+    private TracingOptions options(Duration slowThreshold, double sampleRate) {
+        TracingOptions options = new TracingOptions();
+        options.setSlowThreshold(slowThreshold);
+        options.setSampleRate(sampleRate);
+        options.setExporter(spans::add);
+        return options;
+    }
+
+    /**
+     * Traces a session whose back-end sleeps on {@code delete}, calls back into the traced
+     * view on {@code copy} and does nothing otherwise.
+     */
+    private TracingStorageOps trace(Privilege privilege, TracingOptions options) {
+        User user = new User("alice", "pw");
+        user.addStorage("id", privilege);
+        InvocationHandler backEnd = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "delete" -> Thread.sleep(60);
+                case "copy" -> traced.get().createDir("nested", "");
+                default -> {
+                }
+            }
+            return null;
+        };
+        IStorageOps ops = (IStorageOps) Proxy.newProxyInstance(IStorageOps.class.getClassLoader(),
+                new Class<?>[]{IStorageOps.class}, backEnd);
+        IStorageAdminOps admin = (IStorageAdminOps) Proxy.newProxyInstance(IStorageAdminOps.class.getClassLoader(),
+                new Class<?>[]{IStorageAdminOps.class}, backEnd);
+        TracingStorageOps tracing = new TracingStorageOps(
+                new StorageSession(user, new Storage("store", "/store", "id"), ops, admin), options);
+        traced.set(tracing);
+        return tracing;
+    }
+}